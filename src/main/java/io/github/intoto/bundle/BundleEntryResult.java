@@ -0,0 +1,81 @@
+package io.github.intoto.bundle;
+
+import io.github.intoto.dsse.helpers.VerificationResult;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import java.util.Objects;
+
+/**
+ * Outcome of verifying one line of an attestation bundle. Either the line was parsed and its
+ * signatures were checked, in which case the envelope and the verification result are set, or the
+ * line could not be processed and the exception is set.
+ */
+public final class BundleEntryResult {
+
+  /** Line number of the envelope in the bundle, starting at 1. */
+  private final long lineNumber;
+
+  private final IntotoEnvelope envelope;
+
+  private final VerificationResult verificationResult;
+
+  private final Exception exception;
+
+  private BundleEntryResult(
+      long lineNumber,
+      IntotoEnvelope envelope,
+      VerificationResult verificationResult,
+      Exception exception) {
+    this.lineNumber = lineNumber;
+    this.envelope = envelope;
+    this.verificationResult = verificationResult;
+    this.exception = exception;
+  }
+
+  static BundleEntryResult verified(
+      long lineNumber, IntotoEnvelope envelope, VerificationResult verificationResult) {
+    return new BundleEntryResult(
+        lineNumber,
+        Objects.requireNonNull(envelope),
+        Objects.requireNonNull(verificationResult),
+        null);
+  }
+
+  static BundleEntryResult failure(long lineNumber, Exception exception) {
+    return new BundleEntryResult(lineNumber, null, null, Objects.requireNonNull(exception));
+  }
+
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  /** Returns true if the line holds an envelope whose signatures satisfy the verifier. */
+  public boolean isVerified() {
+    return verificationResult != null && verificationResult.isVerified();
+  }
+
+  /** Returns the parsed envelope, or null if the line could not be parsed. */
+  public IntotoEnvelope getEnvelope() {
+    return envelope;
+  }
+
+  /** Returns the result of checking the signatures, or null if the line could not be processed. */
+  public VerificationResult getVerificationResult() {
+    return verificationResult;
+  }
+
+  /**
+   * Returns the exception that prevented the line from being verified, or null if its signatures
+   * were checked. An envelope with invalid signatures is not an exception, see {@link
+   * #isVerified()}.
+   */
+  public Exception getException() {
+    return exception;
+  }
+
+  @Override
+  public String toString() {
+    return exception == null
+        ? "BundleEntryResult{line=" + lineNumber + ", " + verificationResult + "}"
+        : "BundleEntryResult{line=" + lineNumber + ", exception=" + exception + "}";
+  }
+}
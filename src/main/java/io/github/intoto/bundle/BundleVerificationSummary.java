@@ -0,0 +1,60 @@
+package io.github.intoto.bundle;
+
+import java.time.Duration;
+
+/** Totals of a {@link BundleVerifier} run over one bundle. */
+public final class BundleVerificationSummary {
+
+  private final long envelopes;
+
+  private final long verified;
+
+  private final long failed;
+
+  private final Duration elapsed;
+
+  BundleVerificationSummary(long envelopes, long verified, long failed, Duration elapsed) {
+    this.envelopes = envelopes;
+    this.verified = verified;
+    this.failed = failed;
+    this.elapsed = elapsed;
+  }
+
+  /** Returns the number of non-blank lines processed. */
+  public long getEnvelopes() {
+    return envelopes;
+  }
+
+  /** Returns the number of envelopes whose signatures satisfied the verifier. */
+  public long getVerified() {
+    return verified;
+  }
+
+  /** Returns the number of lines that could not be parsed or verified at all. */
+  public long getFailed() {
+    return failed;
+  }
+
+  /** Returns the number of envelopes that were processed but not verified. */
+  public long getRejected() {
+    return envelopes - verified - failed;
+  }
+
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /** Returns the throughput of the run in envelopes per second. */
+  public double getEnvelopesPerSecond() {
+    long nanos = elapsed.toNanos();
+    return nanos == 0 ? 0 : envelopes * 1_000_000_000d / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "BundleVerificationSummary{envelopes=%d, verified=%d, rejected=%d, failed=%d,"
+            + " elapsed=%s, envelopesPerSecond=%.1f}",
+        envelopes, verified, getRejected(), failed, elapsed, getEnvelopesPerSecond());
+  }
+}
@@ -0,0 +1,210 @@
+package io.github.intoto.bundle;
+
+import io.github.intoto.dsse.helpers.IntotoEnvelopeVerifier;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Verifies every envelope of an attestation bundle, a JSON Lines file with one {@link
+ * IntotoEnvelope} per line such as {@code intoto_example.intoto.jsonl}.
+ *
+ * <p>The bundle is read line by line and never held in memory as a whole. Parsing the envelope,
+ * decoding its payload and checking its signatures run as independent tasks on a work-stealing
+ * pool. At most {@code window} lines are in flight at a time, and results are handed to the
+ * callback on the calling thread in bundle order. Blank lines are skipped.
+ *
+ * <pre>
+ * BundleVerifier bundleVerifier =
+ *     BundleVerifier.builder(new IntotoEnvelopeVerifier(keyring)).threshold(2).build();
+ * BundleVerificationSummary summary =
+ *     bundleVerifier.verify(Path.of("release.intoto.jsonl"), result -&gt; { ... });
+ * </pre>
+ */
+public final class BundleVerifier {
+
+  private final IntotoEnvelopeVerifier verifier;
+
+  private final IntotoCodec codec;
+
+  private final Executor executor;
+
+  private final int threshold;
+
+  private final int window;
+
+  private BundleVerifier(Builder builder) {
+    this.verifier = builder.verifier;
+    this.codec = builder.codec;
+    this.executor = builder.executor;
+    this.threshold = builder.threshold;
+    this.window = builder.window;
+  }
+
+  /** Returns a builder for a bundle verifier checking signatures with the given verifier. */
+  public static Builder builder(IntotoEnvelopeVerifier verifier) {
+    return new Builder(verifier);
+  }
+
+  /**
+   * Verifies the bundle at the given path, which must be encoded in UTF-8.
+   *
+   * @param bundle the path of the bundle.
+   * @param callback receives the result of each line, in bundle order.
+   * @return the totals of the run.
+   * @throws IOException thrown when the bundle cannot be read.
+   */
+  public BundleVerificationSummary verify(Path bundle, Consumer<BundleEntryResult> callback)
+      throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(bundle, StandardCharsets.UTF_8)) {
+      return verify(reader, callback);
+    }
+  }
+
+  /**
+   * Verifies the bundle read from the given reader. The reader is not closed.
+   *
+   * @param bundle the reader of the bundle.
+   * @param callback receives the result of each line, in bundle order.
+   * @return the totals of the run.
+   * @throws IOException thrown when the bundle cannot be read.
+   */
+  public BundleVerificationSummary verify(Reader bundle, Consumer<BundleEntryResult> callback)
+      throws IOException {
+    Objects.requireNonNull(callback, "callback must not be null");
+    BufferedReader reader =
+        bundle instanceof BufferedReader ? (BufferedReader) bundle : new BufferedReader(bundle);
+    long start = System.nanoTime();
+    Queue<CompletableFuture<BundleEntryResult>> inFlight = new ArrayDeque<>(window);
+    Counts counts = new Counts();
+    try {
+      long lineNumber = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (inFlight.size() == window) {
+          counts.deliver(inFlight.poll().join(), callback);
+        }
+        long currentLine = lineNumber;
+        String currentJson = line;
+        inFlight.add(
+            CompletableFuture.supplyAsync(() -> verifyLine(currentLine, currentJson), executor));
+      }
+      while (!inFlight.isEmpty()) {
+        counts.deliver(inFlight.poll().join(), callback);
+      }
+    } finally {
+      // Do not leave work running when reading or the callback fails.
+      inFlight.forEach(future -> future.cancel(false));
+    }
+    return new BundleVerificationSummary(
+        counts.envelopes,
+        counts.verified,
+        counts.failed,
+        Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private BundleEntryResult verifyLine(long lineNumber, String json) {
+    try {
+      IntotoEnvelope envelope = codec.readEnvelope(json);
+      return BundleEntryResult.verified(lineNumber, envelope, verifier.verify(envelope, threshold));
+    } catch (Exception e) {
+      return BundleEntryResult.failure(lineNumber, e);
+    }
+  }
+
+  /** Running totals, only touched by the thread calling verify. */
+  private static final class Counts {
+    private long envelopes;
+    private long verified;
+    private long failed;
+
+    void deliver(BundleEntryResult result, Consumer<BundleEntryResult> callback) {
+      envelopes++;
+      if (result.isVerified()) {
+        verified++;
+      } else if (result.getException() != null) {
+        failed++;
+      }
+      callback.accept(result);
+    }
+  }
+
+  /** Builder for {@link BundleVerifier}. */
+  public static final class Builder {
+
+    private final IntotoEnvelopeVerifier verifier;
+
+    private IntotoCodec codec = IntotoCodec.defaultCodec();
+
+    private Executor executor = ForkJoinPool.commonPool();
+
+    private int threshold = 1;
+
+    private int window = 4 * Runtime.getRuntime().availableProcessors();
+
+    private Builder(IntotoEnvelopeVerifier verifier) {
+      this.verifier = Objects.requireNonNull(verifier, "verifier must not be null");
+    }
+
+    /** Sets the codec used to parse envelopes. */
+    public Builder codec(IntotoCodec codec) {
+      this.codec = Objects.requireNonNull(codec);
+      return this;
+    }
+
+    /**
+     * Sets the executor the lines are verified on. Defaults to the common ForkJoinPool, whose
+     * work-stealing keeps all cores busy even when envelopes differ in size.
+     */
+    public Builder executor(Executor executor) {
+      this.executor = Objects.requireNonNull(executor);
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct trusted keys that must have signed each envelope, see {@link
+     * IntotoEnvelopeVerifier#verify(IntotoEnvelope, int)}. Defaults to 1.
+     */
+    public Builder threshold(int threshold) {
+      this.threshold = requirePositive(threshold, "threshold");
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of lines that are read but not yet delivered to the callback.
+     * Defaults to four per core.
+     */
+    public Builder window(int window) {
+      this.window = requirePositive(window, "window");
+      return this;
+    }
+
+    public BundleVerifier build() {
+      return new BundleVerifier(this);
+    }
+
+    private static int requirePositive(int value, String name) {
+      if (value < 1) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,379 @@
+package io.github.intoto.bundle;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Appends {@link IntotoEnvelope}s to an attestation bundle, one compact JSON line per envelope.
+ *
+ * <p>Envelopes are serialized on the calling thread and handed to a single writer thread through a
+ * lock-free queue, so producers never wait for each other or for the disk. The writer does group
+ * commit: it collects queued envelopes into one batch until either {@code syncBytes} bytes are
+ * pending or {@code syncInterval} has passed since the batch was started, writes the batch with a
+ * single gathering write and calls {@link FileChannel#force(boolean)} once for the whole batch. The
+ * future returned by {@link #append(IntotoEnvelope)} completes, with the offset of the line in the
+ * bundle, only after its line is on disk.
+ *
+ * <p>Batches only ever contain whole lines. A crash during a write can still leave part of a line
+ * at the end of the file. When the bundle is opened again, whatever follows the last line feed is
+ * kept and terminated if it is a complete JSON value, as in bundles written by other tools whose
+ * last line lacks its line feed, and dropped otherwise.
+ *
+ * <p>A crash can therefore keep a line whose future never completed: the one whose JSON reached
+ * the disk but whose line feed did not. A producer that retries the envelopes of failed futures
+ * may then append such an envelope twice. Bundles are sets of attestations, so readers must
+ * tolerate the duplicate; producers that cannot should check the bundle before retrying.
+ */
+public final class BundleWriter implements Closeable {
+
+  private static final byte LINE_FEED = '\n';
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final IntotoCodec codec;
+
+  private final FileChannel channel;
+
+  private final long syncBytes;
+
+  private final long syncIntervalNanos;
+
+  private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+
+  private final Thread writerThread;
+
+  private volatile boolean closed;
+
+  /** Set once the writer thread has exited; no entry queued after that will be written. */
+  private volatile boolean writerDone;
+
+  /** The first write failure; once set, every append fails. */
+  private volatile IOException failure;
+
+  /** Offset of the end of the bundle. Only accessed by the writer thread after construction. */
+  private long position;
+
+  private BundleWriter(Builder builder) throws IOException {
+    this.codec = builder.codec;
+    this.syncBytes = builder.syncBytes;
+    this.syncIntervalNanos = builder.syncInterval.toNanos();
+    this.channel =
+        FileChannel.open(
+            builder.path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try {
+      this.position = truncateTornLine(channel, BundleWriter::isCompleteJson);
+      channel.position(position);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    this.writerThread = new Thread(this::runWriter, "intoto-bundle-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /** Returns a builder for a writer appending to the bundle at the given path. */
+  public static Builder builder(Path path) {
+    return new Builder(path);
+  }
+
+  /**
+   * Queues an envelope to be appended to the bundle. This method can be called from any number of
+   * threads at once; envelopes appended by one thread end up in the bundle in the same order.
+   *
+   * @param envelope the envelope to append.
+   * @return a future that completes with the offset of the envelope's line once the line has been
+   *     forced to disk, or completes exceptionally if the line could not be written. After a crash
+   *     the line may still be in the bundle, see the class documentation.
+   * @throws JsonProcessingException thrown when the envelope cannot be serialized.
+   * @throws IllegalStateException thrown when the writer is closed.
+   */
+  public CompletableFuture<Long> append(IntotoEnvelope envelope) throws JsonProcessingException {
+    if (closed) {
+      throw new IllegalStateException("BundleWriter is closed");
+    }
+    byte[] json = codec.toJsonBytes(envelope);
+    Entry entry = new Entry(json);
+    IOException writeFailure = failure;
+    if (writeFailure != null) {
+      entry.future.completeExceptionally(writeFailure);
+      return entry.future;
+    }
+    queue.add(entry);
+    if (writerDone) {
+      // The writer exited after this append checked closed; nobody else will take the entry.
+      if (queue.remove(entry)) {
+        entry.future.completeExceptionally(new IllegalStateException("BundleWriter is closed"));
+      }
+    } else {
+      LockSupport.unpark(writerThread);
+    }
+    return entry.future;
+  }
+
+  /**
+   * Writes and syncs every envelope appended so far, then closes the bundle. Appends made while the
+   * writer is closing may fail with an {@link IllegalStateException}.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    LockSupport.unpark(writerThread);
+    boolean interrupted = false;
+    while (writerThread.isAlive()) {
+      try {
+        writerThread.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    writerDone = true;
+    Entry entry;
+    while ((entry = queue.poll()) != null) {
+      entry.future.completeExceptionally(new IllegalStateException("BundleWriter is closed"));
+    }
+    try {
+      channel.close();
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void runWriter() {
+    List<Entry> batch = new ArrayList<>();
+    while (true) {
+      Entry first = queue.poll();
+      if (first == null) {
+        if (closed) {
+          return;
+        }
+        LockSupport.park(this);
+        continue;
+      }
+      batch.add(first);
+      long batchBytes = first.json.length + 1;
+      long deadline = System.nanoTime() + syncIntervalNanos;
+      while (batchBytes < syncBytes) {
+        Entry next = queue.poll();
+        if (next != null) {
+          batch.add(next);
+          batchBytes += next.json.length + 1;
+          continue;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || closed) {
+          break;
+        }
+        LockSupport.parkNanos(this, remaining);
+      }
+      commit(batch);
+      batch.clear();
+    }
+  }
+
+  /** Writes a batch of whole lines, forces it to disk and completes the futures of its entries. */
+  private void commit(List<Entry> batch) {
+    IOException writeFailure = failure;
+    if (writeFailure == null) {
+      ByteBuffer[] buffers = new ByteBuffer[batch.size() * 2];
+      ByteBuffer lineFeed = ByteBuffer.wrap(new byte[] {LINE_FEED});
+      long start = position;
+      long end = position;
+      for (int i = 0; i < batch.size(); i++) {
+        buffers[2 * i] = ByteBuffer.wrap(batch.get(i).json);
+        buffers[2 * i + 1] = lineFeed.duplicate();
+        end += batch.get(i).json.length + 1;
+      }
+      try {
+        long written = 0;
+        while (written < end - start) {
+          written += channel.write(buffers);
+        }
+        channel.force(false);
+        long offset = start;
+        for (Entry entry : batch) {
+          entry.future.complete(offset);
+          offset += entry.json.length + 1;
+        }
+        position = end;
+        return;
+      } catch (IOException e) {
+        writeFailure = e;
+        failure = e;
+      }
+    }
+    for (Entry entry : batch) {
+      entry.future.completeExceptionally(writeFailure);
+    }
+  }
+
+  /**
+   * Repairs the end of a file of line feed terminated records left by a crash. Whatever follows the
+   * last line feed is either a record that was written without its line feed, which is completed
+   * with one, or the remains of an interrupted write, which are dropped.
+   *
+   * @param isComplete tells whether the bytes after the last line feed are a whole record.
+   * @return the new size of the file.
+   */
+  static long truncateTornLine(FileChannel channel, Predicate<byte[]> isComplete)
+      throws IOException {
+    long size = channel.size();
+    long validSize = lastLineEnd(channel, size);
+    if (validSize == size) {
+      return size;
+    }
+    if (size - validSize <= Integer.MAX_VALUE - 8) {
+      ByteBuffer fragment = ByteBuffer.allocate((int) (size - validSize));
+      while (fragment.hasRemaining()) {
+        if (channel.read(fragment, validSize + fragment.position()) < 0) {
+          throw new IOException("file shrank while being opened");
+        }
+      }
+      if (isComplete.test(fragment.array())) {
+        ByteBuffer lineFeed = ByteBuffer.wrap(new byte[] {LINE_FEED});
+        while (lineFeed.hasRemaining()) {
+          channel.write(lineFeed, size);
+        }
+        channel.force(false);
+        return size + 1;
+      }
+    }
+    channel.truncate(validSize);
+    channel.force(false);
+    return validSize;
+  }
+
+  /**
+   * Tells whether the bytes are exactly one complete JSON value, as the last line of a bundle that
+   * lacks its line feed is.
+   */
+  static boolean isCompleteJson(byte[] bytes) {
+    try (JsonParser parser = JSON_FACTORY.createParser(bytes)) {
+      if (parser.nextToken() == null) {
+        return false;
+      }
+      parser.skipChildren();
+      return parser.nextToken() == null;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /** Returns the offset just after the last line feed of the file, or 0 if there is none. */
+  private static long lastLineEnd(FileChannel channel, long size) throws IOException {
+    ByteBuffer block = ByteBuffer.allocate(8192);
+    long end = size;
+    while (end > 0) {
+      long start = Math.max(0, end - block.capacity());
+      block.clear().limit((int) (end - start));
+      while (block.hasRemaining()) {
+        if (channel.read(block, start + block.position()) < 0) {
+          throw new IOException("file shrank while being opened");
+        }
+      }
+      for (int i = block.limit() - 1; i >= 0; i--) {
+        if (block.get(i) == LINE_FEED) {
+          return start + i + 1;
+        }
+      }
+      end = start;
+    }
+    return 0;
+  }
+
+  /** A serialized envelope waiting to be written. */
+  private static final class Entry {
+    private final byte[] json;
+    private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+    Entry(byte[] json) {
+      this.json = json;
+    }
+  }
+
+  /** Builder for {@link BundleWriter}. */
+  public static final class Builder {
+
+    private final Path path;
+
+    private IntotoCodec codec = IntotoCodec.defaultCodec();
+
+    private long syncBytes = 1 << 20;
+
+    private Duration syncInterval = Duration.ofMillis(2);
+
+    private Builder(Path path) {
+      this.path = Objects.requireNonNull(path, "path must not be null");
+    }
+
+    /** Sets the codec used to serialize envelopes. */
+    public Builder codec(IntotoCodec codec) {
+      this.codec = Objects.requireNonNull(codec);
+      return this;
+    }
+
+    /**
+     * Sets the number of pending bytes at which a batch is written and synced without waiting for
+     * the sync interval. Defaults to 1 MiB.
+     */
+    public Builder syncBytes(long syncBytes) {
+      if (syncBytes < 1) {
+        throw new IllegalArgumentException("syncBytes must be positive");
+      }
+      this.syncBytes = syncBytes;
+      return this;
+    }
+
+    /**
+     * Sets how long the writer keeps collecting envelopes into a batch after the first one arrived.
+     * Longer intervals mean fewer syncs but a higher latency per append. Defaults to 2
+     * milliseconds; zero syncs as soon as the queue is empty.
+     */
+    public Builder syncInterval(Duration syncInterval) {
+      if (syncInterval.isNegative()) {
+        throw new IllegalArgumentException("syncInterval must not be negative");
+      }
+      this.syncInterval = syncInterval;
+      return this;
+    }
+
+    /**
+     * Opens the bundle, creating it if needed and dropping any torn trailing line, and starts the
+     * writer thread.
+     *
+     * @throws IOException thrown when the bundle cannot be opened.
+     */
+    public BundleWriter open() throws IOException {
+      return new BundleWriter(this);
+    }
+  }
+}
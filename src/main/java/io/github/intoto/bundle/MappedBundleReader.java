@@ -0,0 +1,531 @@
+package io.github.intoto.bundle;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.github.intoto.dsse.helpers.CryptoProviders;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random access to the lines of an attestation bundle through memory-mapped segments of the file.
+ *
+ * <p>The reader keeps the start offset of every line in a sidecar index next to the bundle, named
+ * after the bundle with an {@code .idx} suffix. Opening a bundle loads the index and only scans the
+ * lines appended since the index was last written, so reopening a growing bundle is cheap. With the
+ * index in memory, {@link #line(int)} returns any line in constant time as a read-only view of the
+ * mapped file, without copying it.
+ *
+ * <p>The index records the file key, size and modification time of the bundle and a digest of its
+ * first and last indexed lines. An index whose file key or digest no longer matches is rebuilt. If
+ * the bundle was modified since the index was written, every indexed line start must also follow a
+ * line feed, which catches a bundle rewritten in place with different line boundaries. When the
+ * index cannot be written, the reader keeps it in memory only.
+ *
+ * <p>A reader is a snapshot of the complete lines present when it was opened; a trailing line that
+ * is still being written is ignored. A last line that lacks its line feed but holds a complete JSON
+ * value is read like the others; it is only added to the index once it is terminated. Open the
+ * bundle again to see lines appended since. Instances are immutable and can be shared across
+ * threads, for example to parse the chunks returned by {@link #split(int)} in parallel.
+ */
+public final class MappedBundleReader {
+
+  /** Suffix of the sidecar index file. */
+  public static final String INDEX_SUFFIX = ".idx";
+
+  private static final int INDEX_MAGIC = 0x49544958; // "ITIX"
+
+  private static final int INDEX_VERSION = 3;
+
+  private static final int DIGEST_BYTES = 32;
+
+  private static final int INDEX_HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 8 + 8 + DIGEST_BYTES;
+
+  private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+
+  private final Path bundle;
+
+  /** Start offsets of the lines, followed by the end offset of the indexed part of the bundle. */
+  private final long[] offsets;
+
+  private final int lineCount;
+
+  /** Whether the last line ends with a line feed. */
+  private final boolean lastLineTerminated;
+
+  /** Mapped segments of the bundle; each one starts and ends on a line boundary. */
+  private final MappedByteBuffer[] segments;
+
+  /** Offset of each segment in the bundle. */
+  private final long[] segmentStarts;
+
+  private MappedBundleReader(
+      Path bundle,
+      long[] offsets,
+      int lineCount,
+      boolean lastLineTerminated,
+      MappedByteBuffer[] segments,
+      long[] segmentStarts) {
+    this.bundle = bundle;
+    this.offsets = offsets;
+    this.lineCount = lineCount;
+    this.lastLineTerminated = lastLineTerminated;
+    this.segments = segments;
+    this.segmentStarts = segmentStarts;
+  }
+
+  /**
+   * Opens a bundle, creating or extending its sidecar index as needed.
+   *
+   * @param bundle the path of the bundle.
+   * @return a reader for the complete lines of the bundle.
+   * @throws IOException thrown when the bundle cannot be read.
+   */
+  public static MappedBundleReader open(Path bundle) throws IOException {
+    return open(bundle, MAX_SEGMENT_BYTES);
+  }
+
+  static MappedBundleReader open(Path bundle, long maxSegmentBytes) throws IOException {
+    Path indexPath = indexPath(bundle);
+    try (FileChannel channel = FileChannel.open(bundle, StandardOpenOption.READ)) {
+      // Read the attributes before the size, so an append in between makes the index look stale.
+      BasicFileAttributes attributes = Files.readAttributes(bundle, BasicFileAttributes.class);
+      int fileKey = Objects.hashCode(attributes.fileKey());
+      long modified = attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+      long size = channel.size();
+      LineOffsets lineOffsets = loadIndex(indexPath, size, fileKey);
+      boolean unchanged = lineOffsets.bundleSize == size && lineOffsets.modified == modified;
+      if (lineOffsets.count > 0
+          && (!MessageDigest.isEqual(lineOffsets.digest, lineOffsets.digest(channel))
+              || (!unchanged && !lineOffsets.followLineFeeds(channel)))) {
+        // The index belongs to another version of the bundle.
+        lineOffsets = new LineOffsets();
+      }
+      int indexedLines = lineOffsets.count;
+      lineOffsets.scan(channel, size);
+      if (lineOffsets.count != indexedLines || !unchanged || !Files.exists(indexPath)) {
+        try {
+          writeIndex(
+              indexPath,
+              lineOffsets,
+              indexedLines,
+              fileKey,
+              size,
+              modified,
+              lineOffsets.digest(channel));
+        } catch (IOException e) {
+          // The index only saves work on the next open, for example on a read-only volume.
+        }
+      }
+      boolean lastLineTerminated = !lineOffsets.addUnterminatedLine(channel, size);
+      List<MappedByteBuffer> segments = new ArrayList<>();
+      List<Long> segmentStarts = new ArrayList<>();
+      long start = 0;
+      int line = 0;
+      while (line < lineOffsets.count) {
+        // Take as many whole lines as fit in one segment.
+        int last = line;
+        while (last < lineOffsets.count
+            && lineOffsets.offsets[last + 1] - start <= maxSegmentBytes) {
+          last++;
+        }
+        if (last == line) {
+          throw new IOException(
+              "line " + line + " of " + bundle + " is longer than " + maxSegmentBytes + " bytes");
+        }
+        long end = lineOffsets.offsets[last];
+        segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+        segmentStarts.add(start);
+        start = end;
+        line = last;
+      }
+      return new MappedBundleReader(
+          bundle,
+          lineOffsets.offsets,
+          lineOffsets.count,
+          lastLineTerminated,
+          segments.toArray(new MappedByteBuffer[0]),
+          segmentStarts.stream().mapToLong(Long::longValue).toArray());
+    }
+  }
+
+  /** Returns the path of the sidecar index of a bundle. */
+  public static Path indexPath(Path bundle) {
+    return bundle.resolveSibling(bundle.getFileName() + INDEX_SUFFIX);
+  }
+
+  public Path getBundle() {
+    return bundle;
+  }
+
+  /** Returns the number of complete lines in the bundle. */
+  public int size() {
+    return lineCount;
+  }
+
+  /** Returns the number of bytes of the bundle covered by its complete lines. */
+  public long length() {
+    return offsets[lineCount];
+  }
+
+  /** Returns the offset of a line in the bundle. */
+  public long offset(int line) {
+    checkLine(line);
+    return offsets[line];
+  }
+
+  /**
+   * Returns a line of the bundle, without its line feed, as a read-only view of the mapped file.
+   * Each call returns a new view, so callers can consume it freely.
+   *
+   * @param line the zero-based line number.
+   * @return the bytes of the line.
+   */
+  public ByteBuffer line(int line) {
+    checkLine(line);
+    long start = offsets[line];
+    int segment = segmentOf(start);
+    int from = (int) (start - segmentStarts[segment]);
+    long end = offsets[line + 1];
+    if (line < lineCount - 1 || lastLineTerminated) {
+      end--;
+    }
+    int to = (int) (end - segmentStarts[segment]);
+    ByteBuffer view = segments[segment].asReadOnlyBuffer();
+    view.position(from).limit(to);
+    return view.slice();
+  }
+
+  /**
+   * Returns the lines {@code from} (inclusive) to {@code to} (exclusive) as a list of views that
+   * are created as the list is accessed.
+   */
+  public List<ByteBuffer> lines(int from, int to) {
+    if (from < 0 || to > lineCount || from > to) {
+      throw new IndexOutOfBoundsException(
+          "lines " + from + " to " + to + " out of bounds for " + lineCount + " lines");
+    }
+    return new AbstractList<ByteBuffer>() {
+      @Override
+      public ByteBuffer get(int index) {
+        if (index < 0 || index >= to - from) {
+          throw new IndexOutOfBoundsException("index " + index + " out of bounds");
+        }
+        return line(from + index);
+      }
+
+      @Override
+      public int size() {
+        return to - from;
+      }
+    };
+  }
+
+  /**
+   * Parses a line of the bundle as an envelope, reading straight from the mapped file.
+   *
+   * @param line the zero-based line number.
+   * @param codec the codec used to parse the envelope.
+   * @return the parsed envelope.
+   * @throws IOException thrown when the line does not hold a valid envelope.
+   */
+  public IntotoEnvelope readEnvelope(int line, IntotoCodec codec) throws IOException {
+    return codec.readEnvelope(new ByteBufferBackedInputStream(line(line)));
+  }
+
+  /**
+   * Splits the bundle into at most {@code chunks} ranges of whole lines holding roughly the same
+   * number of bytes, for parsing in parallel.
+   */
+  public List<Chunk> split(int chunks) {
+    if (chunks < 1) {
+      throw new IllegalArgumentException("chunks must be positive");
+    }
+    List<Chunk> result = new ArrayList<>(chunks);
+    long totalBytes = offsets[lineCount];
+    int from = 0;
+    for (int i = 1; i <= chunks && from < lineCount; i++) {
+      int to;
+      if (i == chunks) {
+        to = lineCount;
+      } else {
+        long target = totalBytes / chunks * i;
+        int found = Arrays.binarySearch(offsets, 0, lineCount + 1, target);
+        to = Math.max(from + 1, found >= 0 ? found : -found - 1);
+        to = Math.min(to, lineCount);
+      }
+      result.add(new Chunk(from, to));
+      from = to;
+    }
+    return result;
+  }
+
+  private int segmentOf(long offset) {
+    int found = Arrays.binarySearch(segmentStarts, offset);
+    return found >= 0 ? found : -found - 2;
+  }
+
+  private void checkLine(int line) {
+    if (line < 0 || line >= lineCount) {
+      throw new IndexOutOfBoundsException(
+          "line " + line + " out of bounds for " + lineCount + " lines");
+    }
+  }
+
+  /**
+   * Loads the sidecar index, or returns an empty one if it is missing, unreadable, belongs to
+   * another file or describes a longer bundle than the one on disk.
+   */
+  private static LineOffsets loadIndex(Path indexPath, long bundleSize, int fileKey) {
+    LineOffsets lineOffsets = new LineOffsets();
+    if (!Files.exists(indexPath)) {
+      return lineOffsets;
+    }
+    try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+      if (channel.size() < INDEX_HEADER_BYTES) {
+        return lineOffsets;
+      }
+      ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+      readFully(channel, header, 0);
+      header.flip();
+      int magic = header.getInt();
+      int version = header.getInt();
+      long count = header.getLong();
+      long indexedBytes = header.getLong();
+      int indexedFileKey = header.getInt();
+      long indexedBundleSize = header.getLong();
+      long indexedModified = header.getLong();
+      byte[] digest = new byte[DIGEST_BYTES];
+      header.get(digest);
+      if (magic != INDEX_MAGIC
+          || version != INDEX_VERSION
+          || indexedFileKey != fileKey
+          || count < 0
+          || count >= Integer.MAX_VALUE
+          || indexedBytes > bundleSize
+          || channel.size() < INDEX_HEADER_BYTES + count * Long.BYTES) {
+        return lineOffsets;
+      }
+      ByteBuffer body = ByteBuffer.allocate((int) count * Long.BYTES);
+      readFully(channel, body, INDEX_HEADER_BYTES);
+      body.flip();
+      long[] offsets = new long[(int) count + 1];
+      body.asLongBuffer().get(offsets, 0, (int) count);
+      offsets[(int) count] = indexedBytes;
+      lineOffsets.offsets = offsets;
+      lineOffsets.count = (int) count;
+      lineOffsets.digest = digest;
+      lineOffsets.bundleSize = indexedBundleSize;
+      lineOffsets.modified = indexedModified;
+    } catch (IOException e) {
+      return new LineOffsets();
+    }
+    return lineOffsets;
+  }
+
+  /**
+   * Appends the offsets found since the index was loaded, then updates the header. The header is
+   * written last, so an interrupted update leaves an index that is still valid for fewer lines.
+   */
+  private static void writeIndex(
+      Path indexPath,
+      LineOffsets lineOffsets,
+      int indexedLines,
+      int fileKey,
+      long bundleSize,
+      long modified,
+      byte[] digest)
+      throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            indexPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      int fromLine = channel.size() >= INDEX_HEADER_BYTES ? indexedLines : 0;
+      ByteBuffer body = ByteBuffer.allocate((lineOffsets.count - fromLine) * Long.BYTES);
+      body.asLongBuffer().put(lineOffsets.offsets, fromLine, lineOffsets.count - fromLine);
+      writeFully(channel, body, INDEX_HEADER_BYTES + (long) fromLine * Long.BYTES);
+      channel.truncate(INDEX_HEADER_BYTES + (long) lineOffsets.count * Long.BYTES);
+      channel.force(false);
+      ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+      header
+          .putInt(INDEX_MAGIC)
+          .putInt(INDEX_VERSION)
+          .putLong(lineOffsets.count)
+          .putLong(lineOffsets.offsets[lineOffsets.count])
+          .putInt(fileKey)
+          .putLong(bundleSize)
+          .putLong(modified)
+          .put(digest)
+          .flip();
+      writeFully(channel, header, 0);
+      channel.force(false);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("unexpected end of file");
+      }
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+
+  /** A growable array of line start offsets. */
+  private static final class LineOffsets {
+    private long[] offsets = new long[] {0};
+    private int count;
+
+    /** Digest of the first and last lines, as recorded in the index it was loaded from. */
+    private byte[] digest;
+
+    /** Size of the bundle when the index was written, or -1 if there is no index. */
+    private long bundleSize = -1;
+
+    /** Modification time of the bundle in microseconds when the index was written. */
+    private long modified;
+
+    /** Adds the complete lines between the end of the indexed part and the end of the bundle. */
+    void scan(FileChannel channel, long size) throws IOException {
+      long position = offsets[count];
+      ByteBuffer block = ByteBuffer.allocateDirect(64 * 1024);
+      while (position < size) {
+        block.clear();
+        int read = channel.read(block, position);
+        if (read < 0) {
+          break;
+        }
+        for (int i = 0; i < read; i++) {
+          if (block.get(i) == '\n') {
+            add(position + i + 1);
+          }
+        }
+        position += read;
+      }
+    }
+
+    /**
+     * Adds the bytes after the last line feed as a line if they hold a complete JSON value.
+     *
+     * @return whether a line was added.
+     */
+    boolean addUnterminatedLine(FileChannel channel, long size) throws IOException {
+      long start = offsets[count];
+      if (start >= size || size - start > Integer.MAX_VALUE - 8) {
+        return false;
+      }
+      ByteBuffer tail = ByteBuffer.allocate((int) (size - start));
+      readFully(channel, tail, start);
+      if (!BundleWriter.isCompleteJson(tail.array())) {
+        return false;
+      }
+      add(size);
+      return true;
+    }
+
+    /** Tells whether the line starts increase and each one follows a line feed. */
+    boolean followLineFeeds(FileChannel channel) throws IOException {
+      if (offsets[0] != 0) {
+        return false;
+      }
+      long end = offsets[count];
+      int line = 1;
+      for (long start = 0; start < end; start += MAX_SEGMENT_BYTES) {
+        long length = Math.min(MAX_SEGMENT_BYTES, end - start);
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        for (; line <= count && offsets[line] <= start + length; line++) {
+          if (offsets[line] <= offsets[line - 1]
+              || offsets[line] - 1 < start
+              || segment.get((int) (offsets[line] - 1 - start)) != '\n') {
+            return false;
+          }
+        }
+      }
+      return line > count;
+    }
+
+    /** Returns the SHA-256 digest of the first and last lines, which identifies the content. */
+    byte[] digest(FileChannel channel) throws IOException {
+      MessageDigest sha256;
+      try {
+        sha256 = CryptoProviders.newMessageDigest("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 is not available", e);
+      }
+      if (count > 0) {
+        update(sha256, channel, offsets[0], offsets[1]);
+        update(sha256, channel, offsets[count - 1], offsets[count]);
+      }
+      return sha256.digest();
+    }
+
+    private static void update(MessageDigest digest, FileChannel channel, long from, long to)
+        throws IOException {
+      ByteBuffer block = ByteBuffer.allocate(8192);
+      for (long position = from; position < to; position += block.limit()) {
+        block.clear().limit((int) Math.min(block.capacity(), to - position));
+        readFully(channel, block, position);
+        digest.update(block.array(), 0, block.limit());
+      }
+    }
+
+    private void add(long nextLineStart) {
+      if (count + 2 > offsets.length) {
+        offsets = Arrays.copyOf(offsets, Math.max(16, offsets.length * 2));
+      }
+      count++;
+      offsets[count] = nextLineStart;
+    }
+  }
+
+  /** A range of whole lines of the bundle, see {@link #split(int)}. */
+  public static final class Chunk {
+
+    private final int fromLine;
+
+    private final int toLine;
+
+    Chunk(int fromLine, int toLine) {
+      this.fromLine = fromLine;
+      this.toLine = toLine;
+    }
+
+    /** Returns the first line of the chunk. */
+    public int getFromLine() {
+      return fromLine;
+    }
+
+    /** Returns the line after the last line of the chunk. */
+    public int getToLine() {
+      return toLine;
+    }
+
+    @Override
+    public String toString() {
+      return "Chunk{fromLine=" + fromLine + ", toLine=" + toLine + "}";
+    }
+  }
+}
@@ -0,0 +1,413 @@
+package io.github.intoto.bundle;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent index from the digests of the subjects of attested Statements to the envelopes that
+ * attest them, answering "which attestations cover an artifact with sha256 X?" without reading any
+ * bundle.
+ *
+ * <p>The index lives in memory as a hash map and is persisted as an append-only log of text
+ * records. {@link #update(Path)} only reads the lines appended to a bundle since its last update,
+ * and appends the digests found in them to the log followed by a checkpoint holding how far the
+ * bundle is indexed. Opening the index replays the log; a torn record left by a crash is dropped,
+ * and digests recorded after the last checkpoint of a bundle are simply found again by the next
+ * update.
+ *
+ * <p>Lookups can be made from any number of threads while a single thread at a time updates the
+ * index. Digest values are compared ignoring case.
+ */
+public final class SubjectDigestIndex implements Closeable {
+
+  private static final String BUNDLE_RECORD = "B";
+
+  private static final String DIGEST_RECORD = "D";
+
+  private static final String CHECKPOINT_RECORD = "C";
+
+  private final IntotoCodec codec;
+
+  private final FileChannel log;
+
+  /** Digest value to the locations of the envelopes whose Statement has a subject with it. */
+  private final Map<String, Set<Location>> locations = new ConcurrentHashMap<>();
+
+  /** Indexed bundles by their absolute path. Only modified while holding the lock. */
+  private final Map<Path, BundleState> bundles = new ConcurrentHashMap<>();
+
+  /** Indexed bundles by their id in the log. Guarded by this, or confined to open. */
+  private final List<BundleState> bundleIds = new ArrayList<>();
+
+  private SubjectDigestIndex(FileChannel log, IntotoCodec codec) {
+    this.log = log;
+    this.codec = codec;
+  }
+
+  /**
+   * Opens the index stored in the given file, creating it if needed.
+   *
+   * @param indexFile the path of the index log.
+   * @return the opened index.
+   * @throws IOException thrown when the log cannot be read or is corrupt.
+   */
+  public static SubjectDigestIndex open(Path indexFile) throws IOException {
+    return open(indexFile, IntotoCodec.defaultCodec());
+  }
+
+  /**
+   * Opens the index stored in the given file, creating it if needed.
+   *
+   * @param indexFile the path of the index log.
+   * @param codec the codec used to parse the envelopes of the bundles.
+   * @return the opened index.
+   * @throws IOException thrown when the log cannot be read or is corrupt.
+   */
+  public static SubjectDigestIndex open(Path indexFile, IntotoCodec codec) throws IOException {
+    FileChannel log =
+        FileChannel.open(
+            indexFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    return open(log, codec);
+  }
+
+  /** Opens the index stored in the given log, which is closed if it cannot be opened. */
+  static SubjectDigestIndex open(FileChannel log, IntotoCodec codec) throws IOException {
+    try {
+      // Records are always written with their line feed, so anything after the last one is torn,
+      // even if it looks like a whole record.
+      long size = BundleWriter.truncateTornLine(log, fragment -> false);
+      SubjectDigestIndex index = new SubjectDigestIndex(log, Objects.requireNonNull(codec));
+      index.replay();
+      log.position(size);
+      return index;
+    } catch (IOException | RuntimeException e) {
+      log.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the envelopes whose Statement has a subject with the given digest value, for any digest
+   * algorithm.
+   */
+  public List<Location> lookup(String digestValue) {
+    Set<Location> found = locations.get(digestValue.toLowerCase(Locale.ROOT));
+    return found == null ? Collections.emptyList() : new ArrayList<>(found);
+  }
+
+  /**
+   * Returns the envelopes whose Statement has a subject with the given digest.
+   *
+   * @param algorithm the digest algorithm, for example sha256. It is matched case-insensitively.
+   * @param digestValue the digest value.
+   */
+  public List<Location> lookup(String algorithm, String digestValue) {
+    String normalized = algorithm.toLowerCase(Locale.ROOT);
+    return lookup(digestValue).stream()
+        .filter(location -> location.getAlgorithm().equals(normalized))
+        .collect(Collectors.toList());
+  }
+
+  /** Returns the number of bytes of the given bundle covered by the index. */
+  public long indexedLength(Path bundle) {
+    BundleState state = bundles.get(bundle.toAbsolutePath().normalize());
+    return state == null ? 0 : state.indexedLength;
+  }
+
+  /**
+   * Indexes the lines appended to a bundle since its last update, or the whole bundle if it was
+   * never indexed. Lines that do not hold a valid envelope are skipped.
+   *
+   * @param bundle the path of the bundle.
+   * @return the number of lines read.
+   * @throws IOException thrown when the bundle cannot be read, is shorter than the part already
+   *     indexed, or when the index cannot be written.
+   */
+  public synchronized int update(Path bundle) throws IOException {
+    Path path = bundle.toAbsolutePath().normalize();
+    MappedBundleReader reader = MappedBundleReader.open(path);
+    BundleState state = bundles.get(path);
+    long indexedLength = state == null ? 0 : state.indexedLength;
+    if (reader.length() < indexedLength) {
+      throw new IOException(
+          path + " is shorter than its indexed length " + indexedLength + ", was it replaced?");
+    }
+    if (reader.length() == indexedLength) {
+      return 0;
+    }
+    StringBuilder records = new StringBuilder();
+    if (state == null) {
+      if (containsSeparator(path.toString())) {
+        throw new IllegalArgumentException("bundle paths must not contain tabs or line breaks");
+      }
+      state = new BundleState(bundleIds.size(), path);
+      appendRecord(records, BUNDLE_RECORD, state.id, path);
+    }
+    List<Location> added = new ArrayList<>();
+    int firstLine = firstLineAtOrAfter(reader, indexedLength);
+    for (int line = firstLine; line < reader.size(); line++) {
+      long offset = reader.offset(line);
+      BundleState current = state;
+      try {
+        IntotoEnvelope envelope = reader.readEnvelope(line, codec);
+        extractDigests(
+            envelope,
+            (algorithm, value) -> {
+              appendRecord(records, DIGEST_RECORD, current.id, offset, algorithm, value);
+              added.add(new Location(current.path, offset, algorithm, value));
+            });
+      } catch (IOException | IllegalArgumentException e) {
+        // Not an envelope with a JSON payload; nothing to index.
+      }
+    }
+    appendRecord(records, CHECKPOINT_RECORD, state.id, reader.length());
+
+    ByteBuffer bytes = StandardCharsets.UTF_8.encode(records.toString());
+    long start = log.position();
+    try {
+      while (bytes.hasRemaining()) {
+        log.write(bytes);
+      }
+      log.force(false);
+    } catch (IOException e) {
+      // Drop the records written so far, the in-memory state does not include them.
+      try {
+        log.truncate(start);
+        log.position(start);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+
+    if (state.id == bundleIds.size()) {
+      bundleIds.add(state);
+      bundles.put(path, state);
+    }
+    added.forEach(this::addLocation);
+    state.indexedLength = reader.length();
+    return reader.size() - firstLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    log.close();
+  }
+
+  private void replay() throws IOException {
+    BufferedReader reader =
+        new BufferedReader(
+            Channels.newReader(log.position(0), StandardCharsets.UTF_8.newDecoder(), -1));
+    String record;
+    long lineNumber = 0;
+    while ((record = reader.readLine()) != null) {
+      lineNumber++;
+      String[] fields = record.split("\t", 5);
+      try {
+        switch (fields[0]) {
+          case BUNDLE_RECORD:
+            BundleState state = new BundleState(Integer.parseInt(fields[1]), Paths.get(fields[2]));
+            if (state.id != bundleIds.size()) {
+              throw new IOException("bundle id " + state.id + " out of sequence");
+            }
+            bundleIds.add(state);
+            bundles.put(state.path, state);
+            break;
+          case DIGEST_RECORD:
+            addLocation(
+                new Location(
+                    bundleIds.get(Integer.parseInt(fields[1])).path,
+                    Long.parseLong(fields[2]),
+                    fields[3].toLowerCase(Locale.ROOT),
+                    fields[4]));
+            break;
+          case CHECKPOINT_RECORD:
+            bundleIds.get(Integer.parseInt(fields[1])).indexedLength = Long.parseLong(fields[2]);
+            break;
+          default:
+            throw new IOException("unknown record type " + fields[0]);
+        }
+      } catch (IOException | RuntimeException e) {
+        throw new IOException("corrupt subject digest index at record " + lineNumber, e);
+      }
+    }
+  }
+
+  private void addLocation(Location location) {
+    locations
+        .computeIfAbsent(location.value, value -> ConcurrentHashMap.newKeySet(1))
+        .add(location);
+  }
+
+  private static int firstLineAtOrAfter(MappedBundleReader reader, long offset) {
+    int low = 0;
+    int high = reader.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (reader.offset(middle) < offset) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** Tells whether a field would break the tab-separated, line-based record format. */
+  private static boolean containsSeparator(String field) {
+    return field.indexOf('\t') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0;
+  }
+
+  private static void appendRecord(StringBuilder records, String type, Object... fields) {
+    records.append(type);
+    for (Object field : fields) {
+      records.append('\t').append(field);
+    }
+    records.append('\n');
+  }
+
+  /**
+   * Reads the digests of the subjects of an envelope's Statement with the streaming parser,
+   * skipping the predicate and every other field without binding them.
+   */
+  private void extractDigests(IntotoEnvelope envelope, BiConsumer<String, String> consumer)
+      throws IOException {
+    byte[] payload = Base64.getDecoder().decode(envelope.getPayload());
+    try (JsonParser parser = codec.createParser(payload, 0, payload.length)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if ("subject".equals(field) && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            readSubjectDigests(parser, consumer);
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private static void readSubjectDigests(JsonParser parser, BiConsumer<String, String> consumer)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("digest".equals(field) && value == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String algorithm = parser.getCurrentName().toLowerCase(Locale.ROOT);
+          if (parser.nextToken() == JsonToken.VALUE_STRING && !containsSeparator(algorithm)) {
+            String digest = parser.getText().toLowerCase(Locale.ROOT);
+            if (!containsSeparator(digest)) {
+              consumer.accept(algorithm, digest);
+            }
+          } else {
+            parser.skipChildren();
+          }
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  /** How far a bundle is indexed. */
+  private static final class BundleState {
+    private final int id;
+    private final Path path;
+    private volatile long indexedLength;
+
+    BundleState(int id, Path path) {
+      this.id = id;
+      this.path = path;
+    }
+  }
+
+  /** The location of an envelope whose Statement has a subject with a given digest. */
+  public static final class Location {
+
+    private final Path bundle;
+
+    private final long offset;
+
+    private final String algorithm;
+
+    private final String value;
+
+    Location(Path bundle, long offset, String algorithm, String value) {
+      this.bundle = bundle;
+      this.offset = offset;
+      this.algorithm = algorithm;
+      this.value = value;
+    }
+
+    /** Returns the absolute path of the bundle. */
+    public Path getBundle() {
+      return bundle;
+    }
+
+    /** Returns the offset of the envelope's line in the bundle. */
+    public long getOffset() {
+      return offset;
+    }
+
+    /** Returns the algorithm of the matching digest in lower case, for example sha256. */
+    public String getAlgorithm() {
+      return algorithm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Location that = (Location) o;
+      return offset == that.offset
+          && bundle.equals(that.bundle)
+          && algorithm.equals(that.algorithm)
+          && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bundle, offset, algorithm, value);
+    }
+
+    @Override
+    public String toString() {
+      return "Location{bundle=" + bundle + ", offset=" + offset + ", algorithm=" + algorithm + "}";
+    }
+  }
+}
@@ -0,0 +1,490 @@
+package io.github.intoto.dsse.helpers;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.Provider;
+import java.security.Security;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chooses the JCA provider of the signature engines and message digests created by the library: the
+ * DSSE signers and verifiers of this package, {@link IntotoEnvelopeVerifier}, {@link
+ * VerificationCache} and the Statement cache.
+ *
+ * <p>By default the JCA picks the first installed provider supporting an algorithm. A provider can
+ * be set per algorithm with {@link #setProvider(String, String)}, or with a system property such as
+ * {@code -Dio.github.intoto.crypto.provider.SHA-256=SUN}. {@link #selectFastest()} instead
+ * micro-benchmarks every installed provider of the common algorithms and selects the fastest,
+ * except for algorithms whose provider was set explicitly; setting {@code
+ * -Dio.github.intoto.crypto.benchmark=true} runs it when the class is first used, with the
+ * providers installed at that time. {@link #getSelections()} and {@link #describe()} tell
+ * which provider serves each algorithm and why.
+ *
+ * <p>Selections only apply to engines created afterwards; pooled signature engines and per-thread
+ * digests that already exist keep their provider.
+ */
+public final class CryptoProviders {
+
+  /** System property enabling the benchmark when the class is first used. */
+  public static final String BENCHMARK_PROPERTY = "io.github.intoto.crypto.benchmark";
+
+  /** Prefix of the system properties naming the provider of an algorithm. */
+  public static final String PROVIDER_PROPERTY_PREFIX = "io.github.intoto.crypto.provider.";
+
+  /** Digest algorithms {@link #selectFastest()} benchmarks. */
+  public static final List<String> DEFAULT_DIGEST_ALGORITHMS = List.of("SHA-256");
+
+  /** Signature algorithms {@link #selectFastest()} benchmarks. */
+  public static final List<String> DEFAULT_SIGNATURE_ALGORITHMS =
+      List.of(SignatureAlgorithms.ECDSA, SignatureAlgorithms.ED25519, SignatureAlgorithms.RSA_PSS);
+
+  private static final Duration DEFAULT_BUDGET = Duration.ofMillis(100);
+
+  /** Size of the buffer hashed by each digest benchmark operation. */
+  private static final int DIGEST_BENCHMARK_BYTES = 16 * 1024;
+
+  /** Size of the message signed and verified by each signature benchmark operation. */
+  private static final int SIGNATURE_BENCHMARK_BYTES = 1024;
+
+  /** Selections by upper-cased algorithm name. Algorithms without one use the JCA default. */
+  private static final Map<String, Selection> SELECTIONS = new ConcurrentHashMap<>();
+
+  /** Keeps benchmark results observable so the measured work cannot be optimized away. */
+  private static volatile int sink;
+
+  static {
+    for (String property : System.getProperties().stringPropertyNames()) {
+      if (property.startsWith(PROVIDER_PROPERTY_PREFIX)) {
+        String algorithm = property.substring(PROVIDER_PROPERTY_PREFIX.length());
+        String providerName = System.getProperty(property);
+        // Resolved when engines are created, so the provider may be installed later.
+        SELECTIONS.put(
+            key(algorithm),
+            new Selection(algorithm, providerName, null, Source.CONFIGURED, Map.of()));
+      }
+    }
+    if (Boolean.getBoolean(BENCHMARK_PROPERTY)) {
+      selectFastest();
+    }
+  }
+
+  private CryptoProviders() {}
+
+  /**
+   * Sets the provider of an algorithm.
+   *
+   * @param algorithm the JCA name of a signature or digest algorithm, e.g. SHA256withECDSA.
+   * @param providerName the name of an installed provider, e.g. SunEC or BC.
+   * @throws IllegalArgumentException thrown when no such provider is installed.
+   */
+  public static void setProvider(String algorithm, String providerName) {
+    Provider provider = Security.getProvider(Objects.requireNonNull(providerName));
+    if (provider == null) {
+      throw new IllegalArgumentException("provider " + providerName + " is not installed");
+    }
+    setProvider(algorithm, provider);
+  }
+
+  /**
+   * Sets the provider of an algorithm. The provider does not need to be installed.
+   *
+   * @param algorithm the JCA name of a signature or digest algorithm, e.g. SHA256withECDSA.
+   * @param provider the provider.
+   */
+  public static void setProvider(String algorithm, Provider provider) {
+    Objects.requireNonNull(provider, "provider must not be null");
+    SELECTIONS.put(
+        key(algorithm),
+        new Selection(algorithm, provider.getName(), provider, Source.CONFIGURED, Map.of()));
+  }
+
+  /** Goes back to the JCA default provider for an algorithm. */
+  public static void clearProvider(String algorithm) {
+    SELECTIONS.remove(key(algorithm));
+  }
+
+  /** Goes back to the JCA default provider for every algorithm. */
+  public static void clearProviders() {
+    SELECTIONS.clear();
+  }
+
+  /**
+   * Benchmarks the default algorithms with a budget of 100ms per provider and selects the fastest
+   * provider of each.
+   *
+   * @see #selectFastest(Collection, Collection, Duration)
+   */
+  public static List<Selection> selectFastest() {
+    return selectFastest(DEFAULT_SIGNATURE_ALGORITHMS, DEFAULT_DIGEST_ALGORITHMS, DEFAULT_BUDGET);
+  }
+
+  /**
+   * Benchmarks every installed provider of the given algorithms and selects the fastest provider of
+   * each. Digests are timed on 16 KiB buffers, signatures on signing then verifying 1 KiB messages
+   * with a freshly generated key. Half of the budget is spent warming up.
+   *
+   * <p>Algorithms whose provider was set with {@link #setProvider} or a system property are not
+   * benchmarked and keep that provider. Algorithms that no provider could run, including signature
+   * algorithms whose key type cannot be generated, keep their current selection.
+   *
+   * @param signatureAlgorithms the JCA names of the signature algorithms to benchmark.
+   * @param digestAlgorithms the JCA names of the digest algorithms to benchmark.
+   * @param budgetPerProvider the time spent on each provider of each algorithm.
+   * @return the new selections.
+   */
+  public static List<Selection> selectFastest(
+      Collection<String> signatureAlgorithms,
+      Collection<String> digestAlgorithms,
+      Duration budgetPerProvider) {
+    long budget = budgetPerProvider.toNanos();
+    if (budget <= 0) {
+      throw new IllegalArgumentException("budgetPerProvider must be positive");
+    }
+    List<Selection> selected = new ArrayList<>();
+    for (String algorithm : digestAlgorithms) {
+      if (isConfigured(algorithm)) {
+        continue;
+      }
+      Selection selection = select(algorithm, "MessageDigest", budget, null);
+      if (selection != null) {
+        selected.add(selection);
+      }
+    }
+    for (String algorithm : signatureAlgorithms) {
+      if (isConfigured(algorithm)) {
+        continue;
+      }
+      KeyPair keyPair = benchmarkKeyPair(algorithm);
+      if (keyPair != null) {
+        Selection selection = select(algorithm, "Signature", budget, keyPair);
+        if (selection != null) {
+          selected.add(selection);
+        }
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Returns the provider serving each algorithm that has a selection or is benchmarked by default,
+   * in that order.
+   */
+  public static List<Selection> getSelections() {
+    Set<String> algorithms = new LinkedHashSet<>();
+    for (Selection selection : SELECTIONS.values()) {
+      algorithms.add(selection.getAlgorithm());
+    }
+    algorithms.addAll(DEFAULT_DIGEST_ALGORITHMS);
+    algorithms.addAll(DEFAULT_SIGNATURE_ALGORITHMS);
+    Map<String, Selection> selections = new LinkedHashMap<>();
+    for (String algorithm : algorithms) {
+      Selection selection = SELECTIONS.get(key(algorithm));
+      selections.putIfAbsent(
+          key(algorithm),
+          selection != null
+              ? selection
+              : new Selection(
+                  algorithm, defaultProviderName(algorithm), null, Source.DEFAULT, Map.of()));
+    }
+    return new ArrayList<>(selections.values());
+  }
+
+  /** Returns a human readable report of {@link #getSelections()}, one algorithm per line. */
+  public static String describe() {
+    StringBuilder report = new StringBuilder();
+    for (Selection selection : getSelections()) {
+      report.append(selection).append(System.lineSeparator());
+    }
+    return report.toString();
+  }
+
+  /**
+   * Returns a message digest from the provider selected for the algorithm.
+   *
+   * @throws NoSuchAlgorithmException thrown when the algorithm or the selected provider is not
+   *     available.
+   */
+  public static MessageDigest newMessageDigest(String algorithm) throws NoSuchAlgorithmException {
+    Selection selection = SELECTIONS.get(key(algorithm));
+    if (selection == null) {
+      return MessageDigest.getInstance(algorithm);
+    }
+    if (selection.provider != null) {
+      return MessageDigest.getInstance(algorithm, selection.provider);
+    }
+    try {
+      return MessageDigest.getInstance(algorithm, selection.getProviderName());
+    } catch (NoSuchProviderException e) {
+      throw notInstalled(selection, e);
+    }
+  }
+
+  /**
+   * Returns an uninitialized signature engine from the provider selected for the algorithm, without
+   * algorithm parameters.
+   */
+  static Signature signature(String algorithm) throws NoSuchAlgorithmException {
+    Selection selection = SELECTIONS.get(key(algorithm));
+    if (selection == null) {
+      return Signature.getInstance(algorithm);
+    }
+    if (selection.provider != null) {
+      return Signature.getInstance(algorithm, selection.provider);
+    }
+    try {
+      return Signature.getInstance(algorithm, selection.getProviderName());
+    } catch (NoSuchProviderException e) {
+      throw notInstalled(selection, e);
+    }
+  }
+
+  private static NoSuchAlgorithmException notInstalled(
+      Selection selection, NoSuchProviderException cause) {
+    NoSuchAlgorithmException exception =
+        new NoSuchAlgorithmException(
+            "provider "
+                + selection.getProviderName()
+                + " selected for "
+                + selection.getAlgorithm()
+                + " is not installed");
+    exception.initCause(cause);
+    return exception;
+  }
+
+  private static Selection select(String algorithm, String service, long budget, KeyPair keyPair) {
+    Provider[] providers = Security.getProviders(service + "." + algorithm);
+    if (providers == null) {
+      return null;
+    }
+    Map<String, Long> measurements = new LinkedHashMap<>();
+    Provider fastest = null;
+    long fastestNanos = Long.MAX_VALUE;
+    for (Provider provider : providers) {
+      long nanos;
+      try {
+        nanos =
+            keyPair == null
+                ? benchmarkDigest(algorithm, provider, budget)
+                : benchmarkSignature(algorithm, provider, keyPair, budget);
+      } catch (GeneralSecurityException | RuntimeException e) {
+        // The provider cannot run the algorithm with this key; it is not a candidate.
+        continue;
+      }
+      measurements.put(provider.getName(), nanos);
+      if (nanos < fastestNanos) {
+        fastest = provider;
+        fastestNanos = nanos;
+      }
+    }
+    if (fastest == null) {
+      return null;
+    }
+    Selection selection =
+        new Selection(algorithm, fastest.getName(), fastest, Source.BENCHMARK, measurements);
+    // A provider set explicitly while the benchmark ran still wins.
+    Selection current =
+        SELECTIONS.compute(
+            key(algorithm),
+            (key, previous) ->
+                previous != null && previous.getSource() == Source.CONFIGURED
+                    ? previous
+                    : selection);
+    return current == selection ? selection : null;
+  }
+
+  private static boolean isConfigured(String algorithm) {
+    Selection selection = SELECTIONS.get(key(algorithm));
+    return selection != null && selection.getSource() == Source.CONFIGURED;
+  }
+
+  private static long benchmarkDigest(String algorithm, Provider provider, long budget)
+      throws GeneralSecurityException {
+    MessageDigest digest = MessageDigest.getInstance(algorithm, provider);
+    byte[] buffer = new byte[DIGEST_BENCHMARK_BYTES];
+    return nanosPerOperation(
+        () -> {
+          digest.update(buffer);
+          sink += digest.digest()[0];
+        },
+        budget);
+  }
+
+  private static long benchmarkSignature(
+      String algorithm, Provider provider, KeyPair keyPair, long budget)
+      throws GeneralSecurityException {
+    Signature signer = SignatureAlgorithms.newSignature(algorithm, provider);
+    signer.initSign(keyPair.getPrivate());
+    Signature verifier = SignatureAlgorithms.newSignature(algorithm, provider);
+    verifier.initVerify(keyPair.getPublic());
+    byte[] message = new byte[SIGNATURE_BENCHMARK_BYTES];
+    return nanosPerOperation(
+        () -> {
+          signer.update(message);
+          byte[] signature = signer.sign();
+          verifier.update(message);
+          if (!verifier.verify(signature)) {
+            throw new SignatureException(provider.getName() + " rejects its own signature");
+          }
+        },
+        budget);
+  }
+
+  /** An operation being benchmarked. */
+  private interface Operation {
+    void run() throws GeneralSecurityException;
+  }
+
+  private static long nanosPerOperation(Operation operation, long budget)
+      throws GeneralSecurityException {
+    long half = budget / 2;
+    long start = System.nanoTime();
+    while (System.nanoTime() - start < half) {
+      operation.run();
+    }
+    start = System.nanoTime();
+    long operations = 0;
+    long elapsed;
+    do {
+      operation.run();
+      operations++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < half);
+    return elapsed / operations;
+  }
+
+  /** Returns a key pair for the algorithm, or null if its key type is unknown or unavailable. */
+  private static KeyPair benchmarkKeyPair(String algorithm) {
+    String upper = algorithm.toUpperCase(Locale.ROOT);
+    try {
+      KeyPairGenerator generator;
+      if (upper.contains("ED25519") || upper.contains("EDDSA")) {
+        generator = KeyPairGenerator.getInstance(SignatureAlgorithms.ED25519);
+      } else if (upper.contains("ECDSA")) {
+        generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+      } else if (upper.contains("RSA")) {
+        generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+      } else {
+        return null;
+      }
+      return generator.generateKeyPair();
+    } catch (GeneralSecurityException e) {
+      return null;
+    }
+  }
+
+  /** Returns the provider the JCA picks for the algorithm, or null if it is not available. */
+  private static String defaultProviderName(String algorithm) {
+    try {
+      return Signature.getInstance(algorithm).getProvider().getName();
+    } catch (NoSuchAlgorithmException e) {
+      // Not a signature algorithm, or not available.
+    }
+    try {
+      return MessageDigest.getInstance(algorithm).getProvider().getName();
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  private static String key(String algorithm) {
+    return Objects.requireNonNull(algorithm, "algorithm must not be null").toUpperCase(Locale.ROOT);
+  }
+
+  /** Why a provider serves an algorithm. */
+  public enum Source {
+    /** Nothing was selected; the JCA picks the first installed provider. */
+    DEFAULT,
+    /** Set through {@link #setProvider} or a system property. */
+    CONFIGURED,
+    /** The fastest provider measured by {@link #selectFastest}. */
+    BENCHMARK
+  }
+
+  /** The provider serving an algorithm. */
+  public static final class Selection {
+
+    private final String algorithm;
+
+    private final String providerName;
+
+    private final Provider provider;
+
+    private final Source source;
+
+    private final Map<String, Long> measurements;
+
+    private Selection(
+        String algorithm,
+        String providerName,
+        Provider provider,
+        Source source,
+        Map<String, Long> measurements) {
+      this.algorithm = algorithm;
+      this.providerName = providerName;
+      this.provider = provider;
+      this.source = source;
+      this.measurements = Collections.unmodifiableMap(measurements);
+    }
+
+    public String getAlgorithm() {
+      return algorithm;
+    }
+
+    /**
+     * Returns the name of the provider, or null if no installed provider supports the algorithm.
+     */
+    public String getProviderName() {
+      return providerName;
+    }
+
+    public Source getSource() {
+      return source;
+    }
+
+    /**
+     * Returns the nanoseconds per operation measured for each provider by the benchmark, in the JCA
+     * preference order of the providers. Empty unless the source is {@link Source#BENCHMARK}.
+     */
+    public Map<String, Long> getMeasurements() {
+      return measurements;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder description =
+          new StringBuilder(algorithm)
+              .append(": ")
+              .append(providerName == null ? "unavailable" : providerName)
+              .append(" (")
+              .append(source.name().toLowerCase(Locale.ROOT));
+      for (Map.Entry<String, Long> measurement : measurements.entrySet()) {
+        description
+            .append(", ")
+            .append(measurement.getKey())
+            .append('=')
+            .append(measurement.getValue())
+            .append(" ns/op");
+      }
+      return description.append(')').toString();
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.Signer;
+import java.security.PrivateKey;
+
+/**
+ * {@link Signer} producing Ed25519 signatures. Ed25519 is built into Java 15 and later; on older
+ * runtimes a provider such as BouncyCastle has to be registered.
+ */
+public class Ed25519Signer extends JcaSigner {
+
+  public Ed25519Signer(PrivateKey privateKey, String keyId) {
+    super(privateKey, keyId, SignatureAlgorithms.ED25519);
+  }
+}
@@ -0,0 +1,160 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.MessageVerifier;
+import io.github.intoto.dsse.models.Verifier;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link Verifier} and {@link MessageVerifier} for Ed25519 signatures, as produced by {@link
+ * Ed25519Signer}. Ed25519 is built into Java 15 and later; on older runtimes a provider such as
+ * BouncyCastle has to be registered.
+ *
+ * <p>{@link #verifyBatch(List)} checks many (key, message, signature) triples at once. The JCA has
+ * no batch verification equation, so every triple is still checked on its own: the batch is split
+ * into chunks verified in parallel, each reusing a single signature engine.
+ */
+public class Ed25519Verifier extends JcaVerifier {
+
+  /** Smallest number of triples worth handing to another thread. */
+  private static final int MIN_CHUNK_SIZE = 64;
+
+  private final String keyId;
+
+  public Ed25519Verifier() {
+    this(null);
+  }
+
+  /**
+   * @param keyId the keyid returned by {@link #getKeyId()}.
+   */
+  public Ed25519Verifier(String keyId) {
+    super(SignatureAlgorithms.ED25519, SignatureAlgorithms.ED25519);
+    this.keyId = keyId;
+  }
+
+  /**
+   * Verifies a batch of signatures on the common ForkJoinPool.
+   *
+   * @see #verifyBatch(List, Executor)
+   */
+  public boolean[] verifyBatch(List<BatchEntry> entries) throws NoSuchAlgorithmException {
+    return verifyBatch(entries, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Verifies a batch of signatures. A key that is not an Ed25519 key or a malformed signature makes
+   * its entry invalid, it does not fail the batch.
+   *
+   * @param entries the (key, message, signature) triples to check.
+   * @param executor the executor the chunks of the batch are verified on. Small batches are
+   *     verified on the calling thread.
+   * @return whether each entry is valid, in the order of the entries.
+   * @throws NoSuchAlgorithmException thrown when Ed25519 is not available in the environment.
+   */
+  public boolean[] verifyBatch(List<BatchEntry> entries, Executor executor)
+      throws NoSuchAlgorithmException {
+    Objects.requireNonNull(executor, "executor must not be null");
+    boolean[] results = new boolean[entries.size()];
+    int chunks =
+        Math.min(
+            Runtime.getRuntime().availableProcessors(),
+            Math.max(1, entries.size() / MIN_CHUNK_SIZE));
+    if (chunks == 1) {
+      verifyChunk(entries, 0, entries.size(), results);
+      return results;
+    }
+    int chunkSize = (entries.size() + chunks - 1) / chunks;
+    List<CompletableFuture<Void>> futures = new ArrayList<>(chunks);
+    for (int from = 0; from < entries.size(); from += chunkSize) {
+      int start = from;
+      int end = Math.min(entries.size(), from + chunkSize);
+      futures.add(
+          CompletableFuture.runAsync(
+              () -> {
+                try {
+                  verifyChunk(entries, start, end, results);
+                } catch (NoSuchAlgorithmException e) {
+                  throw new CompletionException(e);
+                }
+              },
+              executor));
+    }
+    try {
+      // Completing the futures publishes the writes of every chunk to the results array.
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof NoSuchAlgorithmException) {
+        throw (NoSuchAlgorithmException) e.getCause();
+      }
+      throw e;
+    }
+    return results;
+  }
+
+  private void verifyChunk(List<BatchEntry> entries, int from, int to, boolean[] results)
+      throws NoSuchAlgorithmException {
+    // Keys differ from one entry to the next, so the chunk initializes its own engine for each.
+    Signature engine = newSignature();
+    for (int i = from; i < to; i++) {
+      BatchEntry entry = entries.get(i);
+      try {
+        engine.initVerify(entry.getPublicKey());
+        engine.update(entry.getMessage());
+        results[i] = engine.verify(entry.getSignature());
+      } catch (GeneralSecurityException e) {
+        // A key of another type or a malformed signature is simply not valid.
+        results[i] = false;
+      }
+    }
+  }
+
+  @Override
+  public String getKeyId() {
+    return keyId;
+  }
+
+  /** A (key, message, signature) triple of a batch. */
+  public static final class BatchEntry {
+
+    private final PublicKey publicKey;
+
+    private final byte[] message;
+
+    private final byte[] signature;
+
+    /**
+     * Creates a BatchEntry. The arrays are not copied.
+     *
+     * @param publicKey the public key the message should have been signed with.
+     * @param message the signed bytes, e.g. a Pre-Authentication Encoding.
+     * @param signature the signature.
+     */
+    public BatchEntry(PublicKey publicKey, byte[] message, byte[] signature) {
+      this.publicKey = Objects.requireNonNull(publicKey, "publicKey must not be null");
+      this.message = Objects.requireNonNull(message, "message must not be null");
+      this.signature = Objects.requireNonNull(signature, "signature must not be null");
+    }
+
+    public PublicKey getPublicKey() {
+      return publicKey;
+    }
+
+    public byte[] getMessage() {
+      return message;
+    }
+
+    public byte[] getSignature() {
+      return signature;
+    }
+  }
+}
@@ -0,0 +1,410 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Verifies the signatures of {@link IntotoEnvelope}s against the keys of a {@link Keyring}.
+ *
+ * <p>Signatures with a keyid are checked only against the key with that keyid. As allowed by DSSE,
+ * a signature without a keyid is tried against every key of the keyring. Outcomes can optionally
+ * be remembered in a {@link VerificationCache}. The verifier can be shared across threads.
+ *
+ * <p>Signatures with an {@link io.github.intoto.dsse.models.InclusionProof} sign the root of a
+ * {@link MerkleBatch}. They are valid if the proof leads from the payload to a root the signature
+ * is valid for. Root outcomes are always cached, in the given cache or in a small one of the
+ * verifier, so the signature shared by a batch is verified once.
+ */
+public final class IntotoEnvelopeVerifier {
+
+  /** Number of Merkle root signatures remembered when no cache is given. */
+  private static final long ROOT_CACHE_SIZE = 1024;
+
+  private final Keyring keyring;
+
+  private final VerificationCache cache;
+
+  /** Remembers the outcome of Merkle root signatures, which every envelope of a batch shares. */
+  private final VerificationCache rootCache;
+
+  public IntotoEnvelopeVerifier(Keyring keyring) {
+    this(keyring, null);
+  }
+
+  /**
+   * Creates a verifier that remembers the outcome of each signature check in the given cache.
+   *
+   * @param keyring the trusted keys.
+   * @param cache the cache of outcomes, used with this keyring only; null to disable caching.
+   */
+  public IntotoEnvelopeVerifier(Keyring keyring, VerificationCache cache) {
+    this.keyring = Objects.requireNonNull(keyring, "keyring must not be null");
+    this.cache = cache;
+    this.rootCache =
+        cache != null ? cache : VerificationCache.builder().maximumSize(ROOT_CACHE_SIZE).build();
+  }
+
+  public Keyring getKeyring() {
+    return keyring;
+  }
+
+  /**
+   * Verifies every signature of the envelope.
+   *
+   * @param envelope the envelope to verify.
+   * @return the result, verified if at least one signature was made by a trusted key.
+   * @throws NoSuchAlgorithmException thrown when the signature algorithm of a trusted key is not
+   *     available in the environment.
+   */
+  public VerificationResult verify(IntotoEnvelope envelope) throws NoSuchAlgorithmException {
+    byte[] payload = decodeBase64(envelope.getPayload());
+    List<String> verifiedKeyIds = new ArrayList<>();
+    if (payload != null && envelope.getSignatures() != null) {
+      SignedMessage message = new SignedMessage(envelope.getPayloadType(), payload);
+      for (io.github.intoto.dsse.models.Signature signature : envelope.getSignatures()) {
+        TrustedKey key = verifySignature(message, signature, candidates(signature));
+        if (key != null && !verifiedKeyIds.contains(key.getKeyId())) {
+          verifiedKeyIds.add(key.getKeyId());
+        }
+      }
+    }
+    return new VerificationResult(1, verifiedKeyIds);
+  }
+
+  /**
+   * Verifies that the envelope carries valid signatures from at least {@code threshold} distinct
+   * trusted keys.
+   *
+   * <p>Signatures whose keyid is in the keyring are checked first, cheapest algorithm first
+   * (Ed25519, then ECDSA, then RSA), followed by signatures without a keyid. Signatures whose keyid
+   * is not in the keyring are never checked. Verification stops as soon as the threshold is met or
+   * can no longer be met.
+   *
+   * @param envelope the envelope to verify.
+   * @param threshold the number of distinct trusted keys that must have signed the envelope.
+   * @return the result, listing the keys that satisfied the threshold.
+   * @throws NoSuchAlgorithmException thrown when the signature algorithm of a trusted key is not
+   *     available in the environment.
+   */
+  public VerificationResult verify(IntotoEnvelope envelope, int threshold)
+      throws NoSuchAlgorithmException {
+    ThresholdEvaluation evaluation = new ThresholdEvaluation(envelope, threshold);
+    for (Candidate candidate : evaluation.candidates) {
+      if (evaluation.isDecided()) {
+        break;
+      }
+      evaluation.record(candidate, candidate.verify(evaluation.message));
+    }
+    return evaluation.result();
+  }
+
+  /**
+   * Same as {@link #verify(IntotoEnvelope, int)}, but checks the candidate signatures in parallel
+   * on the given executor. Checks that have not started yet when the outcome is decided are
+   * skipped.
+   *
+   * @param envelope the envelope to verify.
+   * @param threshold the number of distinct trusted keys that must have signed the envelope.
+   * @param executor the executor the signature checks are submitted to.
+   * @return the result, listing the keys that satisfied the threshold.
+   * @throws NoSuchAlgorithmException thrown when the signature algorithm of a trusted key is not
+   *     available in the environment.
+   */
+  public VerificationResult verify(IntotoEnvelope envelope, int threshold, Executor executor)
+      throws NoSuchAlgorithmException {
+    ThresholdEvaluation evaluation = new ThresholdEvaluation(envelope, threshold);
+    if (evaluation.isDecided()) {
+      return evaluation.result();
+    }
+    CompletableFuture<VerificationResult> outcome = new CompletableFuture<>();
+    for (Candidate candidate : evaluation.candidates) {
+      executor.execute(
+          () -> {
+            if (outcome.isDone()) {
+              return;
+            }
+            try {
+              TrustedKey key = candidate.verify(evaluation.message);
+              synchronized (evaluation) {
+                evaluation.record(candidate, key);
+                if (evaluation.isDecided()) {
+                  outcome.complete(evaluation.result());
+                }
+              }
+            } catch (Throwable e) {
+              outcome.completeExceptionally(e);
+            }
+          });
+    }
+    try {
+      return outcome.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof NoSuchAlgorithmException) {
+        throw (NoSuchAlgorithmException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** Relative cost of verifying one signature with the given key, lower is cheaper. */
+  static int verificationCost(TrustedKey key) {
+    String algorithm = key.getSignatureAlgorithm().toUpperCase(Locale.ROOT);
+    if (algorithm.contains("ED25519") || algorithm.contains("EDDSA")) {
+      return 0;
+    }
+    if (algorithm.contains("ECDSA")) {
+      return 1;
+    }
+    if (algorithm.contains("RSA")) {
+      return 2;
+    }
+    return 3;
+  }
+
+  /** Returns the keys a signature may have been made with. */
+  Collection<TrustedKey> candidates(io.github.intoto.dsse.models.Signature signature) {
+    if (signature.getKeyId() == null) {
+      return keyring.getKeys();
+    }
+    TrustedKey key = keyring.get(signature.getKeyId());
+    return key == null ? List.of() : List.of(key);
+  }
+
+  /**
+   * Returns the first candidate key that produced the signature, or null if none did or the
+   * signature is malformed.
+   */
+  TrustedKey verifySignature(
+      SignedMessage message,
+      io.github.intoto.dsse.models.Signature signature,
+      Collection<TrustedKey> candidates)
+      throws NoSuchAlgorithmException {
+    if (signature.getInclusionProof() != null) {
+      return verifyRootSignature(
+          MerkleBatch.leaf(message.payloadType, message.payload), signature, candidates);
+    }
+    byte[] sig = decodeBase64(signature.getSig());
+    if (sig == null) {
+      return null;
+    }
+    for (TrustedKey key : candidates) {
+      if (isValid(key, message, sig, cache)) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks a signature of a {@link MerkleBatch} root: the inclusion proof must lead from the leaf
+   * of the payload to a root the signature is valid for. Outcomes are always cached, so the root
+   * signature is verified once for the whole batch.
+   *
+   * @return the first candidate key that signed the root, or null if none did or the signature or
+   *     its proof is malformed.
+   */
+  TrustedKey verifyRootSignature(
+      byte[] leaf,
+      io.github.intoto.dsse.models.Signature signature,
+      Collection<TrustedKey> candidates)
+      throws NoSuchAlgorithmException {
+    byte[] sig = decodeBase64(signature.getSig());
+    byte[] root = MerkleBatch.rootFromProof(leaf, signature.getInclusionProof());
+    if (sig == null || root == null) {
+      return null;
+    }
+    SignedMessage message = new SignedMessage(MerkleBatch.ROOT_PAYLOAD_TYPE, root);
+    for (TrustedKey key : candidates) {
+      if (isValid(key, message, sig, rootCache)) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  /** Checks a signature with a key, going through the given cache if there is one. */
+  private boolean isValid(
+      TrustedKey key, SignedMessage message, byte[] sig, VerificationCache outcomes)
+      throws NoSuchAlgorithmException {
+    if (outcomes == null) {
+      return verifySignature(key, message.payloadType, message.payload, sig);
+    }
+    // Read the version first, so an outcome computed while the keyring changes is not cached.
+    long version = keyring.getVersion();
+    ByteBuffer cacheKey = VerificationCache.key(key, message.digest(), sig);
+    Boolean cached = outcomes.get(cacheKey, version);
+    if (cached != null) {
+      return cached;
+    }
+    boolean valid = verifySignature(key, message.payloadType, message.payload, sig);
+    outcomes.put(cacheKey, version, valid);
+    return valid;
+  }
+
+  static boolean verifySignature(TrustedKey key, String payloadType, byte[] payload, byte[] sig)
+      throws NoSuchAlgorithmException {
+    try {
+      SignaturePool engines = key.engines();
+      java.security.Signature engine = engines.acquire();
+      PreAuthenticationEncoding.update(engine, payloadType, payload);
+      boolean valid = engine.verify(sig);
+      engines.release(engine);
+      return valid;
+    } catch (NoSuchAlgorithmException e) {
+      throw e;
+    } catch (GeneralSecurityException e) {
+      // A malformed signature or a key that does not match the algorithm is simply not valid.
+      return false;
+    }
+  }
+
+  /**
+   * Decodes a Base64 value, which DSSE allows to use either the standard or the URL-safe alphabet.
+   *
+   * @return the decoded bytes, or null if the value is missing or not valid Base64.
+   */
+  static byte[] decodeBase64(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Base64.getDecoder().decode(value);
+    } catch (IllegalArgumentException e) {
+      try {
+        return Base64.getUrlDecoder().decode(value);
+      } catch (IllegalArgumentException urlSafe) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * A payload to check signatures against. The digest of its Pre-Authentication Encoding, which the
+   * cache keys are derived from, is computed at most once however many signatures and keys are
+   * checked.
+   */
+  static final class SignedMessage {
+    private final String payloadType;
+    private final byte[] payload;
+
+    /** Computing it twice under contention is harmless, both threads get equal arrays. */
+    private volatile byte[] digest;
+
+    SignedMessage(String payloadType, byte[] payload) {
+      this.payloadType = payloadType;
+      this.payload = payload;
+    }
+
+    byte[] digest() {
+      byte[] computed = digest;
+      if (computed == null) {
+        computed = VerificationCache.messageDigest(payloadType, payload);
+        digest = computed;
+      }
+      return computed;
+    }
+  }
+
+  /** A signature of the envelope together with the trusted keys that may have made it. */
+  private final class Candidate {
+    private final io.github.intoto.dsse.models.Signature signature;
+    private final Collection<TrustedKey> keys;
+
+    /** The keyid this signature can add to the result, or null if it has none. */
+    private final String keyId;
+
+    private final int cost;
+
+    Candidate(io.github.intoto.dsse.models.Signature signature, Collection<TrustedKey> keys) {
+      this.signature = signature;
+      this.keys = keys;
+      this.keyId = signature.getKeyId();
+      this.cost =
+          keyId == null
+              ? Integer.MAX_VALUE
+              : keys.stream().mapToInt(IntotoEnvelopeVerifier::verificationCost).min().orElse(3);
+    }
+
+    TrustedKey verify(SignedMessage message) throws NoSuchAlgorithmException {
+      return verifySignature(message, signature, keys);
+    }
+  }
+
+  /**
+   * Keeps track of a threshold verification: the ordered candidates, the keys verified so far and
+   * whether the outcome is decided. Instances are confined to one thread or guarded by themselves.
+   */
+  private final class ThresholdEvaluation {
+    private final int threshold;
+
+    /** The decoded payload, or null if the envelope has none. */
+    private final SignedMessage message;
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final Set<String> verifiedKeyIds = new LinkedHashSet<>();
+
+    /** Candidates that have not been checked yet; checks may finish in any order. */
+    private final Set<Candidate> unchecked = new HashSet<>();
+
+    ThresholdEvaluation(IntotoEnvelope envelope, int threshold) {
+      if (threshold < 1) {
+        throw new IllegalArgumentException("threshold must be positive");
+      }
+      this.threshold = threshold;
+      byte[] payload = decodeBase64(envelope.getPayload());
+      this.message = payload == null ? null : new SignedMessage(envelope.getPayloadType(), payload);
+      if (payload != null && envelope.getSignatures() != null) {
+        for (io.github.intoto.dsse.models.Signature signature : envelope.getSignatures()) {
+          Collection<TrustedKey> keys = candidates(signature);
+          if (!keys.isEmpty()) {
+            candidates.add(new Candidate(signature, keys));
+          }
+        }
+      }
+      candidates.sort(Comparator.comparingInt(candidate -> candidate.cost));
+      unchecked.addAll(candidates);
+    }
+
+    void record(Candidate candidate, TrustedKey key) {
+      unchecked.remove(candidate);
+      if (key != null) {
+        verifiedKeyIds.add(key.getKeyId());
+      }
+    }
+
+    /** Returns true once the threshold is met, or can no longer be met by the remaining ones. */
+    boolean isDecided() {
+      if (verifiedKeyIds.size() >= threshold) {
+        return true;
+      }
+      // Each remaining signature can add at most one key, and signatures with a keyid can only add
+      // that key.
+      long possible =
+          unchecked.stream().filter(candidate -> candidate.keyId == null).count()
+              + unchecked.stream()
+                  .map(candidate -> candidate.keyId)
+                  .filter(keyId -> keyId != null && !verifiedKeyIds.contains(keyId))
+                  .distinct()
+                  .count();
+      return verifiedKeyIds.size() + possible < threshold;
+    }
+
+    VerificationResult result() {
+      return new VerificationResult(threshold, new ArrayList<>(verifiedKeyIds));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.Signer;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.Objects;
+
+/**
+ * Base class for {@link Signer}s backed by a JCA {@link Signature} engine.
+ *
+ * <p>Engines are created and initialized with the private key once, then kept in a bounded pool and
+ * reused by later calls, so signing does not pay for the provider lookup and the key initialization
+ * every time. Instances are thread-safe: concurrent calls each take their own engine from the pool.
+ */
+public abstract class JcaSigner implements Signer {
+
+  private final PrivateKey privateKey;
+
+  private final String keyId;
+
+  private final String algorithm;
+
+  private final SignaturePool pool;
+
+  /**
+   * Creates a signer keeping up to one idle engine per core.
+   *
+   * @param privateKey the private key to sign with.
+   * @param keyId the keyid of the signatures, or null.
+   * @param algorithm the JCA name of the signature algorithm, e.g. SHA256withECDSA.
+   */
+  protected JcaSigner(PrivateKey privateKey, String keyId, String algorithm) {
+    this(privateKey, keyId, algorithm, SignaturePool.defaultCapacity());
+  }
+
+  /**
+   * Creates a signer.
+   *
+   * @param privateKey the private key to sign with.
+   * @param keyId the keyid of the signatures, or null.
+   * @param algorithm the JCA name of the signature algorithm, e.g. SHA256withECDSA.
+   * @param poolSize the maximum number of idle engines kept for reuse.
+   */
+  protected JcaSigner(PrivateKey privateKey, String keyId, String algorithm, int poolSize) {
+    if (poolSize < 1) {
+      throw new IllegalArgumentException("poolSize must be positive");
+    }
+    this.privateKey = Objects.requireNonNull(privateKey, "privateKey must not be null");
+    this.keyId = keyId;
+    this.algorithm = Objects.requireNonNull(algorithm, "algorithm must not be null");
+    this.pool = new SignaturePool(poolSize, this::createEngine);
+  }
+
+  @Override
+  public byte[] sign(byte[] payload)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    Signature signature = pool.acquire();
+    signature.update(payload);
+    byte[] result = signature.sign();
+    pool.release(signature);
+    return result;
+  }
+
+  @Override
+  public byte[] sign(String payloadType, byte[] payload)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    Signature signature = pool.acquire();
+    PreAuthenticationEncoding.update(signature, payloadType, payload);
+    byte[] result = signature.sign();
+    pool.release(signature);
+    return result;
+  }
+
+  @Override
+  public String getKeyId() {
+    return this.keyId;
+  }
+
+  /** Returns the JCA name of the signature algorithm. */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Returns a new, uninitialized engine for the algorithm. Subclasses can override it to pick a
+   * provider or to set algorithm parameters.
+   *
+   * @throws NoSuchAlgorithmException thrown when the algorithm is not available in the environment.
+   */
+  protected Signature newSignature() throws NoSuchAlgorithmException {
+    return SignatureAlgorithms.newSignature(algorithm);
+  }
+
+  /** Returns the number of idle engines in the pool. */
+  int idleEngines() {
+    return pool.idleCount();
+  }
+
+  private Signature createEngine() throws NoSuchAlgorithmException, InvalidKeyException {
+    Signature signature = newSignature();
+    signature.initSign(privateKey);
+    return signature;
+  }
+}
@@ -0,0 +1,186 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.MessageVerifier;
+import io.github.intoto.dsse.models.Verifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Base class for {@link Verifier}s and {@link MessageVerifier}s backed by a JCA {@link Signature}
+ * engine. The String based {@link Verifier} methods decode X.509 encoded keys and adapt to the
+ * byte-oriented methods, as described in {@link MessageVerifier}.
+ *
+ * <p>Engines initialized with a public key are kept in a bounded pool per key and reused by later
+ * verifications with the same key, so verifying does not pay for the provider lookup and the key
+ * initialization every time. Pools are kept for the most recently used keys only. Instances are
+ * thread-safe: concurrent verifications each take their own engine.
+ *
+ * <p>An engine goes back to its pool once {@link MessageVerifier.Session#verify(byte[])} returns; a
+ * session that is abandoned or whose engine fails is simply not reused.
+ */
+public abstract class JcaVerifier implements Verifier, MessageVerifier {
+
+  /** Default number of keys engines are pooled for. */
+  private static final int DEFAULT_MAXIMUM_KEYS = 64;
+
+  private final String algorithm;
+
+  private final String keyAlgorithm;
+
+  private final int poolSize;
+
+  private final int maximumKeys;
+
+  /** Engine pools of the most recently used keys, least recently used first. Guarded by itself. */
+  private final LinkedHashMap<PublicKey, SignaturePool> pools;
+
+  /**
+   * Creates a verifier pooling engines for the 64 most recently used keys, with up to one idle
+   * engine per core for each.
+   *
+   * @param algorithm the JCA name of the signature algorithm, e.g. SHA256withECDSA.
+   * @param keyAlgorithm the JCA name of the {@link KeyFactory} decoding encoded keys, e.g. EC.
+   */
+  protected JcaVerifier(String algorithm, String keyAlgorithm) {
+    this(algorithm, keyAlgorithm, SignaturePool.defaultCapacity(), DEFAULT_MAXIMUM_KEYS);
+  }
+
+  /**
+   * Creates a verifier.
+   *
+   * @param algorithm the JCA name of the signature algorithm, e.g. SHA256withECDSA.
+   * @param keyAlgorithm the JCA name of the {@link KeyFactory} decoding encoded keys, e.g. EC.
+   * @param poolSize the maximum number of idle engines kept for each key.
+   * @param maximumKeys the maximum number of keys engines are kept for.
+   */
+  protected JcaVerifier(String algorithm, String keyAlgorithm, int poolSize, int maximumKeys) {
+    if (poolSize < 1) {
+      throw new IllegalArgumentException("poolSize must be positive");
+    }
+    if (maximumKeys < 1) {
+      throw new IllegalArgumentException("maximumKeys must be positive");
+    }
+    this.algorithm = Objects.requireNonNull(algorithm, "algorithm must not be null");
+    this.keyAlgorithm = Objects.requireNonNull(keyAlgorithm, "keyAlgorithm must not be null");
+    this.poolSize = poolSize;
+    this.maximumKeys = maximumKeys;
+    this.pools =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<PublicKey, SignaturePool> eldest) {
+            return size() > JcaVerifier.this.maximumKeys;
+          }
+        };
+  }
+
+  /**
+   * Verifies a message given as a String. The message is encoded as UTF-8; prefer {@link
+   * #verify(PublicKey, byte[], byte[])}, which takes the bytes that were signed.
+   */
+  @Override
+  public boolean verify(byte[] publicKeyByteArray, byte[] encryptedMessage, String message)
+      throws NoSuchAlgorithmException,
+          SignatureException,
+          InvalidKeySpecException,
+          InvalidKeyException {
+    return verify(
+        decodePublicKey(publicKeyByteArray),
+        message.getBytes(StandardCharsets.UTF_8),
+        encryptedMessage);
+  }
+
+  @Override
+  public boolean verify(
+      byte[] publicKeyByteArray, byte[] encryptedMessage, String payloadType, byte[] payload)
+      throws NoSuchAlgorithmException,
+          SignatureException,
+          InvalidKeySpecException,
+          InvalidKeyException {
+    return verifyPayload(
+        decodePublicKey(publicKeyByteArray), payloadType, payload, encryptedMessage);
+  }
+
+  @Override
+  public Session begin(PublicKey publicKey) throws NoSuchAlgorithmException, InvalidKeyException {
+    SignaturePool pool = pool(Objects.requireNonNull(publicKey, "publicKey must not be null"));
+    Signature signature = pool.acquire();
+    return new Session() {
+      @Override
+      public void update(byte[] message, int offset, int length) throws SignatureException {
+        signature.update(message, offset, length);
+      }
+
+      @Override
+      public void update(ByteBuffer message) throws SignatureException {
+        signature.update(message);
+      }
+
+      @Override
+      public boolean verify(byte[] encryptedMessage) throws SignatureException {
+        boolean valid = signature.verify(encryptedMessage);
+        pool.release(signature);
+        return valid;
+      }
+    };
+  }
+
+  /** Returns the JCA name of the signature algorithm. */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Returns a new, uninitialized engine for the algorithm. Subclasses can override it to pick a
+   * provider or to set algorithm parameters.
+   *
+   * @throws NoSuchAlgorithmException thrown when the algorithm is not available in the environment.
+   */
+  protected Signature newSignature() throws NoSuchAlgorithmException {
+    return SignatureAlgorithms.newSignature(algorithm);
+  }
+
+  /**
+   * Decodes an X.509 encoded public key.
+   *
+   * @throws NoSuchAlgorithmException thrown when the key algorithm is not available.
+   * @throws InvalidKeySpecException thrown when the bytes are not a key of the key algorithm.
+   */
+  protected PublicKey decodePublicKey(byte[] publicKeyByteArray)
+      throws NoSuchAlgorithmException, InvalidKeySpecException {
+    return KeyFactory.getInstance(keyAlgorithm)
+        .generatePublic(new X509EncodedKeySpec(publicKeyByteArray));
+  }
+
+  /** Returns the number of keys engines are pooled for. */
+  int pooledKeys() {
+    synchronized (pools) {
+      return pools.size();
+    }
+  }
+
+  private SignaturePool pool(PublicKey publicKey) {
+    synchronized (pools) {
+      return pools.computeIfAbsent(
+          publicKey,
+          key ->
+              new SignaturePool(
+                  poolSize,
+                  () -> {
+                    Signature signature = newSignature();
+                    signature.initVerify(key);
+                    return signature;
+                  }));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package io.github.intoto.dsse.helpers;
+
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe set of {@link TrustedKey}s indexed by keyid. Keys are parsed once, when they are
+ * added, so verifying a signature only costs a hash lookup for its key.
+ *
+ * <p>Every change increments the {@link #getVersion() version}, which lets anything derived from
+ * the keyring, such as cached verification results, detect that it is stale.
+ */
+public final class Keyring {
+
+  private final Map<String, TrustedKey> keys = new ConcurrentHashMap<>();
+
+  private final AtomicLong version = new AtomicLong();
+
+  /**
+   * Adds a key, replacing any key with the same keyid.
+   *
+   * @param key the key to add.
+   * @return this keyring.
+   */
+  public Keyring add(TrustedKey key) {
+    keys.put(key.getKeyId(), key);
+    version.incrementAndGet();
+    return this;
+  }
+
+  /**
+   * Adds a public key with the default signature algorithm for its type. See {@link
+   * TrustedKey#TrustedKey(String, PublicKey)}.
+   *
+   * @param keyId the keyid of the signatures made with this key.
+   * @param publicKey the public key.
+   * @return this keyring.
+   */
+  public Keyring add(String keyId, PublicKey publicKey) {
+    return add(new TrustedKey(keyId, publicKey));
+  }
+
+  /**
+   * Parses and adds a X.509 (SubjectPublicKeyInfo) encoded public key.
+   *
+   * @param keyId the keyid of the signatures made with this key.
+   * @param encodedPublicKey the encoded public key, as returned by {@link PublicKey#getEncoded()}.
+   * @param keyAlgorithm the JCA key algorithm, e.g. EC, Ed25519 or RSA.
+   * @return this keyring.
+   * @throws NoSuchAlgorithmException thrown when the key algorithm is not available.
+   * @throws InvalidKeySpecException thrown when the encoded key cannot be parsed.
+   */
+  public Keyring add(String keyId, byte[] encodedPublicKey, String keyAlgorithm)
+      throws NoSuchAlgorithmException, InvalidKeySpecException {
+    PublicKey publicKey =
+        KeyFactory.getInstance(keyAlgorithm)
+            .generatePublic(new X509EncodedKeySpec(encodedPublicKey));
+    return add(keyId, publicKey);
+  }
+
+  /**
+   * Removes the key with the given keyid.
+   *
+   * @return true if a key was removed.
+   */
+  public boolean remove(String keyId) {
+    boolean removed = keys.remove(keyId) != null;
+    if (removed) {
+      version.incrementAndGet();
+    }
+    return removed;
+  }
+
+  /** Returns the key with the given keyid, or null if there is none. */
+  public TrustedKey get(String keyId) {
+    return keyId == null ? null : keys.get(keyId);
+  }
+
+  /** Returns an unmodifiable view of the keys. */
+  public Collection<TrustedKey> getKeys() {
+    return Collections.unmodifiableCollection(keys.values());
+  }
+
+  public int size() {
+    return keys.size();
+  }
+
+  /** Returns a number that changes every time a key is added or removed. */
+  public long getVersion() {
+    return version.get();
+  }
+}
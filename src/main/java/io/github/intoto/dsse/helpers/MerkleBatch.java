@@ -0,0 +1,153 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.InclusionProof;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * RFC 6962 Merkle tree over the payloads of a batch of envelopes, so a single signature of its root
+ * covers every envelope of the batch.
+ *
+ * <p>Each leaf is the SHA-256 digest of the Pre-Authentication Encoding of one payload. Leaves are
+ * hashed as {@code SHA-256(0x00 || leaf)} and interior nodes as {@code SHA-256(0x01 || left ||
+ * right)}. The root is signed as the payload of an envelope of type {@link #ROOT_PAYLOAD_TYPE}, so
+ * a root signature can never be mistaken for the signature of an ordinary payload. Each envelope
+ * then carries the root signature together with the {@link InclusionProof} of its own payload,
+ * which holds about log2(batch size) hashes.
+ */
+public final class MerkleBatch {
+
+  /** Payload type under which Merkle roots are signed. The payload is the 32 byte root. */
+  public static final String ROOT_PAYLOAD_TYPE = "application/vnd.in-toto-java.merkle-root+sha256";
+
+  private static final byte LEAF_PREFIX = 0;
+
+  private static final byte NODE_PREFIX = 1;
+
+  private static final int HASH_LENGTH = 32;
+
+  /** Node hashes by level, from the hashed leaves up to the root. */
+  private final List<byte[][]> levels = new ArrayList<>();
+
+  private MerkleBatch(List<byte[]> leaves) {
+    MessageDigest digest = VerificationCache.sha256();
+    byte[][] level = new byte[leaves.size()][];
+    for (int i = 0; i < level.length; i++) {
+      level[i] = leafHash(digest, Objects.requireNonNull(leaves.get(i), "leaf must not be null"));
+    }
+    levels.add(level);
+    while (level.length > 1) {
+      byte[][] parent = new byte[(level.length + 1) / 2][];
+      for (int i = 0; i < parent.length; i++) {
+        int left = 2 * i;
+        // A node without a sibling moves up unchanged, which gives the RFC 6962 tree shape.
+        parent[i] =
+            left + 1 < level.length ? nodeHash(digest, level[left], level[left + 1]) : level[left];
+      }
+      levels.add(parent);
+      level = parent;
+    }
+  }
+
+  /**
+   * Builds the tree of a batch.
+   *
+   * @param leaves the leaf of each payload, as returned by {@link #leaf(String, byte[])}.
+   * @throws IllegalArgumentException thrown when the batch is empty.
+   */
+  public static MerkleBatch of(List<byte[]> leaves) {
+    if (leaves.isEmpty()) {
+      throw new IllegalArgumentException("a batch needs at least one leaf");
+    }
+    return new MerkleBatch(leaves);
+  }
+
+  /** Returns the leaf of a payload: the SHA-256 digest of its Pre-Authentication Encoding. */
+  public static byte[] leaf(String payloadType, byte[] payload) {
+    return PreAuthenticationEncoding.digest(VerificationCache.sha256(), payloadType, payload);
+  }
+
+  /** Returns the number of leaves. */
+  public int size() {
+    return levels.get(0).length;
+  }
+
+  /** Returns the root hash, the payload that is signed for the whole batch. */
+  public byte[] root() {
+    return levels.get(levels.size() - 1)[0].clone();
+  }
+
+  /** Returns the proof that the leaf at the given index belongs to the tree. */
+  public InclusionProof proof(int index) {
+    Objects.checkIndex(index, size());
+    List<String> hashes = new ArrayList<>();
+    int position = index;
+    for (int i = 0; i < levels.size() - 1; i++) {
+      byte[][] level = levels.get(i);
+      int sibling = position ^ 1;
+      if (sibling < level.length) {
+        hashes.add(Base64.getEncoder().encodeToString(level[sibling]));
+      }
+      position >>= 1;
+    }
+    InclusionProof proof = new InclusionProof();
+    proof.setLeafIndex(index);
+    proof.setTreeSize(size());
+    proof.setHashes(hashes);
+    return proof;
+  }
+
+  /**
+   * Computes the root of the tree a leaf belongs to according to a proof, following the
+   * verification algorithm of RFC 9162 section 2.1.3.2. The proof holds if the root is the one that
+   * was signed.
+   *
+   * @param leaf the leaf, as returned by {@link #leaf(String, byte[])}.
+   * @param proof the inclusion proof of the leaf.
+   * @return the root, or null if the proof is malformed.
+   */
+  public static byte[] rootFromProof(byte[] leaf, InclusionProof proof) {
+    long index = proof.getLeafIndex();
+    long lastIndex = proof.getTreeSize() - 1;
+    if (index < 0 || index > lastIndex || proof.getHashes() == null) {
+      return null;
+    }
+    MessageDigest digest = VerificationCache.sha256();
+    byte[] hash = leafHash(digest, leaf);
+    for (String encoded : proof.getHashes()) {
+      byte[] sibling = IntotoEnvelopeVerifier.decodeBase64(encoded);
+      if (lastIndex == 0 || sibling == null || sibling.length != HASH_LENGTH) {
+        return null;
+      }
+      if ((index & 1) == 1 || index == lastIndex) {
+        hash = nodeHash(digest, sibling, hash);
+        // Skip the levels where this node has no sibling and moves up unchanged.
+        while ((index & 1) == 0 && index != 0) {
+          index >>= 1;
+          lastIndex >>= 1;
+        }
+      } else {
+        hash = nodeHash(digest, hash, sibling);
+      }
+      index >>= 1;
+      lastIndex >>= 1;
+    }
+    return lastIndex == 0 ? hash : null;
+  }
+
+  private static byte[] leafHash(MessageDigest digest, byte[] leaf) {
+    digest.update(LEAF_PREFIX);
+    digest.update(leaf);
+    return digest.digest();
+  }
+
+  private static byte[] nodeHash(MessageDigest digest, byte[] left, byte[] right) {
+    digest.update(NODE_PREFIX);
+    digest.update(left);
+    digest.update(right);
+    return digest.digest();
+  }
+}
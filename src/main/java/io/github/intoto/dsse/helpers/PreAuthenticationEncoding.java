@@ -0,0 +1,100 @@
+package io.github.intoto.dsse.helpers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.SignatureException;
+
+/**
+ * Byte oriented implementation of the DSSEv1 Pre-Authentication Encoding (PAE):
+ *
+ * <pre>
+ * "DSSEv1" + SP + LEN(type) + SP + type + SP + LEN(body) + SP + body
+ * </pre>
+ *
+ * <p>Everything before the body is a short ASCII header, so instead of building the full encoding
+ * the header and the payload can be fed one after the other to a {@link Signature} engine or an
+ * {@link OutputStream}. The payload is never copied or decoded into a String.
+ *
+ * <p>Defined in https://github.com/secure-systems-lab/dsse/blob/master/protocol.md
+ */
+public final class PreAuthenticationEncoding {
+
+  private static final String PREFIX = "DSSEv1 ";
+
+  private PreAuthenticationEncoding() {}
+
+  /**
+   * Returns the PAE header, that is everything that comes before the payload bytes.
+   *
+   * @param payloadType the type of payload.
+   * @param payloadLength the length in bytes of the payload.
+   * @return the UTF-8 encoded header, ending with the space that precedes the payload.
+   */
+  public static byte[] header(String payloadType, long payloadLength) {
+    byte[] type = payloadType.getBytes(StandardCharsets.UTF_8);
+    return (PREFIX + type.length + ' ' + payloadType + ' ' + payloadLength + ' ')
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the full PAE for the given payload, allocating a single array of the final size.
+   *
+   * @param payloadType the type of payload.
+   * @param payload raw payload in bytes.
+   * @return the Pre-Authentication Encoding.
+   */
+  public static byte[] encode(String payloadType, byte[] payload) {
+    byte[] header = header(payloadType, payload.length);
+    byte[] encoding = new byte[header.length + payload.length];
+    System.arraycopy(header, 0, encoding, 0, header.length);
+    System.arraycopy(payload, 0, encoding, header.length, payload.length);
+    return encoding;
+  }
+
+  /**
+   * Feeds the PAE of the given payload into an initialized {@link Signature}, for either signing or
+   * verification.
+   *
+   * @param signature a Signature engine that was already initialized with a key.
+   * @param payloadType the type of payload.
+   * @param payload raw payload in bytes.
+   * @throws SignatureException thrown when the Signature engine is not initialized.
+   */
+  public static void update(Signature signature, String payloadType, byte[] payload)
+      throws SignatureException {
+    signature.update(header(payloadType, payload.length));
+    signature.update(payload);
+  }
+
+  /**
+   * Returns the digest of the PAE of the given payload, feeding the header and the payload to the
+   * {@link MessageDigest} one after the other.
+   *
+   * @param digest a MessageDigest, which is reset afterwards.
+   * @param payloadType the type of payload.
+   * @param payload raw payload in bytes.
+   * @return the digest of the Pre-Authentication Encoding.
+   */
+  public static byte[] digest(MessageDigest digest, String payloadType, byte[] payload) {
+    digest.update(header(payloadType, payload.length));
+    digest.update(payload);
+    return digest.digest();
+  }
+
+  /**
+   * Writes the PAE of the given payload to an {@link OutputStream}.
+   *
+   * @param out the stream to write to, for instance a reused ByteArrayOutputStream.
+   * @param payloadType the type of payload.
+   * @param payload raw payload in bytes.
+   * @throws IOException thrown when the stream cannot be written.
+   */
+  public static void writeTo(OutputStream out, String payloadType, byte[] payload)
+      throws IOException {
+    out.write(header(payloadType, payload.length));
+    out.write(payload);
+  }
+}
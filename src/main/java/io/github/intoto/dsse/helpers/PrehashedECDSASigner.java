@@ -0,0 +1,47 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.PrehashedSigner;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.SignatureException;
+
+/**
+ * {@link PrehashedSigner} producing ECDSA signatures of SHA-256 digests, which verify as
+ * SHA256withECDSA signatures of the message, e.g. with {@link SimpleECDSAVerifier}.
+ */
+public class PrehashedECDSASigner extends JcaSigner implements PrehashedSigner {
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  public PrehashedECDSASigner(PrivateKey privateKey, String keyId) {
+    // NONEwithECDSA signs its input as is, which here is always a digest.
+    super(privateKey, keyId, "NONEwithECDSA");
+  }
+
+  @Override
+  public String getDigestAlgorithm() {
+    return DIGEST_ALGORITHM;
+  }
+
+  @Override
+  public byte[] signDigest(byte[] digest, String digestAlgorithm)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    if (!DIGEST_ALGORITHM.equalsIgnoreCase(digestAlgorithm)) {
+      throw new NoSuchAlgorithmException("expected a SHA-256 digest but got " + digestAlgorithm);
+    }
+    return super.sign(digest);
+  }
+
+  @Override
+  public byte[] sign(byte[] payload)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    return PrehashedSigner.super.sign(payload);
+  }
+
+  @Override
+  public byte[] sign(String payloadType, byte[] payload)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    return PrehashedSigner.super.sign(payloadType, payload);
+  }
+}
@@ -0,0 +1,15 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.Signer;
+import java.security.PrivateKey;
+
+/**
+ * {@link Signer} producing RSASSA-PSS signatures with SHA-256, MGF1 with SHA-256 and a 32 byte
+ * salt.
+ */
+public class RsaPssSigner extends JcaSigner {
+
+  public RsaPssSigner(PrivateKey privateKey, String keyId) {
+    super(privateKey, keyId, SignatureAlgorithms.RSA_PSS);
+  }
+}
@@ -0,0 +1,30 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.MessageVerifier;
+import io.github.intoto.dsse.models.Verifier;
+
+/**
+ * {@link Verifier} and {@link MessageVerifier} for RSASSA-PSS signatures with SHA-256, MGF1 with
+ * SHA-256 and a 32 byte salt, as produced by {@link RsaPssSigner}.
+ */
+public class RsaPssVerifier extends JcaVerifier {
+
+  private final String keyId;
+
+  public RsaPssVerifier() {
+    this(null);
+  }
+
+  /**
+   * @param keyId the keyid returned by {@link #getKeyId()}.
+   */
+  public RsaPssVerifier(String keyId) {
+    super(SignatureAlgorithms.RSA_PSS, "RSA");
+    this.keyId = keyId;
+  }
+
+  @Override
+  public String getKeyId() {
+    return keyId;
+  }
+}
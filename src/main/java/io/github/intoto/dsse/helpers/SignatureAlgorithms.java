@@ -0,0 +1,58 @@
+package io.github.intoto.dsse.helpers;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+
+/** Creates the JCA signature engines used by the signers and verifiers of this package. */
+final class SignatureAlgorithms {
+
+  static final String ECDSA = "SHA256withECDSA";
+
+  static final String ED25519 = "Ed25519";
+
+  static final String RSA_PSS = "RSASSA-PSS";
+
+  /** RSASSA-PSS with SHA-256, MGF1 with SHA-256 and a 32 byte salt. */
+  static final PSSParameterSpec PSS_SHA256 =
+      new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1);
+
+  private SignatureAlgorithms() {}
+
+  /**
+   * Returns an engine for the given JCA algorithm name, from the provider {@link CryptoProviders}
+   * selects for it. RSASSA-PSS engines take their parameters separately, they are set to {@link
+   * #PSS_SHA256}.
+   *
+   * @throws NoSuchAlgorithmException thrown when the algorithm is not available in the environment.
+   *     Ed25519 needs Java 15 or a provider such as BouncyCastle.
+   */
+  static Signature newSignature(String algorithm) throws NoSuchAlgorithmException {
+    return withParameters(algorithm, CryptoProviders.signature(algorithm));
+  }
+
+  /**
+   * Returns an engine for the given JCA algorithm name from the given provider.
+   *
+   * @see #newSignature(String)
+   */
+  static Signature newSignature(String algorithm, Provider provider)
+      throws NoSuchAlgorithmException {
+    return withParameters(algorithm, Signature.getInstance(algorithm, provider));
+  }
+
+  private static Signature withParameters(String algorithm, Signature signature)
+      throws NoSuchAlgorithmException {
+    if (RSA_PSS.equalsIgnoreCase(algorithm)) {
+      try {
+        signature.setParameter(PSS_SHA256);
+      } catch (InvalidAlgorithmParameterException e) {
+        throw new NoSuchAlgorithmException(algorithm + " with SHA-256 is not supported", e);
+      }
+    }
+    return signature;
+  }
+}
@@ -0,0 +1,63 @@
+package io.github.intoto.dsse.helpers;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A bounded pool of {@link Signature} engines initialized with one key, for one direction (signing
+ * or verifying).
+ *
+ * <p>Once {@link Signature#sign()} or {@link Signature#verify(byte[])} returns, the engine is back
+ * in the state {@code initSign} or {@code initVerify} left it in, so it can be reused with the same
+ * key without looking up the provider or initializing the key again. An engine is only handed to
+ * one caller at a time. Callers give it back with {@link #release(Signature)} after a completed
+ * operation; an engine whose operation threw is left out of the pool.
+ *
+ * <p>The pool never blocks: when it is empty a new engine is created, and an engine released into a
+ * full pool is dropped.
+ */
+final class SignaturePool {
+
+  /** Creates an engine initialized with the key of the pool. */
+  @FunctionalInterface
+  interface Factory {
+    Signature create() throws NoSuchAlgorithmException, InvalidKeyException;
+  }
+
+  private final Factory factory;
+
+  private final ArrayBlockingQueue<Signature> idle;
+
+  SignaturePool(int capacity, Factory factory) {
+    this.factory = factory;
+    this.idle = new ArrayBlockingQueue<>(capacity);
+  }
+
+  /** Default number of idle engines kept per key: one per core. */
+  static int defaultCapacity() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Returns an idle engine, or a new one if there is none.
+   *
+   * @throws NoSuchAlgorithmException thrown when the algorithm is not available in the environment.
+   * @throws InvalidKeyException thrown when the key does not match the algorithm.
+   */
+  Signature acquire() throws NoSuchAlgorithmException, InvalidKeyException {
+    Signature signature = idle.poll();
+    return signature != null ? signature : factory.create();
+  }
+
+  /** Gives back an engine whose last sign or verify operation completed normally. */
+  void release(Signature signature) {
+    idle.offer(signature);
+  }
+
+  /** Returns the number of idle engines. */
+  int idleCount() {
+    return idle.size();
+  }
+}
@@ -1,36 +1,51 @@
 package io.github.intoto.dsse.helpers;
 
+import io.github.intoto.dsse.models.MessageVerifier;
 import io.github.intoto.dsse.models.Verifier;
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
-import java.security.Signature;
-import java.security.SignatureException;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.X509EncodedKeySpec;
 
-/** Example implementation of a {@link Verifier} */
-public class SimpleECDSAVerifier implements Verifier {
+/**
+ * Example implementation of a {@link Verifier}. It also implements the byte-oriented {@link
+ * MessageVerifier}, which the String based methods adapt to.
+ */
+public class SimpleECDSAVerifier extends JcaVerifier {
 
-  private PublicKey publicKey;
+  private final String keyId;
+
+  /** The last key a verification began with, reported as keyid when none was given. */
+  private volatile PublicKey publicKey;
+
+  public SimpleECDSAVerifier() {
+    this(null);
+  }
+
+  /**
+   * @param keyId the keyid returned by {@link #getKeyId()}.
+   */
+  public SimpleECDSAVerifier(String keyId) {
+    super(SignatureAlgorithms.ECDSA, "ECDSA");
+    this.keyId = keyId;
+  }
 
   @Override
-  public boolean verify(byte[] publicKeyByteArray, byte[] encryptedMessage, String message)
-      throws NoSuchAlgorithmException, SignatureException, InvalidKeySpecException,
-          InvalidKeyException {
-    Signature signature = Signature.getInstance("SHA256withECDSA");
-    // Create the public key from the byte array
-    PublicKey publicKey =
-        KeyFactory.getInstance("ECDSA").generatePublic(new X509EncodedKeySpec(publicKeyByteArray));
+  public Session begin(PublicKey publicKey) throws NoSuchAlgorithmException, InvalidKeyException {
+    Session session = super.begin(publicKey);
     this.publicKey = publicKey;
-    signature.initVerify(publicKey);
-    signature.update(message.getBytes());
-    return signature.verify(encryptedMessage);
+    return session;
   }
 
+  /**
+   * Returns the keyid given at construction or, without one, the last key a verification began
+   * with; null before the first verification.
+   */
   @Override
   public String getKeyId() {
-    return publicKey.toString();
+    if (keyId != null) {
+      return keyId;
+    }
+    PublicKey publicKey = this.publicKey;
+    return publicKey == null ? null : publicKey.toString();
   }
 }
@@ -0,0 +1,327 @@
+package io.github.intoto.dsse.helpers;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import io.github.intoto.dsse.models.InclusionProof;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Verifies envelopes whose payload is too large to be decoded into memory, such as SBOM-style
+ * Statements of hundreds of megabytes.
+ *
+ * <p>The envelope JSON is read twice from a source that can be reopened, typically a file. The
+ * first pass collects the payloadType and the signatures and measures the decoded length of the
+ * payload, which the Pre-Authentication Encoding header needs, without keeping the payload. The
+ * second pass feeds the header and then the payload, decoded from Base64 as it is parsed, to one
+ * signature engine per candidate key. Memory use is independent of the payload size.
+ *
+ * <p>Candidate keys are chosen like {@link IntotoEnvelopeVerifier} does, and signatures of a {@link
+ * MerkleBatch} root are checked the same way, with the leaf digested during the second pass. The
+ * payload must use the standard Base64 alphabet.
+ */
+public final class StreamingEnvelopeVerifier {
+
+  /**
+   * Rejects repeated fields: the passes must agree on which payload is signed, and databind
+   * consumers keep the last value of a repeated field while the second pass would sign the first.
+   */
+  private static final JsonFactory JSON_FACTORY =
+      JsonFactory.builder().enable(StreamReadFeature.STRICT_DUPLICATE_DETECTION).build();
+
+  private final IntotoEnvelopeVerifier verifier;
+
+  public StreamingEnvelopeVerifier(IntotoEnvelopeVerifier verifier) {
+    this.verifier = Objects.requireNonNull(verifier, "verifier must not be null");
+  }
+
+  /**
+   * Verifies the envelope stored in a file.
+   *
+   * @see #verify(Source, int)
+   */
+  public VerificationResult verify(Path envelopeJson, int threshold)
+      throws IOException, NoSuchAlgorithmException {
+    return verify(() -> Files.newInputStream(envelopeJson), threshold);
+  }
+
+  /**
+   * Verifies that the envelope carries valid signatures from at least {@code threshold} distinct
+   * trusted keys, streaming its payload.
+   *
+   * @param source opens the UTF-8 encoded JSON of the envelope; called twice.
+   * @param threshold the number of distinct trusted keys that must have signed the envelope.
+   * @return the result, listing every trusted key with a valid signature.
+   * @throws IOException thrown when the envelope cannot be read, is not valid JSON, repeats a
+   *     field, or its payload is not valid Base64.
+   * @throws NoSuchAlgorithmException thrown when the signature algorithm of a trusted key is not
+   *     available in the environment.
+   */
+  public VerificationResult verify(Source source, int threshold)
+      throws IOException, NoSuchAlgorithmException {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold must be positive");
+    }
+    Envelope envelope = scan(source);
+    List<Check> checks = new ArrayList<>();
+    List<io.github.intoto.dsse.models.Signature> rootSignatures = new ArrayList<>();
+    for (io.github.intoto.dsse.models.Signature signature : envelope.signatures) {
+      if (signature.getInclusionProof() != null) {
+        rootSignatures.add(signature);
+        continue;
+      }
+      byte[] sig = IntotoEnvelopeVerifier.decodeBase64(signature.getSig());
+      if (sig == null) {
+        continue;
+      }
+      for (TrustedKey key : verifier.candidates(signature)) {
+        Check check = Check.start(key, sig);
+        if (check != null) {
+          checks.add(check);
+        }
+      }
+    }
+    Set<String> verifiedKeyIds = new LinkedHashSet<>();
+    if ((!checks.isEmpty() || !rootSignatures.isEmpty()) && envelope.payloadLength >= 0) {
+      byte[] header =
+          PreAuthenticationEncoding.header(envelope.payloadType, envelope.payloadLength);
+      // The Merkle leaf of the payload, only needed for signatures of a batch root.
+      MessageDigest leaf = rootSignatures.isEmpty() ? null : VerificationCache.sha256();
+      try (OutputStream engines = new SignatureOutputStream(checks, leaf)) {
+        engines.write(header);
+        streamPayload(source, envelope.payloadLength, engines);
+      }
+      for (Check check : checks) {
+        if (check.verify()) {
+          verifiedKeyIds.add(check.key.getKeyId());
+        }
+      }
+      if (leaf != null) {
+        byte[] digest = leaf.digest();
+        for (io.github.intoto.dsse.models.Signature signature : rootSignatures) {
+          TrustedKey key =
+              verifier.verifyRootSignature(digest, signature, verifier.candidates(signature));
+          if (key != null) {
+            verifiedKeyIds.add(key.getKeyId());
+          }
+        }
+      }
+    }
+    return new VerificationResult(threshold, new ArrayList<>(verifiedKeyIds));
+  }
+
+  /** First pass: reads everything but the payload, and measures the decoded payload. */
+  private static Envelope scan(Source source) throws IOException {
+    Envelope envelope = new Envelope();
+    try (InputStream in = source.open();
+        JsonParser parser = JSON_FACTORY.createParser(in)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if ("payloadType".equals(field) && value == JsonToken.VALUE_STRING) {
+          envelope.payloadType = parser.getText();
+        } else if ("payload".equals(field) && value == JsonToken.VALUE_STRING) {
+          envelope.payloadLength = decodePayload(parser, OutputStream.nullOutputStream());
+        } else if ("signatures".equals(field) && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            envelope.signatures.add(readSignature(parser));
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return envelope;
+  }
+
+  /**
+   * Second pass: decodes the payload into the given stream, which must have the length measured by
+   * the first pass.
+   */
+  private static void streamPayload(Source source, long length, OutputStream out)
+      throws IOException {
+    try (InputStream in = source.open();
+        JsonParser parser = JSON_FACTORY.createParser(in)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if ("payload".equals(field) && value == JsonToken.VALUE_STRING) {
+          if (decodePayload(parser, out) == length) {
+            return;
+          }
+          break;
+        }
+        parser.skipChildren();
+      }
+    }
+    throw new IOException("the envelope changed between the two passes");
+  }
+
+  /** Decodes the Base64 string the parser is positioned on into a stream, chunk by chunk. */
+  private static long decodePayload(JsonParser parser, OutputStream out) throws IOException {
+    try {
+      return parser.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, out);
+    } catch (IllegalArgumentException e) {
+      throw new JsonParseException(parser, "payload is not valid Base64", e);
+    }
+  }
+
+  private static io.github.intoto.dsse.models.Signature readSignature(JsonParser parser)
+      throws IOException {
+    io.github.intoto.dsse.models.Signature signature = new io.github.intoto.dsse.models.Signature();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("sig".equals(field) && value == JsonToken.VALUE_STRING) {
+        signature.setSig(parser.getText());
+      } else if ("keyid".equals(field) && value == JsonToken.VALUE_STRING) {
+        signature.setKeyId(parser.getText());
+      } else if ("inclusionProof".equals(field) && value == JsonToken.START_OBJECT) {
+        signature.setInclusionProof(readInclusionProof(parser));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return signature;
+  }
+
+  private static InclusionProof readInclusionProof(JsonParser parser) throws IOException {
+    InclusionProof proof = new InclusionProof();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("leafIndex".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+        proof.setLeafIndex(parser.getLongValue());
+      } else if ("treeSize".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+        proof.setTreeSize(parser.getLongValue());
+      } else if ("hashes".equals(field) && value == JsonToken.START_ARRAY) {
+        List<String> hashes = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.VALUE_STRING) {
+          hashes.add(parser.getText());
+        }
+        proof.setHashes(hashes);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return proof;
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+      throws JsonParseException {
+    if (actual != expected) {
+      throw new JsonParseException(parser, "expected " + expected + " but found " + actual);
+    }
+  }
+
+  /** Opens the JSON of an envelope. Each call must return a new stream over the same bytes. */
+  @FunctionalInterface
+  public interface Source {
+    InputStream open() throws IOException;
+  }
+
+  /** What the first pass learns about the envelope. */
+  private static final class Envelope {
+    private String payloadType = IntotoEnvelope.PAYLOAD_TYPE;
+    private long payloadLength = -1;
+    private final List<io.github.intoto.dsse.models.Signature> signatures = new ArrayList<>();
+  }
+
+  /** A signature being checked against one candidate key. */
+  private static final class Check {
+    private final TrustedKey key;
+    private final byte[] sig;
+    private final Signature engine;
+
+    /** Set when the engine failed while being fed, which makes the signature invalid. */
+    private boolean failed;
+
+    private Check(TrustedKey key, byte[] sig, Signature engine) {
+      this.key = key;
+      this.sig = sig;
+      this.engine = engine;
+    }
+
+    /** Returns a started check, or null if the key does not fit its algorithm. */
+    static Check start(TrustedKey key, byte[] sig) throws NoSuchAlgorithmException {
+      Signature engine;
+      try {
+        engine = key.engines().acquire();
+      } catch (InvalidKeyException e) {
+        return null;
+      }
+      return new Check(key, sig, engine);
+    }
+
+    void update(byte[] bytes, int offset, int length) {
+      if (!failed) {
+        try {
+          engine.update(bytes, offset, length);
+        } catch (SignatureException e) {
+          failed = true;
+        }
+      }
+    }
+
+    boolean verify() {
+      try {
+        if (failed) {
+          return false;
+        }
+        boolean valid = engine.verify(sig);
+        key.engines().release(engine);
+        return valid;
+      } catch (GeneralSecurityException e) {
+        // A malformed signature is simply not valid.
+        return false;
+      }
+    }
+  }
+
+  /** Feeds everything written to it to every check, and to the leaf digest if there is one. */
+  private static final class SignatureOutputStream extends OutputStream {
+    private final List<Check> checks;
+    private final MessageDigest leaf;
+
+    SignatureOutputStream(List<Check> checks, MessageDigest leaf) {
+      this.checks = checks;
+      this.leaf = leaf;
+    }
+
+    @Override
+    public void write(int b) {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      for (Check check : checks) {
+        check.update(bytes, offset, length);
+      }
+      if (leaf != null) {
+        leaf.update(bytes, offset, length);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package io.github.intoto.dsse.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Objects;
+
+/**
+ * A parsed public key held by a {@link Keyring}, together with the identifier DSSE signatures use
+ * to refer to it and the JCA signature algorithm used to verify them.
+ */
+public final class TrustedKey {
+
+  private final String keyId;
+
+  private final PublicKey publicKey;
+
+  private final String signatureAlgorithm;
+
+  private volatile byte[] fingerprint;
+
+  private volatile SignaturePool engines;
+
+  /**
+   * Creates a TrustedKey.
+   *
+   * @param keyId the keyid of the signatures made with this key.
+   * @param publicKey the public key.
+   * @param signatureAlgorithm the JCA name of the signature algorithm, e.g. SHA256withECDSA. Keys
+   *     used with RSASSA-PSS are verified with SHA-256, MGF1 with SHA-256 and a 32 byte salt.
+   */
+  public TrustedKey(String keyId, PublicKey publicKey, String signatureAlgorithm) {
+    this.keyId = Objects.requireNonNull(keyId, "keyId must not be null");
+    this.publicKey = Objects.requireNonNull(publicKey, "publicKey must not be null");
+    this.signatureAlgorithm =
+        Objects.requireNonNull(signatureAlgorithm, "signatureAlgorithm must not be null");
+  }
+
+  /**
+   * Creates a TrustedKey using the default signature algorithm for the key type: SHA256withECDSA
+   * for EC keys, Ed25519 for EdDSA keys, SHA256withRSA for RSA keys and RSASSA-PSS with SHA-256 for
+   * RSASSA-PSS keys.
+   *
+   * @param keyId the keyid of the signatures made with this key.
+   * @param publicKey the public key.
+   * @throws IllegalArgumentException thrown when there is no default algorithm for the key type.
+   */
+  public TrustedKey(String keyId, PublicKey publicKey) {
+    this(keyId, publicKey, defaultSignatureAlgorithm(publicKey));
+  }
+
+  public String getKeyId() {
+    return keyId;
+  }
+
+  public PublicKey getPublicKey() {
+    return publicKey;
+  }
+
+  public String getSignatureAlgorithm() {
+    return signatureAlgorithm;
+  }
+
+  /**
+   * Returns the SHA-256 digest of the signature algorithm and the encoded public key, which
+   * identifies the key independently of its keyid.
+   */
+  byte[] fingerprint() {
+    byte[] computed = fingerprint;
+    if (computed == null) {
+      MessageDigest digest = VerificationCache.sha256();
+      digest.update(signatureAlgorithm.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      byte[] encoded = publicKey.getEncoded();
+      if (encoded != null) {
+        digest.update(encoded);
+      }
+      computed = digest.digest();
+      fingerprint = computed;
+    }
+    return computed;
+  }
+
+  /**
+   * Returns the pool of engines initialized to verify signatures with this key, shared by every
+   * verifier of the keyring.
+   */
+  SignaturePool engines() {
+    SignaturePool pool = engines;
+    if (pool == null) {
+      synchronized (this) {
+        pool = engines;
+        if (pool == null) {
+          pool =
+              new SignaturePool(
+                  SignaturePool.defaultCapacity(),
+                  () -> {
+                    Signature signature = SignatureAlgorithms.newSignature(signatureAlgorithm);
+                    signature.initVerify(publicKey);
+                    return signature;
+                  });
+          engines = pool;
+        }
+      }
+    }
+    return pool;
+  }
+
+  static String defaultSignatureAlgorithm(PublicKey publicKey) {
+    switch (publicKey.getAlgorithm()) {
+      case "EC":
+      case "ECDSA":
+        return "SHA256withECDSA";
+      case "Ed25519":
+      case "EdDSA":
+        return "Ed25519";
+      case "RSA":
+        return "SHA256withRSA";
+      case "RSASSA-PSS":
+        return SignatureAlgorithms.RSA_PSS;
+      default:
+        throw new IllegalArgumentException(
+            "no default signature algorithm for " + publicKey.getAlgorithm() + " keys");
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TrustedKey that = (TrustedKey) o;
+    return keyId.equals(that.keyId)
+        && publicKey.equals(that.publicKey)
+        && signatureAlgorithm.equals(that.signatureAlgorithm);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(keyId, publicKey, signatureAlgorithm);
+  }
+}
@@ -0,0 +1,213 @@
+package io.github.intoto.dsse.helpers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of signature verification outcomes for an {@link IntotoEnvelopeVerifier}, so a signature
+ * that is checked again and again is only verified once.
+ *
+ * <p>Entries are keyed by the SHA-256 digest of the Pre-Authentication Encoding of the payload, the
+ * signature and the fingerprint of the key it was checked against, and record whether the signature
+ * was valid. The payload is hashed once per envelope; each key is then a hash of that digest, the
+ * signature and the key, which is much cheaper than an ECDSA or RSA verification.
+ *
+ * <p>Entries expire {@code expireAfterWrite} after they were added, and the least recently used
+ * entries are evicted beyond {@code maximumSize}. Every entry also remembers the {@link
+ * Keyring#getVersion() version} of the keyring it was computed with, and the whole cache is cleared
+ * as soon as a lookup sees a newer version, so adding or removing keys never serves a stale
+ * outcome. A cache must therefore only be used with a single keyring. The cache is thread-safe.
+ */
+public final class VerificationCache {
+
+  private final long maximumSize;
+
+  private final long expireAfterWriteNanos;
+
+  private final LongSupplier ticker;
+
+  /** Entries in access order, least recently used first. Guarded by itself. */
+  private final LinkedHashMap<ByteBuffer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Keyring version the entries were computed with. Guarded by entries. */
+  private long keyringVersion = -1;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private VerificationCache(Builder builder) {
+    this.maximumSize = builder.maximumSize;
+    this.expireAfterWriteNanos = builder.expireAfterWrite.toNanos();
+    this.ticker = builder.ticker;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** Removes every entry. The counters are kept. */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /** Returns the number of cached outcomes, including expired ones not yet removed. */
+  public long size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "VerificationCache{size=" + size() + ", hits=" + hits + ", misses=" + misses + "}";
+  }
+
+  /**
+   * Returns the cached outcome for a key, or null if there is none.
+   *
+   * @param key the key computed by {@link #key}.
+   * @param version the current version of the keyring.
+   */
+  Boolean get(ByteBuffer key, long version) {
+    synchronized (entries) {
+      invalidateIfStale(version);
+      Entry entry = entries.get(key);
+      if (entry != null && ticker.getAsLong() - entry.writtenAt < expireAfterWriteNanos) {
+        hits.incrementAndGet();
+        return entry.valid;
+      }
+      if (entry != null) {
+        entries.remove(key);
+      }
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Caches the outcome of a verification.
+   *
+   * @param key the key computed by {@link #key}.
+   * @param version the version of the keyring the outcome was computed with.
+   * @param valid whether the signature was valid.
+   */
+  void put(ByteBuffer key, long version, boolean valid) {
+    synchronized (entries) {
+      invalidateIfStale(version);
+      if (version != keyringVersion) {
+        // Computed with a keyring that has changed since; do not cache it.
+        return;
+      }
+      entries.put(key, new Entry(valid, ticker.getAsLong()));
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (entries.size() > maximumSize && eldest.hasNext()) {
+        eldest.next();
+        eldest.remove();
+      }
+    }
+  }
+
+  private void invalidateIfStale(long version) {
+    if (version > keyringVersion) {
+      entries.clear();
+      keyringVersion = version;
+    }
+  }
+
+  /** Returns the SHA-256 digest of the Pre-Authentication Encoding of a payload. */
+  static byte[] messageDigest(String payloadType, byte[] payload) {
+    return PreAuthenticationEncoding.digest(sha256(), payloadType, payload);
+  }
+
+  /**
+   * Computes the cache key of checking a signature with a key.
+   *
+   * @param messageDigest the digest returned by {@link #messageDigest} for the signed payload.
+   */
+  static ByteBuffer key(TrustedKey key, byte[] messageDigest, byte[] signature) {
+    MessageDigest digest = sha256();
+    digest.update(messageDigest);
+    // Lengths keep the boundaries between the fields unambiguous.
+    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, signature.length).array());
+    digest.update(signature);
+    digest.update(key.fingerprint());
+    digest.update(key.getKeyId().getBytes(StandardCharsets.UTF_8));
+    return ByteBuffer.wrap(digest.digest());
+  }
+
+  static MessageDigest sha256() {
+    try {
+      return CryptoProviders.newMessageDigest("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static final class Entry {
+    private final boolean valid;
+    private final long writtenAt;
+
+    Entry(boolean valid, long writtenAt) {
+      this.valid = valid;
+      this.writtenAt = writtenAt;
+    }
+  }
+
+  /** Builder for {@link VerificationCache}. */
+  public static final class Builder {
+
+    private long maximumSize = 100_000;
+
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    private LongSupplier ticker = System::nanoTime;
+
+    private Builder() {}
+
+    /** Sets the maximum number of cached outcomes. Defaults to 100,000. */
+    public Builder maximumSize(long maximumSize) {
+      if (maximumSize < 1) {
+        throw new IllegalArgumentException("maximumSize must be positive");
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /** Sets how long an outcome is cached after it was computed. Defaults to 10 minutes. */
+    public Builder expireAfterWrite(Duration expireAfterWrite) {
+      if (expireAfterWrite.isNegative() || expireAfterWrite.isZero()) {
+        throw new IllegalArgumentException("expireAfterWrite must be positive");
+      }
+      this.expireAfterWrite = expireAfterWrite;
+      return this;
+    }
+
+    /** Sets the source of time in nanoseconds, for tests. */
+    Builder ticker(LongSupplier ticker) {
+      this.ticker = ticker;
+      return this;
+    }
+
+    public VerificationCache build() {
+      return new VerificationCache(this);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package io.github.intoto.dsse.helpers;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of verifying the signatures of an {@link io.github.intoto.dsse.models.IntotoEnvelope}.
+ */
+public final class VerificationResult {
+
+  private final boolean verified;
+
+  private final int threshold;
+
+  private final List<String> verifiedKeyIds;
+
+  VerificationResult(int threshold, List<String> verifiedKeyIds) {
+    this.threshold = threshold;
+    this.verifiedKeyIds = Collections.unmodifiableList(verifiedKeyIds);
+    this.verified = verifiedKeyIds.size() >= threshold;
+  }
+
+  /** Returns true if the envelope carries enough valid signatures from trusted keys. */
+  public boolean isVerified() {
+    return verified;
+  }
+
+  /** Returns the number of distinct trusted keys whose signatures were required. */
+  public int getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Returns the keyids of the trusted keys whose signatures were found valid. When the verification
+   * stopped as soon as the threshold was met, these are the keys that satisfied it; signatures left
+   * unchecked are not included.
+   */
+  public List<String> getVerifiedKeyIds() {
+    return verifiedKeyIds;
+  }
+
+  @Override
+  public String toString() {
+    return "VerificationResult{verified="
+        + verified
+        + ", threshold="
+        + threshold
+        + ", verifiedKeyIds="
+        + verifiedKeyIds
+        + "}";
+  }
+}
@@ -0,0 +1,56 @@
+package io.github.intoto.dsse.models;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Interface for a DSSE Signer that does not block the calling thread, for instance one backed by a
+ * remote key management service. Implementations should complete the returned future from their own
+ * I/O callbacks rather than by parking a thread until the signature arrives.
+ */
+public interface AsyncSigner {
+
+  /**
+   * Signs the payload asynchronously.
+   *
+   * @param payload the message that you want to sign.
+   * @return a future completed with the signature, or completed exceptionally with one of the
+   *     exceptions declared by {@link Signer#sign(byte[])}.
+   */
+  CompletableFuture<byte[]> signAsync(byte[] payload);
+
+  /** Returns the ID of this key, or null if not supported. */
+  String getKeyId();
+
+  /**
+   * Adapts a blocking {@link Signer} by running it on the given executor.
+   *
+   * @param signer the Signer to adapt.
+   * @param executor the executor that runs the blocking sign calls.
+   */
+  static AsyncSigner fromSigner(Signer signer, Executor executor) {
+    Objects.requireNonNull(signer, "signer must not be null");
+    Objects.requireNonNull(executor, "executor must not be null");
+    return new AsyncSigner() {
+      @Override
+      public CompletableFuture<byte[]> signAsync(byte[] payload) {
+        return CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return signer.sign(payload);
+              } catch (Exception e) {
+                throw new CompletionException(e);
+              }
+            },
+            executor);
+      }
+
+      @Override
+      public String getKeyId() {
+        return signer.getKeyId();
+      }
+    };
+  }
+}
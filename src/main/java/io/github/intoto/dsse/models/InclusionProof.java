@@ -0,0 +1,65 @@
+package io.github.intoto.dsse.models;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Proof that a payload belongs to a batch of payloads signed together, as produced by {@link
+ * io.github.intoto.helpers.IntotoHelper#produceIntotoEnvelopeBatch}. The {@link Signature} that
+ * carries it signs the root of an RFC 6962 Merkle tree over the Pre-Authentication Encoding digests
+ * of the batch, not the payload itself.
+ */
+public class InclusionProof {
+
+  /** Position of the payload in the batch. */
+  private long leafIndex;
+
+  /** Number of payloads in the batch. */
+  private long treeSize;
+
+  /** Base64 encoded sibling hashes, from the leaf up to the root. */
+  private List<String> hashes;
+
+  public long getLeafIndex() {
+    return leafIndex;
+  }
+
+  public void setLeafIndex(long leafIndex) {
+    this.leafIndex = leafIndex;
+  }
+
+  public long getTreeSize() {
+    return treeSize;
+  }
+
+  public void setTreeSize(long treeSize) {
+    this.treeSize = treeSize;
+  }
+
+  public List<String> getHashes() {
+    return hashes;
+  }
+
+  public void setHashes(List<String> hashes) {
+    this.hashes = hashes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    InclusionProof that = (InclusionProof) o;
+    return leafIndex == that.leafIndex
+        && treeSize == that.treeSize
+        && Objects.equals(hashes, that.hashes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(leafIndex, treeSize, hashes);
+  }
+}
@@ -15,11 +15,14 @@ import jakarta.validation.constraints.NotEmpty;
  */
 public class IntotoEnvelope {
 
+  /** The payloadType of every in-toto Envelope. */
+  public static final String PAYLOAD_TYPE = "application/vnd.in-toto+json";
+
   /**
    * Identifier for the encoding of the payload. Always application/vnd.in-toto+json, which
    * indicates that it is a JSON object with a _type field indicating its schema.
    */
-  private final String payloadType = "application/vnd.in-toto+json";
+  private final String payloadType = PAYLOAD_TYPE;
 
   /** Base64-encoded JSON {@link io.github.intoto.models.Statement} */
   @NotBlank(message = "payload cannot be null or empty")
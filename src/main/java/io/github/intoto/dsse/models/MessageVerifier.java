@@ -0,0 +1,104 @@
+package io.github.intoto.dsse.models;
+
+import io.github.intoto.dsse.helpers.PreAuthenticationEncoding;
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.SignatureException;
+
+/**
+ * Byte-oriented DSSE verifier working on already resolved public keys.
+ *
+ * <p>Unlike {@link Verifier}, messages are never turned into Strings: they are passed as byte
+ * arrays, {@link ByteBuffer} slices (for example of a memory-mapped bundle) or fed incrementally
+ * through a {@link Session}. Implementations only need to provide {@link #begin(PublicKey)}.
+ */
+public interface MessageVerifier {
+
+  /**
+   * Starts the verification of a message signed with the given key.
+   *
+   * @param publicKey the public key the message should have been signed with.
+   * @return a session the message is fed to.
+   * @throws NoSuchAlgorithmException thrown when the signature algorithm is not available in the
+   *     environment.
+   * @throws InvalidKeyException thrown when the key does not match the signature algorithm.
+   */
+  Session begin(PublicKey publicKey) throws NoSuchAlgorithmException, InvalidKeyException;
+
+  /**
+   * Verifies the signature of a message.
+   *
+   * @param publicKey the public key the message should have been signed with.
+   * @param message the message.
+   * @param signature the signature.
+   * @return true if the signature is valid.
+   * @throws NoSuchAlgorithmException thrown when the signature algorithm is not available in the
+   *     environment.
+   * @throws InvalidKeyException thrown when the key does not match the signature algorithm.
+   * @throws SignatureException thrown when the signature cannot be processed.
+   */
+  default boolean verify(PublicKey publicKey, byte[] message, byte[] signature)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    Session session = begin(publicKey);
+    session.update(message, 0, message.length);
+    return session.verify(signature);
+  }
+
+  /**
+   * Verifies the signature of the remaining bytes of a buffer. The position of the buffer is
+   * advanced to its limit.
+   *
+   * @see #verify(PublicKey, byte[], byte[])
+   */
+  default boolean verify(PublicKey publicKey, ByteBuffer message, byte[] signature)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    Session session = begin(publicKey);
+    session.update(message);
+    return session.verify(signature);
+  }
+
+  /**
+   * Verifies the signature of the Pre-Authentication Encoding of a payload, without building the
+   * encoding in memory.
+   *
+   * @see #verify(PublicKey, byte[], byte[])
+   */
+  default boolean verifyPayload(
+      PublicKey publicKey, String payloadType, byte[] payload, byte[] signature)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    Session session = begin(publicKey);
+    byte[] header = PreAuthenticationEncoding.header(payloadType, payload.length);
+    session.update(header, 0, header.length);
+    session.update(payload, 0, payload.length);
+    return session.verify(signature);
+  }
+
+  /** An ongoing verification, fed with the message in any number of parts. */
+  interface Session {
+
+    /**
+     * Feeds a part of the message.
+     *
+     * @throws SignatureException thrown when the underlying engine fails.
+     */
+    void update(byte[] message, int offset, int length) throws SignatureException;
+
+    /**
+     * Feeds the remaining bytes of a buffer, advancing its position to its limit.
+     *
+     * @throws SignatureException thrown when the underlying engine fails.
+     */
+    void update(ByteBuffer message) throws SignatureException;
+
+    /**
+     * Verifies the signature of everything fed so far. The session cannot be used afterwards.
+     *
+     * @param signature the signature.
+     * @return true if the signature is valid.
+     * @throws SignatureException thrown when the signature cannot be processed.
+     */
+    boolean verify(byte[] signature) throws SignatureException;
+  }
+}
@@ -0,0 +1,57 @@
+package io.github.intoto.dsse.models;
+
+import io.github.intoto.dsse.helpers.CryptoProviders;
+import io.github.intoto.dsse.helpers.PreAuthenticationEncoding;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SignatureException;
+
+/**
+ * A DSSE {@link Signer} that signs a digest of the message instead of the message itself, for
+ * instance a remote key management service or a hardware module that only receives the digest.
+ *
+ * <p>The library computes the digest of the Pre-Authentication Encoding by feeding the header and
+ * the payload to a {@link java.security.MessageDigest} one after the other, so the encoding is
+ * never built and only the digest is handed to {@link #signDigest(byte[], String)}, whatever the
+ * size of the Statement. Implementations only provide {@link #getDigestAlgorithm()}, {@link
+ * #signDigest(byte[], String)} and {@link #getKeyId()}.
+ *
+ * <p>The signature must be the one a verifier computing the digest itself would accept, e.g. an
+ * ECDSA signature of a SHA-256 digest verifies as SHA256withECDSA.
+ */
+public interface PrehashedSigner extends Signer {
+
+  /** Returns the JCA name of the digest algorithm the signer expects, e.g. SHA-256. */
+  String getDigestAlgorithm();
+
+  /**
+   * Returns the signature of a message given its digest.
+   *
+   * @param digest the digest of the message.
+   * @param digestAlgorithm the JCA name of the algorithm of the digest, as returned by {@link
+   *     #getDigestAlgorithm()}.
+   * @throws NoSuchAlgorithmException thrown when the signer does not support the digest algorithm.
+   */
+  byte[] signDigest(byte[] digest, String digestAlgorithm)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException;
+
+  /** Hashes the payload and signs the digest. */
+  @Override
+  default byte[] sign(byte[] payload)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    String digestAlgorithm = getDigestAlgorithm();
+    return signDigest(
+        CryptoProviders.newMessageDigest(digestAlgorithm).digest(payload), digestAlgorithm);
+  }
+
+  /** Hashes the Pre-Authentication Encoding of the payload without building it, and signs it. */
+  @Override
+  default byte[] sign(String payloadType, byte[] payload)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    String digestAlgorithm = getDigestAlgorithm();
+    return signDigest(
+        PreAuthenticationEncoding.digest(
+            CryptoProviders.newMessageDigest(digestAlgorithm), payloadType, payload),
+        digestAlgorithm);
+  }
+}
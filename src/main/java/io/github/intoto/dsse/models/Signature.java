@@ -1,5 +1,6 @@
 package io.github.intoto.dsse.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Objects;
 import jakarta.validation.constraints.NotBlank;
@@ -21,6 +22,13 @@ public class Signature {
   @JsonProperty("keyid")
   private String keyId;
 
+  /**
+   * Set when the signature covers a batch of envelopes rather than this one alone. Not part of
+   * DSSE; verifiers that do not know it reject the signature.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private InclusionProof inclusionProof;
+
   public String getSig() {
     return sig;
   }
@@ -37,6 +45,14 @@ public class Signature {
     this.keyId = keyId;
   }
 
+  public InclusionProof getInclusionProof() {
+    return inclusionProof;
+  }
+
+  public void setInclusionProof(InclusionProof inclusionProof) {
+    this.inclusionProof = inclusionProof;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -46,11 +62,13 @@ public class Signature {
       return false;
     }
     Signature signature = (Signature) o;
-    return sig.equals(signature.sig) && Objects.equals(keyId, signature.keyId);
+    return sig.equals(signature.sig)
+        && Objects.equals(keyId, signature.keyId)
+        && Objects.equals(inclusionProof, signature.inclusionProof);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(sig, keyId);
+    return Objects.hash(sig, keyId, inclusionProof);
   }
 }
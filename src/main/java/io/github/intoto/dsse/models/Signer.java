@@ -1,5 +1,6 @@
 package io.github.intoto.dsse.models;
 
+import io.github.intoto.dsse.helpers.PreAuthenticationEncoding;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
@@ -15,6 +16,19 @@ public interface Signer {
   byte[] sign(byte[] payload)
       throws NoSuchAlgorithmException, InvalidKeyException, SignatureException;
 
+  /**
+   * Returns the signature of the Pre-Authentication Encoding of the given payload. The default
+   * implementation builds the encoding and calls {@link #sign(byte[])}; implementations backed by a
+   * streaming signature engine should override it to feed the header and the payload directly.
+   *
+   * @param payloadType the type of payload.
+   * @param payload the raw payload that you want to sign.
+   */
+  default byte[] sign(String payloadType, byte[] payload)
+      throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+    return sign(PreAuthenticationEncoding.encode(payloadType, payload));
+  }
+
   /** Returns the ID of this key, or null if not supported. */
   String getKeyId();
 }
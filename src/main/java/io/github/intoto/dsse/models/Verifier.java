@@ -1,5 +1,10 @@
 package io.github.intoto.dsse.models;
 
+import io.github.intoto.dsse.helpers.PreAuthenticationEncoding;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
@@ -26,6 +31,47 @@ public interface Verifier {
       throws NoSuchAlgorithmException, SignatureException, InvalidKeySpecException,
           InvalidKeyException;
 
+  /**
+   * Validates the signature of the Pre-Authentication Encoding of the given payload. The default
+   * implementation builds the encoding and calls {@link #verify(byte[], byte[], String)};
+   * implementations backed by a streaming signature engine should override it to feed the header
+   * and the payload directly.
+   *
+   * <p>Since the String overload can only carry text, the default implementation rejects a payload
+   * that is not valid UTF-8 rather than verify a message that differs from the signed bytes.
+   *
+   * @param publicKey the public key that should be used to verify the message
+   * @param encryptedMessage the encrypted message
+   * @param payloadType the type of payload.
+   * @param payload the raw payload we are validating against.
+   * @return true if the Pre-Authentication Encoding of the payload matches the encryptedMessage
+   * @throws NoSuchAlgorithmException thrown when a particular cryptographic algorithm is requested
+   *     but is not available in the environment.
+   * @throws SignatureException This is the generic Signature exception, also thrown by the default
+   *     implementation when the payload is not valid UTF-8.
+   * @throws InvalidKeySpecException This is the exception for invalid key specifications.
+   * @throws InvalidKeyException This is the exception for invalid Keys (invalid encoding, wrong
+   *     length, uninitialized, etc).
+   */
+  default boolean verify(
+      byte[] publicKey, byte[] encryptedMessage, String payloadType, byte[] payload)
+      throws NoSuchAlgorithmException, SignatureException, InvalidKeySpecException,
+          InvalidKeyException {
+    String message;
+    try {
+      message =
+          StandardCharsets.UTF_8
+              .newDecoder()
+              .onMalformedInput(CodingErrorAction.REPORT)
+              .onUnmappableCharacter(CodingErrorAction.REPORT)
+              .decode(ByteBuffer.wrap(PreAuthenticationEncoding.encode(payloadType, payload)))
+              .toString();
+    } catch (CharacterCodingException e) {
+      throw new SignatureException("payload is not valid UTF-8", e);
+    }
+    return verify(publicKey, encryptedMessage, message);
+  }
+
   /** Returns the ID of this key, or null if not supported. */
   String getKeyId();
 }
@@ -0,0 +1,59 @@
+package io.github.intoto.helpers;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the default executor of the asynchronous {@link IntotoHelper} methods. On JDK 21 and newer
+ * every task runs on its own virtual thread, so tasks that block on a Signer do not tie up platform
+ * threads. Older JDKs fall back to a bounded pool of daemon threads.
+ */
+final class AsyncExecutors {
+
+  /** Upper bound of platform threads used when virtual threads are not available. */
+  static final int FALLBACK_POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+  private static final ExecutorService DEFAULT = createDefaultExecutor();
+
+  private AsyncExecutors() {}
+
+  static ExecutorService defaultExecutor() {
+    return DEFAULT;
+  }
+
+  private static ExecutorService createDefaultExecutor() {
+    try {
+      // Looked up reflectively so the library still compiles and runs on JDK 11.
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              FALLBACK_POOL_SIZE,
+              FALLBACK_POOL_SIZE,
+              60,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              new DaemonThreadFactory());
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
+  private static final class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "intoto-async-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
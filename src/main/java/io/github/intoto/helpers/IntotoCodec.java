@@ -0,0 +1,430 @@
+package io.github.intoto.helpers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.exceptions.InvalidModelException;
+import io.github.intoto.models.Predicate;
+import io.github.intoto.models.Statement;
+import io.github.intoto.models.Subject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.validator.HibernateValidator;
+
+/**
+ * Immutable codec that validates {@link Statement}s and converts Statements and {@link
+ * IntotoEnvelope}s to and from JSON.
+ *
+ * <p>Statements are validated according to the codec's {@link ValidationMode}. Statements with a
+ * large number of subjects can optionally have their subjects validated in parallel, see {@link
+ * Builder#parallelValidationThreshold(int)}.
+ *
+ * <p>All Jackson configuration happens when the codec is built: the compact and pretty {@link
+ * ObjectWriter}s and the envelope {@link ObjectReader} are created once, and the serializers of the
+ * registered predicate types are resolved up front. After that nothing is mutated, so a single
+ * instance can be shared by any number of threads.
+ *
+ * <pre>
+ * IntotoCodec codec =
+ *     IntotoCodec.builder()
+ *         .predicateType(MyPredicate.class)
+ *         .validationMode(ValidationMode.FAIL_FAST)
+ *         .build();
+ * byte[] json = codec.validateAndTransformToJsonBytes(statement);
+ * </pre>
+ */
+public final class IntotoCodec {
+
+  private static final IntotoCodec DEFAULT = builder().build();
+
+  private final ObjectMapper objectMapper;
+
+  private final Validator validator;
+
+  private final ValidationMode validationMode;
+
+  private final int parallelValidationThreshold;
+
+  private final List<Class<? extends Predicate>> predicateTypes;
+
+  private final ObjectWriter statementWriter;
+
+  private final ObjectWriter prettyStatementWriter;
+
+  private final ObjectWriter envelopeWriter;
+
+  private final ObjectWriter prettyEnvelopeWriter;
+
+  private final ObjectReader envelopeReader;
+
+  private final ObjectReader subjectsReader;
+
+  /** Readers of the registered predicate types, by the URI of the type. */
+  private final Map<String, ObjectReader> predicateReaders;
+
+  private IntotoCodec(Builder builder) {
+    this.objectMapper =
+        JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            // Keep the offsets of timestamps, so bound Statements serialize back unchanged.
+            .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
+            .build();
+    this.validationMode = builder.validationMode;
+    this.parallelValidationThreshold = builder.parallelValidationThreshold;
+    this.validator =
+        Validation.byProvider(HibernateValidator.class)
+            .configure()
+            .failFast(validationMode == ValidationMode.FAIL_FAST)
+            .buildValidatorFactory()
+            .getValidator();
+    this.predicateTypes = Collections.unmodifiableList(new ArrayList<>(builder.predicateTypes));
+    this.statementWriter = objectMapper.writerFor(Statement.class);
+    this.prettyStatementWriter = statementWriter.withDefaultPrettyPrinter();
+    this.envelopeWriter = objectMapper.writerFor(IntotoEnvelope.class);
+    this.prettyEnvelopeWriter = envelopeWriter.withDefaultPrettyPrinter();
+    this.envelopeReader = objectMapper.readerFor(IntotoEnvelope.class);
+    this.subjectsReader = objectMapper.readerFor(new TypeReference<List<Subject>>() {});
+    Map<String, ObjectReader> readers = new HashMap<>();
+    for (Class<? extends Predicate> predicateType : predicateTypes) {
+      String uri = predicateTypeUri(predicateType);
+      if (uri != null) {
+        readers.putIfAbsent(uri, objectMapper.readerFor(predicateType));
+      }
+    }
+    this.predicateReaders = Collections.unmodifiableMap(readers);
+    // Statement.predicate is declared as the abstract Predicate, so the concrete serializers are
+    // only looked up at runtime. Resolve them now so no request pays for the introspection.
+    for (Class<? extends Predicate> predicateType : predicateTypes) {
+      objectMapper.canSerialize(predicateType);
+    }
+  }
+
+  /** Returns the codec used by the static methods of {@link IntotoHelper}. */
+  public static IntotoCodec defaultCodec() {
+    return DEFAULT;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public ValidationMode getValidationMode() {
+    return validationMode;
+  }
+
+  /** Returns the predicate types whose serializers are resolved when the codec is built. */
+  public List<Class<? extends Predicate>> getPredicateTypes() {
+    return predicateTypes;
+  }
+
+  /**
+   * Validates a {@link Statement}.
+   *
+   * @param statement the statement that needs to be validated.
+   * @throws InvalidModelException thrown when there are problems with the statement.
+   */
+  public void validate(Statement statement) throws InvalidModelException {
+    if (validationMode == ValidationMode.TRUSTED) {
+      return;
+    }
+    Set<? extends ConstraintViolation<?>> results;
+    List<Subject> subjects = statement.getSubject();
+    if (subjects != null && subjects.size() >= parallelValidationThreshold) {
+      results = validateInParallel(statement, subjects);
+    } else {
+      results = validator.validate(statement);
+    }
+    if (!results.isEmpty()) {
+      String errorMessage =
+          results.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(",/n"));
+      throw new InvalidModelException(errorMessage);
+    }
+  }
+
+  /**
+   * Validates the Statement's own constraints and its predicate on the calling thread, and each
+   * subject as an independent task on the common ForkJoinPool. In fail-fast mode the first
+   * violation found by any task ends the validation.
+   */
+  private Set<ConstraintViolation<?>> validateInParallel(
+      Statement statement, List<Subject> subjects) {
+    boolean failFast = validationMode == ValidationMode.FAIL_FAST;
+    Set<ConstraintViolation<?>> results = new LinkedHashSet<>();
+    // validateProperty does not cascade, so this checks the subject list itself (not empty,
+    // unique names) without walking every subject.
+    results.addAll(validator.validateProperty(statement, "subject"));
+    results.addAll(validator.validateProperty(statement, "predicateType"));
+    if (failFast && !results.isEmpty()) {
+      return results;
+    }
+    if (statement.getPredicate() != null) {
+      results.addAll(validator.validate(statement.getPredicate()));
+      if (failFast && !results.isEmpty()) {
+        return results;
+      }
+    }
+    Stream<Set<ConstraintViolation<Subject>>> subjectResults =
+        subjects.parallelStream()
+            .filter(Objects::nonNull)
+            .map(subject -> validator.validate(subject))
+            .filter(violations -> !violations.isEmpty());
+    if (failFast) {
+      subjectResults.findAny().ifPresent(results::addAll);
+    } else {
+      subjectResults.collect(Collectors.toList()).forEach(results::addAll);
+    }
+    return results;
+  }
+
+  /**
+   * Validates a {@link Statement} and transforms it to its JSON representation.
+   *
+   * @param statement the statement that needs to be validated and transformed.
+   * @param prettyPrint indicates if you want the output result to be formatted for human reading.
+   * @return the String with the JSON representation of the Statement.
+   * @throws JsonProcessingException thrown when there is a problem serializing the Statement into
+   *     JSON
+   * @throws InvalidModelException thrown when there are problems with the statement.
+   */
+  public String validateAndTransformToJson(Statement statement, boolean prettyPrint)
+      throws JsonProcessingException, InvalidModelException {
+    validate(statement);
+    return statementWriter(prettyPrint).writeValueAsString(statement);
+  }
+
+  /**
+   * Validates a {@link Statement} and transforms it to its compact JSON representation encoded as
+   * UTF-8, without going through an intermediate String.
+   *
+   * @param statement the statement that needs to be validated and transformed.
+   * @return the UTF-8 bytes of the JSON representation of the Statement.
+   * @throws JsonProcessingException thrown when there is a problem serializing the Statement into
+   *     JSON
+   * @throws InvalidModelException thrown when there are problems with the statement.
+   */
+  public byte[] validateAndTransformToJsonBytes(Statement statement)
+      throws JsonProcessingException, InvalidModelException {
+    validate(statement);
+    return statementWriter.writeValueAsBytes(statement);
+  }
+
+  /**
+   * Transforms an {@link IntotoEnvelope} to its JSON representation.
+   *
+   * @param envelope the envelope to transform.
+   * @param prettyPrint indicates if you want the output result to be formatted for human reading.
+   * @return the String with the JSON representation of the envelope.
+   * @throws JsonProcessingException thrown when there is a problem serializing the envelope.
+   */
+  public String toJson(IntotoEnvelope envelope, boolean prettyPrint)
+      throws JsonProcessingException {
+    return envelopeWriter(prettyPrint).writeValueAsString(envelope);
+  }
+
+  /**
+   * Transforms an {@link IntotoEnvelope} to its compact JSON representation encoded as UTF-8.
+   *
+   * @param envelope the envelope to transform.
+   * @return the UTF-8 bytes of the JSON representation of the envelope.
+   * @throws JsonProcessingException thrown when there is a problem serializing the envelope.
+   */
+  public byte[] toJsonBytes(IntotoEnvelope envelope) throws JsonProcessingException {
+    return envelopeWriter.writeValueAsBytes(envelope);
+  }
+
+  /**
+   * Parses the JSON representation of an {@link IntotoEnvelope}.
+   *
+   * @param json the UTF-8 encoded JSON.
+   * @return the parsed envelope.
+   * @throws IOException thrown when the JSON is malformed or does not describe an envelope.
+   */
+  public IntotoEnvelope readEnvelope(byte[] json) throws IOException {
+    return envelopeReader.readValue(json);
+  }
+
+  /**
+   * Parses the JSON representation of an {@link IntotoEnvelope}.
+   *
+   * @param json the JSON String.
+   * @return the parsed envelope.
+   * @throws IOException thrown when the JSON is malformed or does not describe an envelope.
+   */
+  public IntotoEnvelope readEnvelope(String json) throws IOException {
+    return envelopeReader.readValue(json);
+  }
+
+  /**
+   * Parses the JSON representation of an {@link IntotoEnvelope}. The stream is not closed.
+   *
+   * @param json the stream of UTF-8 encoded JSON.
+   * @return the parsed envelope.
+   * @throws IOException thrown when the JSON is malformed or does not describe an envelope.
+   */
+  public IntotoEnvelope readEnvelope(InputStream json) throws IOException {
+    try (JsonParser parser = objectMapper.createParser(json)) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      return envelopeReader.readValue(parser);
+    }
+  }
+
+  /**
+   * Parses the JSON representation of a {@link Statement}. The predicate is bound to the registered
+   * predicate type whose {@link Predicate#getPredicateType()} matches the Statement's
+   * predicateType; a Statement without a predicate keeps its predicateType and is returned without
+   * a predicate.
+   *
+   * @param json the UTF-8 encoded JSON.
+   * @param offset the offset of the JSON in the array.
+   * @param length the length of the JSON.
+   * @return the parsed Statement. It is not validated.
+   * @throws IOException thrown when the JSON is malformed, does not describe a Statement, has a
+   *     different {@code _type} than {@link Statement#get_type()}, or its predicateType is not
+   *     registered with this codec.
+   */
+  public Statement readStatement(byte[] json, int offset, int length) throws IOException {
+    JsonNode tree;
+    try (JsonParser parser = objectMapper.createParser(json, offset, length)) {
+      tree = objectMapper.readTree(parser);
+    }
+    if (tree == null || !tree.isObject()) {
+      throw new JsonMappingException(null, "Statement must be a JSON object");
+    }
+    Statement statement = new Statement();
+    JsonNode type = tree.get("_type");
+    if (type == null || !statement.get_type().equals(type.asText())) {
+      throw new JsonMappingException(
+          null, "Unsupported Statement _type: " + (type == null ? null : type.asText()));
+    }
+    JsonNode predicateType = tree.get("predicateType");
+    if (predicateType != null && !predicateType.isNull()) {
+      statement.setPredicateType(predicateType.asText());
+    }
+    JsonNode subject = tree.get("subject");
+    if (subject != null && !subject.isNull()) {
+      statement.setSubject(subjectsReader.readValue(subject));
+    }
+    JsonNode predicate = tree.get("predicate");
+    if (predicate != null && !predicate.isNull()) {
+      ObjectReader predicateReader = predicateReaders.get(statement.getPredicateType());
+      if (predicateReader == null) {
+        throw new JsonMappingException(
+            null, "Unknown predicateType: " + statement.getPredicateType());
+      }
+      statement.setPredicate(predicateReader.readValue(predicate));
+    }
+    return statement;
+  }
+
+  /**
+   * Creates a JSON generator writing to the given stream, configured like this codec's writers.
+   * Closing the generator closes the stream unless {@link JsonGenerator.Feature#AUTO_CLOSE_TARGET}
+   * is disabled on it.
+   */
+  public JsonGenerator createGenerator(OutputStream out) throws IOException {
+    return objectMapper.createGenerator(out);
+  }
+
+  /** Creates a streaming JSON parser reading from the given stream. */
+  public JsonParser createParser(InputStream in) throws IOException {
+    return objectMapper.createParser(in);
+  }
+
+  /** Creates a streaming JSON parser reading from a region of a byte array. */
+  public JsonParser createParser(byte[] json, int offset, int length) throws IOException {
+    return objectMapper.createParser(json, offset, length);
+  }
+
+  /**
+   * Returns the URI of a predicate type, read from a fresh instance, or null if the type cannot be
+   * instantiated with a no-argument constructor.
+   */
+  private static String predicateTypeUri(Class<? extends Predicate> predicateType) {
+    try {
+      return predicateType.getDeclaredConstructor().newInstance().getPredicateType();
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private ObjectWriter statementWriter(boolean prettyPrint) {
+    return prettyPrint ? prettyStatementWriter : statementWriter;
+  }
+
+  private ObjectWriter envelopeWriter(boolean prettyPrint) {
+    return prettyPrint ? prettyEnvelopeWriter : envelopeWriter;
+  }
+
+  /** Builder for {@link IntotoCodec}. */
+  public static final class Builder {
+
+    private final Set<Class<? extends Predicate>> predicateTypes = new LinkedHashSet<>();
+
+    private ValidationMode validationMode = ValidationMode.FULL;
+
+    private int parallelValidationThreshold = Integer.MAX_VALUE;
+
+    private Builder() {
+      predicateTypes.add(io.github.intoto.slsa.models.v01.Provenance.class);
+      predicateTypes.add(io.github.intoto.slsa.models.v02.Provenance.class);
+      predicateTypes.add(io.github.intoto.slsa.models.v1.Provenance.class);
+    }
+
+    /**
+     * Registers a predicate type so its serializer is resolved when the codec is built, and so
+     * {@link IntotoCodec#readStatement} can bind predicates of that type if it has a no-argument
+     * constructor. The SLSA Provenance predicates shipped with this library are always registered.
+     */
+    public Builder predicateType(Class<? extends Predicate> predicateType) {
+      predicateTypes.add(Objects.requireNonNull(predicateType));
+      return this;
+    }
+
+    /** Sets how Statements are validated. Defaults to {@link ValidationMode#FULL}. */
+    public Builder validationMode(ValidationMode validationMode) {
+      this.validationMode = Objects.requireNonNull(validationMode);
+      return this;
+    }
+
+    /**
+     * Validates the subjects of Statements that have at least the given number of subjects in
+     * parallel on the common ForkJoinPool. Disabled by default.
+     */
+    public Builder parallelValidationThreshold(int subjects) {
+      if (subjects < 1) {
+        throw new IllegalArgumentException("parallelValidationThreshold must be positive");
+      }
+      this.parallelValidationThreshold = subjects;
+      return this;
+    }
+
+    public IntotoCodec build() {
+      return new IntotoCodec(this);
+    }
+  }
+}
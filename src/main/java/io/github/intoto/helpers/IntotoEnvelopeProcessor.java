@@ -0,0 +1,429 @@
+package io.github.intoto.helpers;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.dsse.models.Signer;
+import io.github.intoto.models.Statement;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Processor} that turns a stream of {@link Statement}s into signed {@link
+ * IntotoEnvelope}s, using the same validate, serialize, Pre-Authentication Encoding and sign steps
+ * as {@link IntotoHelper#produceIntotoEnvelope(Statement, Signer)}.
+ *
+ * <p>The work runs in two stages, each with its own executor and parallelism: validation and
+ * serialization of the Statement, then signing. Envelopes are emitted in the order the Statements
+ * were received.
+ *
+ * <p>At most {@code maxInFlight} Statements are requested from upstream and not yet delivered
+ * downstream at any time. New Statements are only requested as envelopes are delivered, so a slow
+ * subscriber throttles the publisher instead of letting work pile up in memory.
+ *
+ * <p>The first Statement that cannot be turned into an envelope cancels the upstream subscription
+ * and is signaled to the subscriber through {@code onError}, with one of the exceptions declared by
+ * {@link IntotoHelper#produceIntotoEnvelope(Statement, Signer)}. Only one subscriber is supported.
+ */
+public final class IntotoEnvelopeProcessor implements Flow.Processor<Statement, IntotoEnvelope> {
+
+  private final Signer signer;
+
+  private final IntotoCodec codec;
+
+  private final int maxInFlight;
+
+  private final BoundedExecutor serializationStage;
+
+  private final BoundedExecutor signingStage;
+
+  /** Statements in arrival order; only the head is ever removed. Guarded by itself. */
+  private final Queue<Item> pending = new ArrayDeque<>();
+
+  private final AtomicLong requested = new AtomicLong();
+
+  private final AtomicInteger wip = new AtomicInteger();
+
+  private final AtomicBoolean started = new AtomicBoolean();
+
+  private volatile Flow.Subscription upstream;
+
+  private volatile Flow.Subscriber<? super IntotoEnvelope> downstream;
+
+  private volatile boolean upstreamDone;
+
+  private volatile Throwable error;
+
+  private volatile boolean cancelled;
+
+  /** Set once onComplete or onError was sent downstream. Only accessed inside drain. */
+  private boolean terminated;
+
+  private IntotoEnvelopeProcessor(Builder builder) {
+    this.signer = builder.signer;
+    this.codec = builder.codec;
+    this.maxInFlight = builder.maxInFlight;
+    this.serializationStage =
+        new BoundedExecutor(builder.serializationExecutor, builder.serializationParallelism);
+    this.signingStage = new BoundedExecutor(builder.signingExecutor, builder.signingParallelism);
+  }
+
+  /**
+   * Returns a builder for a processor that signs with the given Signer. The Signer is called from
+   * several threads at once, so it must be thread-safe.
+   */
+  public static Builder builder(Signer signer) {
+    return new Builder(signer);
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super IntotoEnvelope> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber must not be null");
+    synchronized (this) {
+      if (downstream != null) {
+        subscriber.onSubscribe(new NoOpSubscription());
+        subscriber.onError(
+            new IllegalStateException("IntotoEnvelopeProcessor supports a single subscriber"));
+        return;
+      }
+      downstream = subscriber;
+    }
+    subscriber.onSubscribe(new DownstreamSubscription());
+    start();
+    // The publisher may already have completed or failed.
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    Objects.requireNonNull(subscription, "subscription must not be null");
+    if (upstream != null) {
+      subscription.cancel();
+      return;
+    }
+    upstream = subscription;
+    start();
+  }
+
+  @Override
+  public void onNext(Statement statement) {
+    Item item = new Item();
+    synchronized (pending) {
+      pending.add(item);
+    }
+    try {
+      serializationStage.execute(() -> serialize(item, statement));
+    } catch (RejectedExecutionException e) {
+      item.fail(e);
+      drain();
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    error = throwable;
+    upstreamDone = true;
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    upstreamDone = true;
+    drain();
+  }
+
+  /** Starts requesting Statements once both the publisher and the subscriber are connected. */
+  private void start() {
+    if (upstream != null && downstream != null && started.compareAndSet(false, true)) {
+      upstream.request(maxInFlight);
+    }
+  }
+
+  private void serialize(Item item, Statement statement) {
+    if (cancelled) {
+      return;
+    }
+    try {
+      byte[] jsonStatement = codec.validateAndTransformToJsonBytes(statement);
+      signingStage.execute(() -> sign(item, jsonStatement));
+    } catch (Exception e) {
+      item.fail(e);
+      drain();
+    }
+  }
+
+  private void sign(Item item, byte[] jsonStatement) {
+    if (cancelled) {
+      return;
+    }
+    try {
+      byte[] signedDsseV1Payload = signer.sign(IntotoEnvelope.PAYLOAD_TYPE, jsonStatement);
+      item.complete(
+          IntotoHelper.createEnvelope(
+              jsonStatement,
+              List.of(IntotoHelper.createSignature(signer.getKeyId(), signedDsseV1Payload))));
+    } catch (Exception e) {
+      item.fail(e);
+    }
+    drain();
+  }
+
+  /**
+   * Delivers finished envelopes downstream in arrival order while there is demand. Only one thread
+   * runs the loop at a time; calls made while it runs make it loop again.
+   */
+  private void drain() {
+    if (wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      Flow.Subscriber<? super IntotoEnvelope> subscriber = downstream;
+      if (!terminated && subscriber != null) {
+        long emitted = 0;
+        while (!cancelled && error == null && requested.get() > 0) {
+          Item head;
+          synchronized (pending) {
+            head = pending.peek();
+            if (head == null || !head.done) {
+              break;
+            }
+            pending.poll();
+          }
+          if (head.exception != null) {
+            error = head.exception;
+            upstream.cancel();
+            break;
+          }
+          subscriber.onNext(head.envelope);
+          requested.decrementAndGet();
+          emitted++;
+        }
+        if (cancelled) {
+          terminated = true;
+          clearPending();
+        } else if (error != null) {
+          terminated = true;
+          cancelled = true;
+          clearPending();
+          subscriber.onError(error);
+        } else {
+          boolean empty;
+          synchronized (pending) {
+            empty = pending.isEmpty();
+          }
+          if (upstreamDone && empty) {
+            terminated = true;
+            subscriber.onComplete();
+          } else if (emitted > 0) {
+            upstream.request(emitted);
+          }
+        }
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void clearPending() {
+    synchronized (pending) {
+      pending.clear();
+    }
+  }
+
+  /** A Statement on its way to becoming an envelope. */
+  private static final class Item {
+    private IntotoEnvelope envelope;
+    private Exception exception;
+    // Written last, after envelope or exception, so readers that see it set see the result.
+    private volatile boolean done;
+
+    void complete(IntotoEnvelope envelope) {
+      this.envelope = envelope;
+      this.done = true;
+    }
+
+    void fail(Exception exception) {
+      this.exception = exception;
+      this.done = true;
+    }
+  }
+
+  private final class DownstreamSubscription implements Flow.Subscription {
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("non-positive request: " + n);
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+          subscription.cancel();
+        }
+      } else {
+        requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      Flow.Subscription subscription = upstream;
+      if (subscription != null) {
+        subscription.cancel();
+      }
+      drain();
+    }
+  }
+
+  private static final class NoOpSubscription implements Flow.Subscription {
+    @Override
+    public void request(long n) {}
+
+    @Override
+    public void cancel() {}
+  }
+
+  /**
+   * Runs at most {@code parallelism} tasks at a time on the underlying executor. When the executor
+   * rejects a worker, {@link #execute} throws the {@link RejectedExecutionException} unless the
+   * task was already picked up by a running worker.
+   */
+  private static final class BoundedExecutor implements Executor {
+    private final Executor executor;
+    private final int parallelism;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+
+    BoundedExecutor(Executor executor, int parallelism) {
+      this.executor = executor;
+      this.parallelism = parallelism;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+      try {
+        schedule();
+      } catch (RejectedExecutionException e) {
+        if (tasks.remove(task)) {
+          throw e;
+        }
+        // A running worker already took the task.
+      }
+    }
+
+    private void schedule() {
+      while (!tasks.isEmpty() && tryAcquire()) {
+        try {
+          executor.execute(this::runTasks);
+        } catch (RejectedExecutionException e) {
+          active.decrementAndGet();
+          throw e;
+        }
+      }
+    }
+
+    private boolean tryAcquire() {
+      while (true) {
+        int current = active.get();
+        if (current >= parallelism) {
+          return false;
+        }
+        if (active.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      }
+    }
+
+    private void runTasks() {
+      do {
+        try {
+          Runnable task;
+          while ((task = tasks.poll()) != null) {
+            task.run();
+          }
+        } finally {
+          active.decrementAndGet();
+        }
+        // A task may have been queued after the last poll but before the decrement. Run it on this
+        // thread rather than submitting a new worker the executor might reject.
+      } while (!tasks.isEmpty() && tryAcquire());
+    }
+  }
+
+  /** Builder for {@link IntotoEnvelopeProcessor}. */
+  public static final class Builder {
+
+    private final Signer signer;
+
+    private IntotoCodec codec = IntotoCodec.defaultCodec();
+
+    private Executor serializationExecutor = ForkJoinPool.commonPool();
+
+    private int serializationParallelism = Runtime.getRuntime().availableProcessors();
+
+    private Executor signingExecutor = AsyncExecutors.defaultExecutor();
+
+    private int signingParallelism = Runtime.getRuntime().availableProcessors();
+
+    private int maxInFlight = 256;
+
+    private Builder(Signer signer) {
+      this.signer = Objects.requireNonNull(signer, "signer must not be null");
+    }
+
+    /** Sets the codec used to validate and serialize Statements. */
+    public Builder codec(IntotoCodec codec) {
+      this.codec = Objects.requireNonNull(codec);
+      return this;
+    }
+
+    /**
+     * Sets the executor and the maximum number of concurrent tasks of the validation and
+     * serialization stage. Defaults to the common ForkJoinPool with one task per core.
+     */
+    public Builder serializationStage(Executor executor, int parallelism) {
+      this.serializationExecutor = Objects.requireNonNull(executor);
+      this.serializationParallelism = requirePositive(parallelism, "parallelism");
+      return this;
+    }
+
+    /**
+     * Sets the executor and the maximum number of concurrent tasks of the signing stage. Defaults
+     * to the executor of {@link IntotoHelper#produceIntotoEnvelopeAsync(Statement, Signer)} with
+     * one task per core.
+     */
+    public Builder signingStage(Executor executor, int parallelism) {
+      this.signingExecutor = Objects.requireNonNull(executor);
+      this.signingParallelism = requirePositive(parallelism, "parallelism");
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of Statements that have been requested from upstream but whose
+     * envelopes have not been delivered downstream yet. Defaults to 256.
+     */
+    public Builder maxInFlight(int maxInFlight) {
+      this.maxInFlight = requirePositive(maxInFlight, "maxInFlight");
+      return this;
+    }
+
+    public IntotoEnvelopeProcessor build() {
+      return new IntotoEnvelopeProcessor(this);
+    }
+
+    private static int requirePositive(int value, String name) {
+      if (value < 1) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package io.github.intoto.helpers;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import java.util.Objects;
+
+/**
+ * Outcome of producing a single {@link IntotoEnvelope} as part of a batch. Exactly one of the
+ * envelope or the exception is set, so a failing statement can be reported without aborting the
+ * rest of the batch.
+ */
+public final class IntotoEnvelopeResult {
+
+  /** Position of the statement in the batch input. */
+  private final int index;
+
+  private final IntotoEnvelope envelope;
+
+  private final Exception exception;
+
+  private IntotoEnvelopeResult(int index, IntotoEnvelope envelope, Exception exception) {
+    this.index = index;
+    this.envelope = envelope;
+    this.exception = exception;
+  }
+
+  static IntotoEnvelopeResult success(int index, IntotoEnvelope envelope) {
+    return new IntotoEnvelopeResult(index, Objects.requireNonNull(envelope), null);
+  }
+
+  static IntotoEnvelopeResult failure(int index, Exception exception) {
+    return new IntotoEnvelopeResult(index, null, Objects.requireNonNull(exception));
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  /** Returns true if the envelope was produced and signed. */
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+
+  /** Returns the produced envelope, or null if this item failed. */
+  public IntotoEnvelope getEnvelope() {
+    return envelope;
+  }
+
+  /**
+   * Returns the exception that made this item fail, or null if it succeeded. This is one of the
+   * exceptions declared by {@link IntotoHelper#produceIntotoEnvelope}, or an unchecked exception
+   * thrown by the Signer.
+   */
+  public Exception getException() {
+    return exception;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccessful()
+        ? "IntotoEnvelopeResult{index=" + index + ", successful}"
+        : "IntotoEnvelopeResult{index=" + index + ", exception=" + exception + "}";
+  }
+}
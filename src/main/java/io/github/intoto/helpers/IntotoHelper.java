@@ -1,25 +1,41 @@
 package io.github.intoto.helpers;
 
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.github.intoto.dsse.helpers.CryptoProviders;
+import io.github.intoto.dsse.helpers.MerkleBatch;
+import io.github.intoto.dsse.helpers.PreAuthenticationEncoding;
+import io.github.intoto.dsse.models.AsyncSigner;
 import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.dsse.models.PrehashedSigner;
 import io.github.intoto.dsse.models.Signature;
 import io.github.intoto.dsse.models.Signer;
 import io.github.intoto.exceptions.InvalidModelException;
 import io.github.intoto.models.Statement;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /**
  * Helper class for the intoto-java implementation. This class provides with helper methods to
@@ -27,10 +43,7 @@ import jakarta.validation.Validator;
  */
 public class IntotoHelper {
 
-  private static final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
-
-  private static final Validator validator =
-      Validation.buildDefaultValidatorFactory().getValidator();
+  private static final IntotoCodec codec = IntotoCodec.defaultCodec();
 
   /**
    * Creates a JSON String representation of a DSSE Envelope.
@@ -52,10 +65,74 @@ public class IntotoHelper {
       throws InvalidModelException, JsonProcessingException, NoSuchAlgorithmException,
           SignatureException, InvalidKeyException {
     IntotoEnvelope envelope = produceIntotoEnvelope(statement, signer);
-    if (prettyPrint) {
-      return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(envelope);
+    return codec.toJson(envelope, prettyPrint);
+  }
+
+  /**
+   * Writes the JSON representation of a DSSE Envelope to an {@link OutputStream}. The output is the
+   * same as {@link #produceIntotoEnvelopeAsJson(Statement, Signer, boolean)}, but the payload is
+   * Base64 encoded on the fly by the Jackson generator into its recycled buffers, so neither the
+   * Base64 payload nor the envelope is ever held as a String. The stream is flushed but not closed.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signer the Signer that will be used to sign the payloads.
+   * @param out the stream the envelope is written to.
+   * @param prettyPrint if true it will pretty print the final Envelope JSON representation
+   * @throws InvalidModelException thrown when the given statement is not valid
+   * @throws IOException thrown when there are issues generating the JSON or writing to the stream
+   * @throws NoSuchAlgorithmException thrown when there are issues encrypting the payloads in the
+   *     Envelope
+   * @throws SignatureException thrown when there are issues with the given key in the Signer
+   * @throws InvalidKeyException thrown when there are issues matching the key with the given
+   *     algorithm
+   */
+  public static void writeIntotoEnvelope(
+      Statement statement, Signer signer, OutputStream out, boolean prettyPrint)
+      throws InvalidModelException, IOException, NoSuchAlgorithmException, SignatureException,
+          InvalidKeyException {
+    byte[] jsonStatement = validateAndTransformToJsonBytes(statement);
+    byte[] signedDsseV1Payload = signer.sign(IntotoEnvelope.PAYLOAD_TYPE, jsonStatement);
+    Signature signature = createSignature(signer.getKeyId(), signedDsseV1Payload);
+
+    try (JsonGenerator generator = codec.createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      if (prettyPrint) {
+        generator.useDefaultPrettyPrinter();
+      }
+      generator.writeStartObject();
+      generator.writeStringField("payloadType", IntotoEnvelope.PAYLOAD_TYPE);
+      generator.writeFieldName("payload");
+      generator.writeBinary(
+          Base64Variants.MIME_NO_LINEFEEDS, jsonStatement, 0, jsonStatement.length);
+      generator.writeArrayFieldStart("signatures");
+      generator.writeObject(signature);
+      generator.writeEndArray();
+      generator.writeEndObject();
     }
-    return objectMapper.writeValueAsString(envelope);
+  }
+
+  /**
+   * Writes the JSON representation of a DSSE Envelope to a {@link WritableByteChannel}, such as a
+   * FileChannel or a SocketChannel. See {@link #writeIntotoEnvelope(Statement, Signer,
+   * OutputStream, boolean)}. The channel is not closed.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signer the Signer that will be used to sign the payloads.
+   * @param channel the channel the envelope is written to.
+   * @param prettyPrint if true it will pretty print the final Envelope JSON representation
+   * @throws InvalidModelException thrown when the given statement is not valid
+   * @throws IOException thrown when there are issues generating the JSON or writing to the channel
+   * @throws NoSuchAlgorithmException thrown when there are issues encrypting the payloads in the
+   *     Envelope
+   * @throws SignatureException thrown when there are issues with the given key in the Signer
+   * @throws InvalidKeyException thrown when there are issues matching the key with the given
+   *     algorithm
+   */
+  public static void writeIntotoEnvelope(
+      Statement statement, Signer signer, WritableByteChannel channel, boolean prettyPrint)
+      throws InvalidModelException, IOException, NoSuchAlgorithmException, SignatureException,
+          InvalidKeyException {
+    writeIntotoEnvelope(statement, signer, Channels.newOutputStream(channel), prettyPrint);
   }
 
   /**
@@ -76,25 +153,491 @@ public class IntotoHelper {
   public static IntotoEnvelope produceIntotoEnvelope(Statement statement, Signer signer)
       throws InvalidModelException, JsonProcessingException, NoSuchAlgorithmException,
           SignatureException, InvalidKeyException {
+    return produceIntotoEnvelope(statement, signer, codec);
+  }
+
+  /**
+   * Produces an {@link IntotoEnvelope} like {@link #produceIntotoEnvelope(Statement, Signer)}, but
+   * validates and serializes the Statement with the given {@link IntotoCodec}, for instance one
+   * configured with a different {@link ValidationMode}.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signer the Signer that will be used to sign the payloads.
+   * @param codec the codec used to validate and serialize the Statement.
+   * @return will return a {@link IntotoEnvelope} instead of the JSON representation.
+   * @throws InvalidModelException thrown when the given statement is not valid
+   * @throws JsonProcessingException thrown when there are issues generating the JSON string
+   * @throws NoSuchAlgorithmException thrown when there are issues encrypting the payloads in the
+   *     Envelope
+   * @throws SignatureException thrown when there are issues with the given key in the Signer
+   * @throws InvalidKeyException thrown when there are issues matching the key with the given
+   *     algorithm
+   */
+  public static IntotoEnvelope produceIntotoEnvelope(
+      Statement statement, Signer signer, IntotoCodec codec)
+      throws InvalidModelException, JsonProcessingException, NoSuchAlgorithmException,
+          SignatureException, InvalidKeyException {
     // Get the Base64 encoded Statement to use as the payload
-    String jsonStatement = validateAndTransformToJson(statement, false);
-    String base64EncodedStatement = Base64.getEncoder().encodeToString(jsonStatement.getBytes());
+    byte[] jsonStatement = codec.validateAndTransformToJsonBytes(statement);
+    String base64EncodedStatement = Base64.getEncoder().encodeToString(jsonStatement);
 
     IntotoEnvelope envelope = new IntotoEnvelope();
-    // Create the signed payload with the DSSEv1 format and sign it!
-    byte[] paeByteArray =
-        createPreAuthenticationEncoding(envelope.getPayloadType(), jsonStatement.getBytes());
-    byte[] signedDsseV1Payload = signer.sign(paeByteArray);
-    Signature signature = new Signature();
-    signature.setKeyId(signer.getKeyId());
-    // The sig contains the base64 encoded version of the signedDsseV1Payload
-    signature.setSig(Base64.getEncoder().encodeToString(signedDsseV1Payload));
+    // Sign the payload with the DSSEv1 Pre-Authentication Encoding
+    byte[] signedDsseV1Payload = signer.sign(envelope.getPayloadType(), jsonStatement);
     // Let's complete the envelope
     envelope.setPayload(base64EncodedStatement);
-    envelope.setSignatures(List.of(signature));
+    envelope.setSignatures(List.of(createSignature(signer.getKeyId(), signedDsseV1Payload)));
+    return envelope;
+  }
+
+  /**
+   * Produces an {@link IntotoEnvelope} signed by several Signers. The Statement is serialized once
+   * and every Signer signs its Pre-Authentication Encoding concurrently on the given executor. The
+   * signatures are added to the envelope in the same order as the Signers, regardless of which one
+   * finishes first.
+   *
+   * <p>The encoding is shared rather than built per Signer: plain Signers all sign one copy of it,
+   * {@link PrehashedSigner}s sign one digest computed per digest algorithm, and Signers that
+   * override {@link Signer#sign(String, byte[])} stream it to their own engine.
+   *
+   * <p>The timeout of a Signer starts when its task starts running, so time spent waiting in the
+   * executor's queue does not count against it. When a Signer times out or fails, the Signers that
+   * are still running are interrupted and the ones that have not started yet are skipped.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signers the Signers that will be used to sign the payload, at least one.
+   * @param executor the executor the signing tasks are submitted to.
+   * @param timeout the maximum time each Signer is given to produce its signature once started.
+   * @return will return a {@link IntotoEnvelope} with one signature per Signer.
+   * @throws InvalidModelException thrown when the given statement is not valid
+   * @throws JsonProcessingException thrown when there are issues generating the JSON string
+   * @throws NoSuchAlgorithmException thrown when there are issues encrypting the payloads in the
+   *     Envelope
+   * @throws SignatureException thrown when there are issues with the given key in a Signer, or
+   *     when a Signer does not finish within the timeout
+   * @throws InvalidKeyException thrown when there are issues matching the key with the given
+   *     algorithm
+   */
+  public static IntotoEnvelope produceIntotoEnvelope(
+      Statement statement, List<Signer> signers, Executor executor, Duration timeout)
+      throws InvalidModelException, JsonProcessingException, NoSuchAlgorithmException,
+          SignatureException, InvalidKeyException {
+    if (signers.isEmpty()) {
+      throw new IllegalArgumentException("at least one signer is required");
+    }
+    Objects.requireNonNull(executor, "executor must not be null");
+    long timeoutNanos = timeout.toNanos();
+
+    byte[] jsonStatement = validateAndTransformToJsonBytes(statement);
+
+    byte[] encoding = null;
+    Map<String, byte[]> digests = new HashMap<>();
+    List<SigningTask> tasks = new ArrayList<>(signers.size());
+    for (Signer signer : signers) {
+      SigningCall call;
+      if (signer instanceof PrehashedSigner) {
+        PrehashedSigner prehashedSigner = (PrehashedSigner) signer;
+        String digestAlgorithm = prehashedSigner.getDigestAlgorithm();
+        byte[] digest = digests.get(digestAlgorithm);
+        if (digest == null) {
+          digest =
+              PreAuthenticationEncoding.digest(
+                  CryptoProviders.newMessageDigest(digestAlgorithm),
+                  IntotoEnvelope.PAYLOAD_TYPE,
+                  jsonStatement);
+          digests.put(digestAlgorithm, digest);
+        }
+        byte[] sharedDigest = digest;
+        call = () -> prehashedSigner.signDigest(sharedDigest, digestAlgorithm);
+      } else if (streamsEncoding(signer)) {
+        call = () -> signer.sign(IntotoEnvelope.PAYLOAD_TYPE, jsonStatement);
+      } else {
+        if (encoding == null) {
+          encoding = PreAuthenticationEncoding.encode(IntotoEnvelope.PAYLOAD_TYPE, jsonStatement);
+        }
+        byte[] sharedEncoding = encoding;
+        call = () -> signer.sign(sharedEncoding);
+      }
+      tasks.add(new SigningTask(call, timeoutNanos));
+    }
+    for (SigningTask task : tasks) {
+      executor.execute(task);
+    }
+
+    List<Signature> signatures = new ArrayList<>(signers.size());
+    for (int i = 0; i < signers.size(); i++) {
+      Signer signer = signers.get(i);
+      try {
+        signatures.add(createSignature(signer.getKeyId(), tasks.get(i).result.join()));
+      } catch (CompletionException e) {
+        tasks.forEach(SigningTask::cancel);
+        if (e.getCause() instanceof TimeoutException) {
+          throw new SignatureException(
+              "Signer " + signer.getKeyId() + " did not finish within " + timeout);
+        }
+        throwSigningException(e);
+      }
+    }
+    return createEnvelope(jsonStatement, signatures);
+  }
+
+  /**
+   * Produces one {@link IntotoEnvelope} per Statement while calling the Signer only once for the
+   * whole batch. The Signer signs the root of a {@link MerkleBatch} built over the
+   * Pre-Authentication Encoding digests of the Statements, and each envelope carries that root
+   * signature with the {@link io.github.intoto.dsse.models.InclusionProof} of its own payload.
+   *
+   * <p>Such envelopes are verified by {@link io.github.intoto.dsse.helpers.IntotoEnvelopeVerifier},
+   * which checks the shared root signature once per batch. Verifiers that do not know inclusion
+   * proofs reject them.
+   *
+   * @param statements the Statements to add to the envelopes, at least one.
+   * @param signer the Signer that will be used to sign the root of the batch.
+   * @return the envelopes, in the same order as the Statements.
+   * @throws InvalidModelException thrown when one of the given statements is not valid
+   * @throws JsonProcessingException thrown when there are issues generating the JSON string
+   * @throws NoSuchAlgorithmException thrown when there are issues encrypting the payloads in the
+   *     Envelope
+   * @throws SignatureException thrown when there are issues with the given key in the Signer
+   * @throws InvalidKeyException thrown when there are issues matching the key with the given
+   *     algorithm
+   */
+  public static List<IntotoEnvelope> produceIntotoEnvelopeBatch(
+      List<Statement> statements, Signer signer)
+      throws InvalidModelException, JsonProcessingException, NoSuchAlgorithmException,
+          SignatureException, InvalidKeyException {
+    if (statements.isEmpty()) {
+      throw new IllegalArgumentException("at least one statement is required");
+    }
+    List<byte[]> jsonStatements = new ArrayList<>(statements.size());
+    List<byte[]> leaves = new ArrayList<>(statements.size());
+    for (Statement statement : statements) {
+      byte[] jsonStatement = validateAndTransformToJsonBytes(statement);
+      jsonStatements.add(jsonStatement);
+      leaves.add(MerkleBatch.leaf(IntotoEnvelope.PAYLOAD_TYPE, jsonStatement));
+    }
+    MerkleBatch batch = MerkleBatch.of(leaves);
+    byte[] signedRoot = signer.sign(MerkleBatch.ROOT_PAYLOAD_TYPE, batch.root());
+
+    List<IntotoEnvelope> envelopes = new ArrayList<>(statements.size());
+    for (int i = 0; i < jsonStatements.size(); i++) {
+      Signature signature = createSignature(signer.getKeyId(), signedRoot);
+      signature.setInclusionProof(batch.proof(i));
+      envelopes.add(createEnvelope(jsonStatements.get(i), List.of(signature)));
+    }
+    return envelopes;
+  }
+
+  /** Creates an {@link IntotoEnvelope} for an already serialized Statement. */
+  static IntotoEnvelope createEnvelope(byte[] jsonStatement, List<Signature> signatures) {
+    IntotoEnvelope envelope = new IntotoEnvelope();
+    envelope.setPayload(Base64.getEncoder().encodeToString(jsonStatement));
+    envelope.setSignatures(signatures);
     return envelope;
   }
 
+  /** Creates a DSSE {@link Signature}, the sig is the base64 encoded version of the signature. */
+  static Signature createSignature(String keyId, byte[] signedDsseV1Payload) {
+    Signature signature = new Signature();
+    signature.setKeyId(keyId);
+    signature.setSig(Base64.getEncoder().encodeToString(signedDsseV1Payload));
+    return signature;
+  }
+
+  /**
+   * Tells whether a Signer overrides {@link Signer#sign(String, byte[])}, which means it consumes
+   * the Pre-Authentication Encoding without the default copy.
+   */
+  private static boolean streamsEncoding(Signer signer) {
+    try {
+      return signer.getClass().getMethod("sign", String.class, byte[].class).getDeclaringClass()
+          != Signer.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /** One Signer's share of a multi-signer envelope. */
+  private interface SigningCall {
+    byte[] sign() throws NoSuchAlgorithmException, InvalidKeyException, SignatureException;
+  }
+
+  /** Runs a {@link SigningCall} so it can complete a {@link CompletableFuture}. */
+  private static byte[] signUnchecked(SigningCall call) {
+    try {
+      return call.sign();
+    } catch (NoSuchAlgorithmException | SignatureException | InvalidKeyException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  /**
+   * Signs with one Signer of a multi-signer envelope. The timeout is armed when the task starts
+   * running, and the thread running the Signer is interrupted when the result completes
+   * exceptionally, so a timed out or cancelled Signer does not keep its thread busy.
+   */
+  private static final class SigningTask implements Runnable {
+    private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+    private final SigningCall call;
+    private final long timeoutNanos;
+
+    /** The thread running the Signer, or null before and after it runs; guarded by this. */
+    private Thread runner;
+
+    SigningTask(SigningCall call, long timeoutNanos) {
+      this.call = call;
+      this.timeoutNanos = timeoutNanos;
+      result.whenComplete(
+          (signature, error) -> {
+            if (error != null) {
+              interruptRunner();
+            }
+          });
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (result.isDone()) {
+          return;
+        }
+        runner = Thread.currentThread();
+      }
+      boolean wasInterrupted = runner.isInterrupted();
+      result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+      byte[] signature = null;
+      Throwable error = null;
+      try {
+        signature = signUnchecked(call);
+      } catch (RuntimeException | Error e) {
+        error = e;
+      }
+      synchronized (this) {
+        runner = null;
+        if (!wasInterrupted) {
+          // Clear the interrupt sent to stop the Signer, so it does not leak to the next task.
+          Thread.interrupted();
+        }
+      }
+      if (error == null) {
+        result.complete(signature);
+      } else {
+        result.completeExceptionally(error);
+      }
+    }
+
+    void cancel() {
+      result.cancel(false);
+    }
+
+    private synchronized void interruptRunner() {
+      if (runner != null) {
+        runner.interrupt();
+      }
+    }
+  }
+
+  /** Throws the exception a signing task failed with, stripping the CompletionException wrapper. */
+  private static void throwSigningException(CompletionException e)
+      throws NoSuchAlgorithmException, SignatureException, InvalidKeyException {
+    Throwable cause = e.getCause();
+    if (cause instanceof NoSuchAlgorithmException) {
+      throw (NoSuchAlgorithmException) cause;
+    }
+    if (cause instanceof SignatureException) {
+      throw (SignatureException) cause;
+    }
+    if (cause instanceof InvalidKeyException) {
+      throw (InvalidKeyException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    throw e;
+  }
+
+  /**
+   * Produces one {@link IntotoEnvelope} per Statement using the common {@link ForkJoinPool}. See
+   * {@link #produceIntotoEnvelopes(Collection, Signer, Executor)}.
+   *
+   * @param statements the Statements to add to the envelopes
+   * @param signer the Signer that will be used to sign the payloads.
+   * @return one result per Statement, in input order.
+   */
+  public static List<IntotoEnvelopeResult> produceIntotoEnvelopes(
+      Collection<Statement> statements, Signer signer) {
+    return produceIntotoEnvelopes(statements, signer, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Produces one {@link IntotoEnvelope} per Statement. Validation, serialization, the
+   * Pre-Authentication Encoding and signing of each Statement run as an independent task on the
+   * given executor, so the Signer must be safe to call from several threads at once.
+   *
+   * <p>A Statement that fails does not abort the batch: its {@link IntotoEnvelopeResult} carries
+   * the exception instead of an envelope. This includes Statements whose task the executor
+   * rejects, which fail with the {@link RejectedExecutionException}.
+   *
+   * @param statements the Statements to add to the envelopes
+   * @param signer the Signer that will be used to sign the payloads.
+   * @param executor the executor the tasks are submitted to.
+   * @return one result per Statement, in input order.
+   */
+  public static List<IntotoEnvelopeResult> produceIntotoEnvelopes(
+      Collection<Statement> statements, Signer signer, Executor executor) {
+    return produceIntotoEnvelopes(statements.stream(), signer, executor);
+  }
+
+  /**
+   * Same as {@link #produceIntotoEnvelopes(Collection, Signer, Executor)} but consumes the
+   * Statements from a Stream. The stream is consumed sequentially on the calling thread while the
+   * submitted tasks are already running.
+   *
+   * @param statements the Statements to add to the envelopes
+   * @param signer the Signer that will be used to sign the payloads.
+   * @param executor the executor the tasks are submitted to.
+   * @return one result per Statement, in encounter order.
+   */
+  public static List<IntotoEnvelopeResult> produceIntotoEnvelopes(
+      Stream<Statement> statements, Signer signer, Executor executor) {
+    Objects.requireNonNull(signer, "signer must not be null");
+    Objects.requireNonNull(executor, "executor must not be null");
+    List<CompletableFuture<IntotoEnvelope>> futures = new ArrayList<>();
+    statements
+        .sequential()
+        .forEachOrdered(
+            statement -> {
+              CompletableFuture<IntotoEnvelope> future;
+              try {
+                future =
+                    CompletableFuture.supplyAsync(
+                        () -> produceIntotoEnvelopeUnchecked(statement, signer), executor);
+              } catch (RejectedExecutionException e) {
+                future = CompletableFuture.failedFuture(e);
+              }
+              futures.add(future);
+            });
+
+    List<IntotoEnvelopeResult> results = new ArrayList<>(futures.size());
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        results.add(IntotoEnvelopeResult.success(i, futures.get(i).join()));
+      } catch (CompletionException e) {
+        results.add(IntotoEnvelopeResult.failure(i, unwrap(e)));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Asynchronous version of {@link #produceIntotoEnvelope(Statement, Signer)}. The work runs on the
+   * default asynchronous executor: a virtual thread per task on JDK 21 and newer, or a bounded pool
+   * of platform threads on older JDKs.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signer the Signer that will be used to sign the payloads.
+   * @return a future completed with the envelope, or completed exceptionally with one of the
+   *     exceptions declared by {@link #produceIntotoEnvelope(Statement, Signer)}.
+   */
+  public static CompletableFuture<IntotoEnvelope> produceIntotoEnvelopeAsync(
+      Statement statement, Signer signer) {
+    return produceIntotoEnvelopeAsync(statement, signer, AsyncExecutors.defaultExecutor());
+  }
+
+  /**
+   * Asynchronous version of {@link #produceIntotoEnvelope(Statement, Signer)} that runs on the
+   * given executor.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signer the Signer that will be used to sign the payloads.
+   * @param executor the executor the work is submitted to.
+   * @return a future completed with the envelope, or completed exceptionally with one of the
+   *     exceptions declared by {@link #produceIntotoEnvelope(Statement, Signer)}.
+   */
+  public static CompletableFuture<IntotoEnvelope> produceIntotoEnvelopeAsync(
+      Statement statement, Signer signer, Executor executor) {
+    return CompletableFuture.supplyAsync(
+        () -> produceIntotoEnvelopeUnchecked(statement, signer), executor);
+  }
+
+  /**
+   * Produces an {@link IntotoEnvelope} signed by an {@link AsyncSigner}. The Statement is validated
+   * and serialized on the default asynchronous executor; no thread is held while the signature is
+   * pending.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signer the AsyncSigner that will be used to sign the payloads.
+   * @return a future completed with the envelope, or completed exceptionally with one of the
+   *     exceptions declared by {@link #produceIntotoEnvelope(Statement, Signer)}.
+   */
+  public static CompletableFuture<IntotoEnvelope> produceIntotoEnvelopeAsync(
+      Statement statement, AsyncSigner signer) {
+    return produceIntotoEnvelopeAsync(statement, signer, AsyncExecutors.defaultExecutor());
+  }
+
+  /**
+   * Produces an {@link IntotoEnvelope} signed by an {@link AsyncSigner}, validating and serializing
+   * the Statement on the given executor.
+   *
+   * @param statement the Statement to add to the envelope
+   * @param signer the AsyncSigner that will be used to sign the payloads.
+   * @param executor the executor used to validate and serialize the Statement.
+   * @return a future completed with the envelope, or completed exceptionally with one of the
+   *     exceptions declared by {@link #produceIntotoEnvelope(Statement, Signer)}.
+   */
+  public static CompletableFuture<IntotoEnvelope> produceIntotoEnvelopeAsync(
+      Statement statement, AsyncSigner signer, Executor executor) {
+    Objects.requireNonNull(signer, "signer must not be null");
+    return CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return validateAndTransformToJsonBytes(statement);
+              } catch (InvalidModelException | JsonProcessingException e) {
+                throw new CompletionException(e);
+              }
+            },
+            executor)
+        .thenCompose(
+            jsonStatement ->
+                signer
+                    .signAsync(
+                        PreAuthenticationEncoding.encode(
+                            IntotoEnvelope.PAYLOAD_TYPE, jsonStatement))
+                    .thenApply(
+                        signedDsseV1Payload ->
+                            createEnvelope(
+                                jsonStatement,
+                                List.of(createSignature(signer.getKeyId(), signedDsseV1Payload)))));
+  }
+
+  /** Wraps {@link #produceIntotoEnvelope} so it can run inside a {@link CompletableFuture}. */
+  private static IntotoEnvelope produceIntotoEnvelopeUnchecked(Statement statement, Signer signer) {
+    try {
+      return produceIntotoEnvelope(statement, signer);
+    } catch (InvalidModelException
+        | JsonProcessingException
+        | NoSuchAlgorithmException
+        | SignatureException
+        | InvalidKeyException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  /** Returns the exception a task failed with, stripping the CompletionException wrapper. */
+  private static Exception unwrap(CompletionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    if (cause instanceof Exception) {
+      return (Exception) cause;
+    }
+    return e;
+  }
+
   /**
    * Generates the Pre-Authentication Encoding
    *
@@ -113,13 +656,7 @@ public class IntotoHelper {
    * @return will return a Pre Authentication Encoding String.
    */
   public static byte[] createPreAuthenticationEncoding(String payloadType, byte[] payload) {
-    return String.format(
-            "DSSEv1 %d %s %d %s",
-            payloadType.length(),
-            payloadType,
-            payload.length,
-            new String(payload, StandardCharsets.UTF_8))
-        .getBytes(StandardCharsets.UTF_8);
+    return PreAuthenticationEncoding.encode(payloadType, payload);
   }
 
   /**
@@ -134,19 +671,15 @@ public class IntotoHelper {
    */
   public static String validateAndTransformToJson(Statement statement, boolean prettyPrint)
       throws JsonProcessingException, InvalidModelException {
+    return codec.validateAndTransformToJson(statement, prettyPrint);
+  }
 
-    Set<ConstraintViolation<Statement>> results = validator.validate(statement);
-
-    if (results.isEmpty()) {
-      objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-      if (prettyPrint) {
-        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(statement);
-      }
-      return objectMapper.writeValueAsString(statement);
-    } else {
-      String errorMessage =
-          results.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(",/n"));
-      throw new InvalidModelException(errorMessage);
-    }
+  /**
+   * Validates a {@link Statement} and transforms it to its compact JSON representation encoded as
+   * UTF-8, without going through an intermediate String.
+   */
+  private static byte[] validateAndTransformToJsonBytes(Statement statement)
+      throws JsonProcessingException, InvalidModelException {
+    return codec.validateAndTransformToJsonBytes(statement);
   }
 }
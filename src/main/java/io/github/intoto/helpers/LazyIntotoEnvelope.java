@@ -0,0 +1,197 @@
+package io.github.intoto.helpers;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.dsse.models.Signature;
+import io.github.intoto.models.Statement;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only view of an {@link IntotoEnvelope} that decodes its payload and binds its {@link
+ * Statement} only when they are first asked for.
+ *
+ * <p>Parsing the envelope only reads the payloadType and the signatures; the payload is kept in its
+ * Base64 form. Routing or filtering on {@link #getPayloadType()} and {@link #getKeyIds()} therefore
+ * costs neither a Base64 decode nor a Statement binding. The decoded payload and the Statement are
+ * cached once computed, and instances can be shared across threads.
+ */
+public final class LazyIntotoEnvelope {
+
+  private static final TypeReference<List<Signature>> SIGNATURES = new TypeReference<>() {};
+
+  private final IntotoCodec codec;
+
+  private final String payloadType;
+
+  private final String encodedPayload;
+
+  private final List<Signature> signatures;
+
+  private volatile byte[] payload;
+
+  private volatile Statement statement;
+
+  private LazyIntotoEnvelope(
+      IntotoCodec codec, String payloadType, String encodedPayload, List<Signature> signatures) {
+    this.codec = codec;
+    this.payloadType = payloadType;
+    this.encodedPayload = encodedPayload;
+    this.signatures =
+        signatures == null ? Collections.emptyList() : Collections.unmodifiableList(signatures);
+  }
+
+  /**
+   * Creates a lazy view of an envelope that is already in memory.
+   *
+   * @param envelope the envelope.
+   * @param codec the codec used to bind the Statement.
+   */
+  public static LazyIntotoEnvelope of(IntotoEnvelope envelope, IntotoCodec codec) {
+    return new LazyIntotoEnvelope(
+        Objects.requireNonNull(codec),
+        envelope.getPayloadType(),
+        envelope.getPayload(),
+        envelope.getSignatures());
+  }
+
+  /**
+   * Parses the JSON representation of an envelope without decoding its payload.
+   *
+   * @param json the UTF-8 encoded JSON.
+   * @param codec the codec used to parse the envelope and later bind the Statement.
+   * @return the lazy envelope.
+   * @throws IOException thrown when the JSON is malformed or does not describe an envelope.
+   */
+  public static LazyIntotoEnvelope parse(byte[] json, IntotoCodec codec) throws IOException {
+    try (JsonParser parser = codec.createParser(json, 0, json.length)) {
+      return parse(parser, codec);
+    }
+  }
+
+  /**
+   * Parses the JSON representation of an envelope without decoding its payload. The stream is not
+   * closed.
+   *
+   * @param json the stream of UTF-8 encoded JSON.
+   * @param codec the codec used to parse the envelope and later bind the Statement.
+   * @return the lazy envelope.
+   * @throws IOException thrown when the JSON is malformed or does not describe an envelope.
+   */
+  public static LazyIntotoEnvelope parse(InputStream json, IntotoCodec codec) throws IOException {
+    try (JsonParser parser = codec.createParser(json)) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      return parse(parser, codec);
+    }
+  }
+
+  private static LazyIntotoEnvelope parse(JsonParser parser, IntotoCodec codec) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonMappingException(parser, "envelope must be a JSON object");
+    }
+    String payloadType = null;
+    String payload = null;
+    List<Signature> signatures = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (value == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      switch (field) {
+        case "payloadType":
+          payloadType = parser.getValueAsString();
+          break;
+        case "payload":
+          payload = parser.getValueAsString();
+          break;
+        case "signatures":
+          signatures = parser.readValueAs(SIGNATURES);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new LazyIntotoEnvelope(codec, payloadType, payload, signatures);
+  }
+
+  public String getPayloadType() {
+    return payloadType;
+  }
+
+  /** Returns the payload as it appears in the envelope, Base64 encoded. */
+  public String getEncodedPayload() {
+    return encodedPayload;
+  }
+
+  public List<Signature> getSignatures() {
+    return signatures;
+  }
+
+  /** Returns the keyids of the signatures, skipping signatures without one. */
+  public List<String> getKeyIds() {
+    return signatures.stream()
+        .map(Signature::getKeyId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the decoded payload, decoding it on the first call. The returned array is shared by all
+   * callers and must not be modified.
+   *
+   * @throws IllegalArgumentException thrown when the payload is not valid Base64.
+   */
+  public byte[] getPayload() {
+    byte[] decoded = payload;
+    if (decoded == null) {
+      // Decoding twice under contention is harmless, both threads get equal arrays.
+      decoded = Base64.getDecoder().decode(Objects.requireNonNull(encodedPayload, "no payload"));
+      payload = decoded;
+    }
+    return decoded;
+  }
+
+  /** Returns true if the payload has already been decoded. */
+  public boolean isPayloadDecoded() {
+    return payload != null;
+  }
+
+  /**
+   * Returns the Statement of the payload, binding it on the first call with {@link
+   * IntotoCodec#readStatement(byte[], int, int)}. The returned Statement is shared by all callers
+   * and must not be modified.
+   *
+   * @throws IOException thrown when the payload does not hold a Statement the codec can bind.
+   */
+  public Statement getStatement() throws IOException {
+    Statement bound = statement;
+    if (bound == null) {
+      byte[] decoded = getPayload();
+      bound = codec.readStatement(decoded, 0, decoded.length);
+      statement = bound;
+    }
+    return bound;
+  }
+
+  /** Returns true if the Statement has already been bound. */
+  public boolean isStatementBound() {
+    return statement != null;
+  }
+
+  /** Returns a regular envelope with the same payload and signatures. */
+  public IntotoEnvelope toEnvelope() {
+    IntotoEnvelope envelope = new IntotoEnvelope();
+    envelope.setPayload(encodedPayload);
+    envelope.setSignatures(signatures);
+    return envelope;
+  }
+}
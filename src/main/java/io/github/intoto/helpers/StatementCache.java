@@ -0,0 +1,295 @@
+package io.github.intoto.helpers;
+
+import io.github.intoto.dsse.helpers.CryptoProviders;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.models.Statement;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of bound {@link Statement}s, keyed by the SHA-256 digest of the payload
+ * they were bound from. Envelopes are looked up by their Base64 encoded payload, so a hit neither
+ * decodes nor binds it; decoded payloads passed to {@link #get(byte[])} have keys of their own.
+ *
+ * <p>Services that see the same envelopes over and over can look Statements up here instead of
+ * binding the payload again. The cache evicts the least recently used entries once it holds more
+ * than {@code maximumSize} entries or more than {@code maximumWeight} bytes; the weight of an entry
+ * is the length of its payload multiplied by {@code weightPerPayloadByte}, an estimate of the
+ * memory the bound Statement takes per byte of JSON.
+ *
+ * <p>The cache is thread-safe. Binding happens outside the lock, so a Statement missing from the
+ * cache may be bound by several threads at once; one of the results is kept. Cached Statements are
+ * shared by all callers and must not be modified.
+ */
+public final class StatementCache {
+
+  private static final ThreadLocal<MessageDigest> SHA256 =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return CryptoProviders.newMessageDigest("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+              throw new IllegalStateException("SHA-256 is not available", e);
+            }
+          });
+
+  /** Prefixes of the digested bytes, so encoded and decoded payloads never share a key. */
+  private static final byte ENCODED = 'e';
+
+  private static final byte DECODED = 'd';
+
+  private final IntotoCodec codec;
+
+  private final long maximumSize;
+
+  private final long maximumWeight;
+
+  private final long weightPerPayloadByte;
+
+  /** Entries in access order, least recently used first. Guarded by itself. */
+  private final LinkedHashMap<ByteBuffer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Total weight of the entries. Guarded by entries. */
+  private long weight;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  private StatementCache(Builder builder) {
+    this.codec = builder.codec;
+    this.maximumSize = builder.maximumSize;
+    this.maximumWeight = builder.maximumWeight;
+    this.weightPerPayloadByte = builder.weightPerPayloadByte;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the Statement of an envelope, binding and caching it if it is not cached yet. The
+   * payload is only decoded on a miss.
+   *
+   * @param envelope the envelope.
+   * @return the shared Statement.
+   * @throws IOException thrown when the payload does not hold a Statement the codec can bind.
+   * @throws IllegalArgumentException thrown when the payload is not valid Base64.
+   */
+  public Statement get(IntotoEnvelope envelope) throws IOException {
+    return getEncoded(envelope.getPayload());
+  }
+
+  /**
+   * Returns the Statement of a lazy envelope, binding and caching it if it is not cached yet. The
+   * payload is only decoded on a miss, and the Statement is not stored in the lazy envelope.
+   */
+  public Statement get(LazyIntotoEnvelope envelope) throws IOException {
+    return getEncoded(envelope.getEncodedPayload());
+  }
+
+  /**
+   * Returns the Statement of a decoded payload, binding and caching it if it is not cached yet.
+   *
+   * @param payload the UTF-8 encoded JSON of the Statement.
+   * @return the shared Statement.
+   * @throws IOException thrown when the payload does not hold a Statement the codec can bind.
+   */
+  public Statement get(byte[] payload) throws IOException {
+    ByteBuffer key = key(DECODED, payload);
+    Statement cached = lookup(key);
+    return cached != null ? cached : bind(key, payload);
+  }
+
+  /** Removes every entry. The counters are kept. */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+      weight = 0;
+    }
+  }
+
+  /** Returns the number of cached Statements. */
+  public long size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /** Returns the total weight of the cached Statements, in bytes. */
+  public long weight() {
+    synchronized (entries) {
+      return weight;
+    }
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  /** Returns the share of lookups that were served from the cache, or 0 if there were none. */
+  public double getHitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  @Override
+  public String toString() {
+    return "StatementCache{size="
+        + size()
+        + ", weight="
+        + weight()
+        + ", hits="
+        + hits
+        + ", misses="
+        + misses
+        + ", evictions="
+        + evictions
+        + "}";
+  }
+
+  private Statement getEncoded(String encodedPayload) throws IOException {
+    Objects.requireNonNull(encodedPayload, "no payload");
+    ByteBuffer key = key(ENCODED, encodedPayload.getBytes(StandardCharsets.ISO_8859_1));
+    Statement cached = lookup(key);
+    return cached != null ? cached : bind(key, Base64.getDecoder().decode(encodedPayload));
+  }
+
+  private static ByteBuffer key(byte prefix, byte[] bytes) {
+    MessageDigest sha256 = SHA256.get();
+    sha256.update(prefix);
+    return ByteBuffer.wrap(sha256.digest(bytes));
+  }
+
+  /** Returns the cached Statement for a key and counts a hit, or returns null. */
+  private Statement lookup(ByteBuffer key) {
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        hits.incrementAndGet();
+        return entry.statement;
+      }
+    }
+    return null;
+  }
+
+  /** Binds a payload that missed the cache and caches it under the key if it fits. */
+  private Statement bind(ByteBuffer key, byte[] payload) throws IOException {
+    misses.incrementAndGet();
+    Statement statement = codec.readStatement(payload, 0, payload.length);
+    long entryWeight = saturatedMultiply(payload.length, weightPerPayloadByte);
+    if (entryWeight > maximumWeight) {
+      return statement;
+    }
+    synchronized (entries) {
+      Entry existing = entries.get(key);
+      if (existing != null) {
+        return existing.statement;
+      }
+      entries.put(key, new Entry(statement, entryWeight));
+      weight += entryWeight;
+      evict();
+    }
+    return statement;
+  }
+
+  /** Evicts least recently used entries until the cache is within its bounds. */
+  private void evict() {
+    Iterator<Entry> eldest = entries.values().iterator();
+    while ((entries.size() > maximumSize || weight > maximumWeight) && eldest.hasNext()) {
+      weight -= eldest.next().weight;
+      eldest.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  private static long saturatedMultiply(long a, long b) {
+    long high = Math.multiplyHigh(a, b);
+    long low = a * b;
+    return high == 0 && low >= 0 ? low : Long.MAX_VALUE;
+  }
+
+  private static final class Entry {
+    private final Statement statement;
+    private final long weight;
+
+    Entry(Statement statement, long weight) {
+      this.statement = statement;
+      this.weight = weight;
+    }
+  }
+
+  /** Builder for {@link StatementCache}. */
+  public static final class Builder {
+
+    private IntotoCodec codec = IntotoCodec.defaultCodec();
+
+    private long maximumSize = 10_000;
+
+    private long maximumWeight = 64L << 20;
+
+    private long weightPerPayloadByte = 4;
+
+    private Builder() {}
+
+    /** Sets the codec used to bind Statements. */
+    public Builder codec(IntotoCodec codec) {
+      this.codec = Objects.requireNonNull(codec);
+      return this;
+    }
+
+    /** Sets the maximum number of cached Statements. Defaults to 10,000. */
+    public Builder maximumSize(long maximumSize) {
+      this.maximumSize = requirePositive(maximumSize, "maximumSize");
+      return this;
+    }
+
+    /**
+     * Sets the memory cap of the cache in bytes, measured as the sum of the entry weights.
+     * Statements heavier than the cap are never cached. Defaults to 64 MiB.
+     */
+    public Builder maximumWeight(long maximumWeight) {
+      this.maximumWeight = requirePositive(maximumWeight, "maximumWeight");
+      return this;
+    }
+
+    /**
+     * Sets the estimated number of bytes a bound Statement takes in memory per byte of its JSON
+     * payload. Defaults to 4.
+     */
+    public Builder weightPerPayloadByte(long weightPerPayloadByte) {
+      this.weightPerPayloadByte = requirePositive(weightPerPayloadByte, "weightPerPayloadByte");
+      return this;
+    }
+
+    public StatementCache build() {
+      return new StatementCache(this);
+    }
+
+    private static long requirePositive(long value, String name) {
+      if (value < 1) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return value;
+    }
+  }
+}
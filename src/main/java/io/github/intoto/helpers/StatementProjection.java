@@ -0,0 +1,229 @@
+package io.github.intoto.helpers;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pulls a fixed set of values out of Statement payloads with the Jackson streaming parser, without
+ * binding the Statement or its predicate.
+ *
+ * <p>Values are selected with JSON Pointers (RFC 6901), extended with {@code *} as a token that
+ * matches every element of an array or every member of an object. For example:
+ *
+ * <pre>
+ * StatementProjection projection =
+ *     StatementProjection.of(
+ *         "/_type", "/predicateType", "/subject/*&#47;digest", "/predicate/runDetails/builder/id");
+ * Map&lt;String, List&lt;JsonNode&gt;&gt; values = projection.project(payload);
+ * </pre>
+ *
+ * <p>Only the selected values are materialized, as {@link JsonNode}s; every subtree that no pointer
+ * goes through is skipped by the parser. Instances are immutable and can be shared across threads.
+ */
+public final class StatementProjection {
+
+  private static final String WILDCARD = "*";
+
+  private final IntotoCodec codec;
+
+  private final List<String> pointers;
+
+  /** Root of the tree of pointer tokens. */
+  private final Node root = new Node();
+
+  private StatementProjection(IntotoCodec codec, List<String> pointers) {
+    this.codec = codec;
+    this.pointers = Collections.unmodifiableList(new ArrayList<>(pointers));
+    for (String pointer : this.pointers) {
+      Node node = root;
+      for (String token : parse(pointer)) {
+        node = node.children.computeIfAbsent(token, key -> new Node());
+      }
+      node.pointers.add(pointer);
+    }
+  }
+
+  /**
+   * Creates a projection parsing payloads with the default codec.
+   *
+   * @param pointers the JSON Pointers of the values to extract.
+   * @throws IllegalArgumentException thrown when a pointer is not a valid JSON Pointer.
+   */
+  public static StatementProjection of(String... pointers) {
+    return of(IntotoCodec.defaultCodec(), List.of(pointers));
+  }
+
+  /**
+   * Creates a projection parsing payloads with the given codec.
+   *
+   * @param codec the codec whose parsers are used.
+   * @param pointers the JSON Pointers of the values to extract.
+   * @throws IllegalArgumentException thrown when a pointer is not a valid JSON Pointer.
+   */
+  public static StatementProjection of(IntotoCodec codec, List<String> pointers) {
+    return new StatementProjection(Objects.requireNonNull(codec), pointers);
+  }
+
+  public List<String> getPointers() {
+    return pointers;
+  }
+
+  /**
+   * Extracts the selected values from a payload.
+   *
+   * @param json the UTF-8 encoded JSON payload.
+   * @return every pointer of the projection, in order, with the values it matched in document
+   *     order; pointers that matched nothing map to an empty list.
+   * @throws IOException thrown when the JSON is malformed.
+   */
+  public Map<String, List<JsonNode>> project(byte[] json) throws IOException {
+    return project(json, 0, json.length);
+  }
+
+  /** Extracts the selected values from a region of a byte array, see {@link #project(byte[])}. */
+  public Map<String, List<JsonNode>> project(byte[] json, int offset, int length)
+      throws IOException {
+    try (JsonParser parser = codec.createParser(json, offset, length)) {
+      return project(parser);
+    }
+  }
+
+  /**
+   * Extracts the selected values from a stream, see {@link #project(byte[])}. The stream is not
+   * closed.
+   */
+  public Map<String, List<JsonNode>> project(InputStream json) throws IOException {
+    try (JsonParser parser = codec.createParser(json)) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      return project(parser);
+    }
+  }
+
+  private Map<String, List<JsonNode>> project(JsonParser parser) throws IOException {
+    Map<String, List<JsonNode>> values = new LinkedHashMap<>();
+    for (String pointer : pointers) {
+      values.put(pointer, new ArrayList<>());
+    }
+    if (parser.nextToken() != null) {
+      visit(parser, List.of(root), values);
+    }
+    values.replaceAll((pointer, matches) -> Collections.unmodifiableList(matches));
+    return Collections.unmodifiableMap(values);
+  }
+
+  /**
+   * Visits the value the parser is positioned on, which the given pointer nodes all lead to, and
+   * leaves the parser on its last token.
+   */
+  private static void visit(JsonParser parser, List<Node> nodes, Map<String, List<JsonNode>> values)
+      throws IOException {
+    for (Node node : nodes) {
+      if (!node.pointers.isEmpty()) {
+        // The value itself is selected; materialize it once and match deeper pointers on it.
+        JsonNode tree = parser.readValueAsTree();
+        for (Node each : nodes) {
+          match(tree, each, values);
+        }
+        return;
+      }
+    }
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        List<Node> next = children(nodes, parser.getCurrentName());
+        parser.nextToken();
+        if (next.isEmpty()) {
+          parser.skipChildren();
+        } else {
+          visit(parser, next, values);
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      int index = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        List<Node> next = children(nodes, Integer.toString(index++));
+        if (next.isEmpty()) {
+          parser.skipChildren();
+        } else {
+          visit(parser, next, values);
+        }
+      }
+    }
+  }
+
+  /** Matches the pointers below a node against an already materialized value. */
+  private static void match(JsonNode tree, Node node, Map<String, List<JsonNode>> values) {
+    for (String pointer : node.pointers) {
+      values.get(pointer).add(tree);
+    }
+    for (Map.Entry<String, Node> child : node.children.entrySet()) {
+      if (WILDCARD.equals(child.getKey())) {
+        Iterator<JsonNode> elements = tree.elements();
+        while (elements.hasNext()) {
+          match(elements.next(), child.getValue(), values);
+        }
+      } else {
+        JsonNode value =
+            tree.isArray() ? arrayElement(tree, child.getKey()) : tree.get(child.getKey());
+        if (value != null) {
+          match(value, child.getValue(), values);
+        }
+      }
+    }
+  }
+
+  private static JsonNode arrayElement(JsonNode array, String token) {
+    try {
+      return array.get(Integer.parseInt(token));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static List<Node> children(List<Node> nodes, String token) {
+    List<Node> children = new ArrayList<>(2);
+    for (Node node : nodes) {
+      Node exact = node.children.get(token);
+      if (exact != null) {
+        children.add(exact);
+      }
+      Node wildcard = node.children.get(WILDCARD);
+      if (wildcard != null) {
+        children.add(wildcard);
+      }
+    }
+    return children;
+  }
+
+  /** Splits a JSON Pointer into its unescaped reference tokens. */
+  static List<String> parse(String pointer) {
+    if (pointer.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (pointer.charAt(0) != '/') {
+      throw new IllegalArgumentException("JSON Pointer must start with '/': " + pointer);
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String token : pointer.substring(1).split("/", -1)) {
+      tokens.add(token.replace("~1", "/").replace("~0", "~"));
+    }
+    return tokens;
+  }
+
+  /** A reference token of one or more pointers. */
+  private static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private final List<String> pointers = new ArrayList<>(1);
+  }
+}
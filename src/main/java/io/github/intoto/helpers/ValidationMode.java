@@ -0,0 +1,22 @@
+package io.github.intoto.helpers;
+
+import io.github.intoto.models.Statement;
+
+/** How an {@link IntotoCodec} validates a {@link Statement} before serializing it. */
+public enum ValidationMode {
+
+  /** Walks the whole Statement and reports every constraint violation. This is the default. */
+  FULL,
+
+  /**
+   * Stops at the first constraint violation and reports only that one. Invalid Statements are
+   * rejected sooner, at the cost of a less complete error message.
+   */
+  FAIL_FAST,
+
+  /**
+   * Skips validation. Only use it for Statements that are known to be valid, for instance because
+   * they were produced by code that already validated them.
+   */
+  TRUSTED
+}
@@ -49,6 +49,14 @@ public class Statement {
     return predicateType;
   }
 
+  /**
+   * Sets the predicateType of a Statement that has no predicate. {@link #setPredicate(Predicate)}
+   * replaces it with the type of the predicate.
+   */
+  public void setPredicateType(String predicateType) {
+    this.predicateType = predicateType;
+  }
+
   public Predicate getPredicate() {
     return predicate;
   }
@@ -73,7 +81,7 @@ public class Statement {
     Statement statement = (Statement) o;
     return _type == statement._type
         && subject.equals(statement.subject)
-        && predicateType == statement.predicateType
+        && Objects.equals(predicateType, statement.predicateType)
         && Objects.equals(predicate, statement.predicate);
   }
 
@@ -0,0 +1,104 @@
+package io.github.intoto.bundle;
+
+import static io.github.intoto.utilities.KeyUtilities.readPrivateKey;
+import static io.github.intoto.utilities.KeyUtilities.readPublicKey;
+import static io.github.intoto.utilities.StatementUtilities.createStatement;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.helpers.IntotoEnvelopeVerifier;
+import io.github.intoto.dsse.helpers.Keyring;
+import io.github.intoto.dsse.helpers.SimpleECDSASigner;
+import io.github.intoto.helpers.IntotoHelper;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BundleVerifierTest {
+
+  private KeyPair keyPair;
+
+  private IntotoEnvelopeVerifier verifier;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    ClassLoader classLoader = this.getClass().getClassLoader();
+    keyPair =
+        new KeyPair(
+            readPublicKey(
+                new File(Objects.requireNonNull(classLoader.getResource("public.pem")).getFile())),
+            readPrivateKey(
+                new File(
+                    Objects.requireNonNull(classLoader.getResource("p8private.pem")).getFile())));
+    verifier = new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+  }
+
+  @Test
+  @DisplayName("Every line of a bundle is verified and reported in bundle order")
+  public void verify_shouldReportLinesInOrder_whenBundleIsVerified(@TempDir Path dir)
+      throws Exception {
+    SimpleECDSASigner signer = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    SimpleECDSASigner otherSigner =
+        new SimpleECDSASigner(
+            KeyPairGenerator.getInstance("EC").generateKeyPair().getPrivate(), "MyKey");
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      lines.add(IntotoHelper.produceIntotoEnvelopeAsJson(createStatement(i), signer, false));
+    }
+    lines.set(
+        10, IntotoHelper.produceIntotoEnvelopeAsJson(createStatement(10), otherSigner, false));
+    lines.set(20, "{not json");
+    lines.add(30, "");
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    Files.write(bundle, lines, StandardCharsets.UTF_8);
+
+    List<BundleEntryResult> results = new ArrayList<>();
+    BundleVerificationSummary summary =
+        BundleVerifier.builder(verifier).window(8).build().verify(bundle, results::add);
+
+    assertEquals(200, results.size());
+    assertEquals(200, summary.getEnvelopes());
+    assertEquals(198, summary.getVerified());
+    assertEquals(1, summary.getRejected());
+    assertEquals(1, summary.getFailed());
+    assertTrue(summary.getEnvelopesPerSecond() > 0);
+    for (int i = 1; i < results.size(); i++) {
+      assertTrue(results.get(i - 1).getLineNumber() < results.get(i).getLineNumber());
+    }
+    assertFalse(results.get(10).isVerified());
+    assertNotNull(results.get(10).getVerificationResult());
+    assertFalse(results.get(20).isVerified());
+    assertNotNull(results.get(20).getException());
+    // The blank line is skipped but still counted in the line numbers.
+    assertEquals(32, results.get(30).getLineNumber());
+  }
+
+  @Test
+  @DisplayName("The example bundle verifies with the matching key")
+  public void verify_shouldVerifyExampleBundle() throws Exception {
+    String bundle = Files.readString(Path.of("intoto_example.intoto.jsonl"));
+
+    List<BundleEntryResult> results = new ArrayList<>();
+    BundleVerificationSummary summary =
+        BundleVerifier.builder(verifier).build().verify(new StringReader(bundle), results::add);
+
+    assertEquals(1, summary.getEnvelopes());
+    assertTrue(results.get(0).isVerified());
+  }
+}
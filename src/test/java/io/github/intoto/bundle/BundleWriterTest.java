@@ -0,0 +1,154 @@
+package io.github.intoto.bundle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import io.github.intoto.helpers.IntotoHelper;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.DigestSetAlgorithmType;
+import io.github.intoto.models.Statement;
+import io.github.intoto.models.Subject;
+import io.github.intoto.utilities.provenancev1.IntotoStubFactory;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BundleWriterTest {
+
+  @Test
+  @DisplayName("Envelopes appended by concurrent producers all end up as whole lines")
+  public void append_shouldWriteEveryEnvelope_whenProducersAreConcurrent(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    IntotoEnvelope envelope = createEnvelope();
+    int producers = 4;
+    int perProducer = 250;
+
+    List<CompletableFuture<Long>> offsets = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    try (BundleWriter writer =
+        BundleWriter.builder(bundle).syncInterval(Duration.ofMillis(1)).open()) {
+      List<Future<List<CompletableFuture<Long>>>> tasks = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        tasks.add(
+            executor.submit(
+                () -> {
+                  List<CompletableFuture<Long>> futures = new ArrayList<>();
+                  for (int i = 0; i < perProducer; i++) {
+                    futures.add(writer.append(envelope));
+                  }
+                  return futures;
+                }));
+      }
+      for (Future<List<CompletableFuture<Long>>> task : tasks) {
+        offsets.addAll(task.get());
+      }
+      CompletableFuture.allOf(offsets.toArray(new CompletableFuture[0])).join();
+    } finally {
+      executor.shutdown();
+    }
+
+    List<String> lines = Files.readAllLines(bundle, StandardCharsets.UTF_8);
+    assertEquals(producers * perProducer, lines.size());
+    IntotoCodec codec = IntotoCodec.defaultCodec();
+    for (String line : lines) {
+      assertEquals(envelope, codec.readEnvelope(line));
+    }
+    byte[] bytes = Files.readAllBytes(bundle);
+    Set<Long> distinct = new HashSet<>();
+    for (CompletableFuture<Long> offset : offsets) {
+      long value = offset.join();
+      distinct.add(value);
+      assertEquals('{', bytes[(int) value]);
+    }
+    assertEquals(offsets.size(), distinct.size());
+  }
+
+  @Test
+  @DisplayName("A torn trailing line left by a crash is dropped when the bundle is opened")
+  public void open_shouldTruncateTornLine_whenBundleEndsWithoutLineFeed(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    IntotoEnvelope envelope = createEnvelope();
+    try (BundleWriter writer = BundleWriter.builder(bundle).open()) {
+      writer.append(envelope).join();
+    }
+    long validSize = Files.size(bundle);
+    try (FileChannel channel = FileChannel.open(bundle, StandardOpenOption.APPEND)) {
+      channel.write(StandardCharsets.UTF_8.encode("{\"payloadType\":\"applic"));
+    }
+
+    long offset;
+    try (BundleWriter writer = BundleWriter.builder(bundle).open()) {
+      offset = writer.append(envelope).join();
+    }
+
+    assertEquals(validSize, offset);
+    List<String> lines = Files.readAllLines(bundle, StandardCharsets.UTF_8);
+    assertEquals(2, lines.size());
+    for (String line : lines) {
+      assertEquals(envelope, IntotoCodec.defaultCodec().readEnvelope(line));
+    }
+  }
+
+  @Test
+  @DisplayName("A complete last line without a line feed is kept when the bundle is opened")
+  public void open_shouldKeepLastLine_whenItIsCompleteJsonWithoutLineFeed(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("example.intoto.jsonl");
+    Files.copy(Paths.get("intoto_example.intoto.jsonl"), bundle);
+    byte[] original = Files.readAllBytes(bundle);
+    IntotoEnvelope envelope = createEnvelope();
+
+    long offset;
+    try (BundleWriter writer = BundleWriter.builder(bundle).open()) {
+      offset = writer.append(envelope).join();
+    }
+
+    assertEquals(original.length + 1, offset);
+    List<String> lines = Files.readAllLines(bundle, StandardCharsets.UTF_8);
+    assertEquals(2, lines.size());
+    assertEquals(new String(original, StandardCharsets.UTF_8).trim(), lines.get(0));
+    assertEquals(envelope, IntotoCodec.defaultCodec().readEnvelope(lines.get(1)));
+  }
+
+  @Test
+  @DisplayName("A closed writer rejects appends")
+  public void append_shouldThrow_whenWriterIsClosed(@TempDir Path dir) throws Exception {
+    BundleWriter writer = BundleWriter.builder(dir.resolve("release.intoto.jsonl")).open();
+    writer.close();
+
+    assertThrows(IllegalStateException.class, () -> writer.append(createEnvelope()));
+  }
+
+  private static IntotoEnvelope createEnvelope() throws Exception {
+    Subject subject = new Subject();
+    subject.setName("curl-7.72.0.tar.bz2");
+    subject.setDigest(
+        Map.of(
+            DigestSetAlgorithmType.SHA256.getValue(),
+            "d4d5899a3868fbb6ae1856c3e55a32ce35913de3956d1973caccd37bd0174fa2"));
+    Statement statement = new Statement();
+    statement.setSubject(List.of(subject));
+    statement.setPredicate(IntotoStubFactory.createSimpleProvenancePredicate());
+    return IntotoHelper.produceIntotoEnvelope(statement, new FakeSigner());
+  }
+}
@@ -0,0 +1,199 @@
+package io.github.intoto.bundle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import io.github.intoto.helpers.IntotoHelper;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.DigestSetAlgorithmType;
+import io.github.intoto.models.Statement;
+import io.github.intoto.models.Subject;
+import io.github.intoto.utilities.provenancev1.IntotoStubFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedBundleReaderTest {
+
+  @Test
+  @DisplayName("Lines are returned by number, straight from the mapped bundle")
+  public void line_shouldReturnLine_whenBundleIsIndexed(@TempDir Path dir) throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    List<String> lines = writeBundle(bundle, 0, 50);
+    // A line that is still being written is not visible.
+    Files.writeString(bundle, "{\"payloadType\"", StandardOpenOption.APPEND);
+
+    MappedBundleReader reader = MappedBundleReader.open(bundle);
+
+    assertEquals(50, reader.size());
+    assertTrue(Files.exists(MappedBundleReader.indexPath(bundle)));
+    for (int i = 0; i < lines.size(); i++) {
+      assertEquals(lines.get(i), decode(reader.line(i)));
+    }
+    assertEquals(lines.subList(10, 20), decodeAll(reader.lines(10, 20)));
+    IntotoEnvelope envelope = reader.readEnvelope(7, IntotoCodec.defaultCodec());
+    assertEquals(IntotoCodec.defaultCodec().readEnvelope(lines.get(7)), envelope);
+    assertThrows(IndexOutOfBoundsException.class, () -> reader.line(50));
+  }
+
+  @Test
+  @DisplayName("Reopening a grown bundle extends the existing index")
+  public void open_shouldExtendIndex_whenBundleGrew(@TempDir Path dir) throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    List<String> lines = new ArrayList<>(writeBundle(bundle, 0, 20));
+    assertEquals(20, MappedBundleReader.open(bundle).size());
+    long indexSize = Files.size(MappedBundleReader.indexPath(bundle));
+
+    lines.addAll(writeBundle(bundle, 20, 30));
+    MappedBundleReader reader = MappedBundleReader.open(bundle);
+
+    assertEquals(30, reader.size());
+    assertEquals(indexSize + 10 * Long.BYTES, Files.size(MappedBundleReader.indexPath(bundle)));
+    for (int i = 0; i < lines.size(); i++) {
+      assertEquals(lines.get(i), decode(reader.line(i)));
+    }
+  }
+
+  @Test
+  @DisplayName("A last line without a line feed is read but not indexed")
+  public void line_shouldReturnLastLine_whenItLacksLineFeed(@TempDir Path dir) throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    List<String> lines = new ArrayList<>(writeBundle(bundle, 0, 10));
+    String last = IntotoCodec.defaultCodec().toJson(createEnvelope(10), false);
+    Files.writeString(bundle, last, StandardOpenOption.APPEND);
+    lines.add(last);
+
+    MappedBundleReader reader = MappedBundleReader.open(bundle);
+
+    assertEquals(11, reader.size());
+    assertEquals(Files.size(bundle), reader.length());
+    assertEquals(lines, decodeAll(reader.lines(0, 11)));
+
+    long indexSize = Files.size(MappedBundleReader.indexPath(bundle));
+    Files.writeString(bundle, "\n", StandardOpenOption.APPEND);
+    reader = MappedBundleReader.open(bundle);
+
+    assertEquals(11, reader.size());
+    assertEquals(lines, decodeAll(reader.lines(0, 11)));
+    assertEquals(indexSize + Long.BYTES, Files.size(MappedBundleReader.indexPath(bundle)));
+  }
+
+  @Test
+  @DisplayName("An index left by a bundle that was rewritten in place is rebuilt")
+  public void open_shouldRebuildIndex_whenBundleWasRewritten(@TempDir Path dir) throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    writeBundle(bundle, 0, 20);
+    assertEquals(20, MappedBundleReader.open(bundle).size());
+
+    Files.write(bundle, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+    List<String> lines = writeBundle(bundle, 100, 130);
+    MappedBundleReader reader = MappedBundleReader.open(bundle);
+
+    assertEquals(30, reader.size());
+    assertEquals(lines, decodeAll(reader.lines(0, 30)));
+  }
+
+  @Test
+  @DisplayName("An index is rebuilt when a rewrite keeps the first and last lines but moves others")
+  public void open_shouldRebuildIndex_whenMiddleLinesWereRewritten(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    List<String> lines = writeBundle(bundle, 0, 4);
+    assertEquals(4, MappedBundleReader.open(bundle).size());
+    FileTime modified = Files.getLastModifiedTime(bundle);
+
+    // Same size, first and last lines, but the two middle lines are joined into one.
+    String joined = lines.get(1) + " " + lines.get(2);
+    Files.writeString(
+        bundle,
+        String.join("\n", lines.get(0), joined, lines.get(3)) + "\n",
+        StandardOpenOption.TRUNCATE_EXISTING);
+    Files.setLastModifiedTime(bundle, FileTime.fromMillis(modified.toMillis() + 1_000));
+    MappedBundleReader reader = MappedBundleReader.open(bundle);
+
+    assertEquals(3, reader.size());
+    assertEquals(List.of(lines.get(0), joined, lines.get(3)), decodeAll(reader.lines(0, 3)));
+  }
+
+  @Test
+  @DisplayName("A bundle whose index cannot be written is indexed in memory")
+  public void open_shouldIndexInMemory_whenIndexIsNotWritable(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    List<String> lines = writeBundle(bundle, 0, 10);
+    Files.createDirectory(MappedBundleReader.indexPath(bundle));
+
+    MappedBundleReader reader = MappedBundleReader.open(bundle);
+
+    assertEquals(10, reader.size());
+    assertEquals(lines, decodeAll(reader.lines(0, 10)));
+  }
+
+  @Test
+  @DisplayName("Small segments and chunks still cover every line exactly once")
+  public void split_shouldCoverAllLines_whenSegmentsAreSmall(@TempDir Path dir) throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    List<String> lines = writeBundle(bundle, 0, 40);
+
+    MappedBundleReader reader = MappedBundleReader.open(bundle, 8 * 1024);
+    List<MappedBundleReader.Chunk> chunks = reader.split(6);
+
+    assertEquals(6, chunks.size());
+    List<String> read = new ArrayList<>();
+    int expectedFrom = 0;
+    for (MappedBundleReader.Chunk chunk : chunks) {
+      assertEquals(expectedFrom, chunk.getFromLine());
+      read.addAll(decodeAll(reader.lines(chunk.getFromLine(), chunk.getToLine())));
+      expectedFrom = chunk.getToLine();
+    }
+    assertEquals(lines, read);
+  }
+
+  private static List<String> writeBundle(Path bundle, int from, int to) throws Exception {
+    IntotoCodec codec = IntotoCodec.defaultCodec();
+    List<String> lines = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      lines.add(codec.toJson(createEnvelope(i), false));
+    }
+    Files.write(
+        bundle,
+        lines,
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+    return lines;
+  }
+
+  private static String decode(ByteBuffer line) {
+    return StandardCharsets.UTF_8.decode(line).toString();
+  }
+
+  private static List<String> decodeAll(List<ByteBuffer> lines) {
+    List<String> decoded = new ArrayList<>();
+    lines.forEach(line -> decoded.add(decode(line)));
+    return decoded;
+  }
+
+  private static IntotoEnvelope createEnvelope(int index) throws Exception {
+    Subject subject = new Subject();
+    subject.setName("artifact-" + index + ".tar.gz");
+    subject.setDigest(
+        Map.of(DigestSetAlgorithmType.SHA256.getValue(), String.format("%064x", index)));
+    Statement statement = new Statement();
+    statement.setSubject(List.of(subject));
+    statement.setPredicate(IntotoStubFactory.createSimpleProvenancePredicate());
+    return IntotoHelper.produceIntotoEnvelope(statement, new FakeSigner());
+  }
+}
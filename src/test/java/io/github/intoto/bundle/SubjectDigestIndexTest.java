@@ -0,0 +1,295 @@
+package io.github.intoto.bundle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import io.github.intoto.helpers.IntotoHelper;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.DigestSetAlgorithmType;
+import io.github.intoto.models.Statement;
+import io.github.intoto.models.Subject;
+import io.github.intoto.utilities.provenancev1.IntotoStubFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SubjectDigestIndexTest {
+
+  @Test
+  @DisplayName("Subject digests are looked up to the envelopes that attest them")
+  public void lookup_shouldFindEnvelope_whenSubjectDigestIsIndexed(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    appendEnvelopes(bundle, 0, 10);
+    Path indexFile = dir.resolve("subjects.idx");
+
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(indexFile)) {
+      assertEquals(10, index.update(bundle));
+      assertEquals(0, index.update(bundle));
+
+      List<SubjectDigestIndex.Location> found = index.lookup("sha256", sha256(3));
+      assertEquals(1, found.size());
+      assertEquals(bundle.toAbsolutePath(), found.get(0).getBundle());
+      MappedBundleReader reader = MappedBundleReader.open(bundle);
+      assertEquals(reader.offset(3), found.get(0).getOffset());
+      // Both digests of the subject are indexed, and values are matched ignoring case.
+      List<SubjectDigestIndex.Location> bySha512 = index.lookup(sha512(3).toUpperCase());
+      assertEquals(1, bySha512.size());
+      assertEquals("sha512", bySha512.get(0).getAlgorithm());
+      assertEquals(found.get(0).getOffset(), bySha512.get(0).getOffset());
+      assertTrue(index.lookup("sha512", sha256(3)).isEmpty());
+      assertTrue(index.lookup(sha256(42)).isEmpty());
+    }
+  }
+
+  @Test
+  @DisplayName("Reopened indexes keep their entries and only read appended lines")
+  public void update_shouldIndexAppendedLines_whenIndexIsReopened(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    Path indexFile = dir.resolve("subjects.idx");
+    appendEnvelopes(bundle, 0, 5);
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(indexFile)) {
+      index.update(bundle);
+    }
+    appendEnvelopes(bundle, 5, 8);
+    // A torn record left by a crash is dropped.
+    Files.writeString(indexFile, "D\t0\t12", StandardOpenOption.APPEND);
+
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(indexFile)) {
+      assertEquals(1, index.lookup(sha256(2)).size());
+      assertTrue(index.lookup(sha256(6)).isEmpty());
+
+      assertEquals(3, index.update(bundle));
+
+      assertEquals(1, index.lookup(sha256(6)).size());
+      assertEquals(Files.size(bundle), index.indexedLength(bundle));
+    }
+  }
+
+  @Test
+  @DisplayName("Digest algorithms are matched ignoring case")
+  public void lookup_shouldIgnoreAlgorithmCase_whenStatementUsesUpperCase(@TempDir Path dir)
+      throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    String payload =
+        "{\"_type\":\"https://in-toto.io/Statement/v0.1\",\"subject\":[{\"name\":\"a\","
+            + "\"digest\":{\"SHA256\":\""
+            + sha256(1)
+            + "\"}}],\"predicateType\":\"https://example.com/unknown\"}";
+    IntotoEnvelope envelope = new IntotoEnvelope();
+    envelope.setPayload(
+        Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8)));
+    Files.writeString(bundle, IntotoCodec.defaultCodec().toJson(envelope, false) + "\n");
+    Path indexFile = dir.resolve("subjects.idx");
+
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(indexFile)) {
+      index.update(bundle);
+      assertEquals(1, index.lookup("sha256", sha256(1)).size());
+      assertEquals(1, index.lookup("Sha256", sha256(1)).size());
+      assertEquals("sha256", index.lookup(sha256(1)).get(0).getAlgorithm());
+    }
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(indexFile)) {
+      assertEquals(1, index.lookup("SHA256", sha256(1)).size());
+    }
+  }
+
+  @Test
+  @DisplayName("Bundle paths that would break the index records are rejected")
+  public void update_shouldThrow_whenBundlePathContainsTab(@TempDir Path dir) throws Exception {
+    Path bundle = dir.resolve("release\t1.intoto.jsonl");
+    appendEnvelopes(bundle, 0, 1);
+
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(dir.resolve("subjects.idx"))) {
+      assertThrows(IllegalArgumentException.class, () -> index.update(bundle));
+      assertTrue(index.lookup(sha256(0)).isEmpty());
+    }
+  }
+
+  @Test
+  @DisplayName("A failed write leaves no records behind, so the index can still be reopened")
+  public void update_shouldRollBackLog_whenWriteFails(@TempDir Path dir) throws Exception {
+    Path bundle = dir.resolve("release.intoto.jsonl");
+    appendEnvelopes(bundle, 0, 5);
+    Path indexFile = dir.resolve("subjects.idx");
+    FailingChannel log =
+        new FailingChannel(
+            FileChannel.open(
+                indexFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(log, IntotoCodec.defaultCodec())) {
+      log.failWrites = true;
+      assertThrows(IOException.class, () -> index.update(bundle));
+      assertEquals(0, Files.size(indexFile));
+
+      log.failWrites = false;
+      assertEquals(5, index.update(bundle));
+    }
+
+    try (SubjectDigestIndex index = SubjectDigestIndex.open(indexFile)) {
+      assertEquals(1, index.lookup(sha256(2)).size());
+      assertEquals(Files.size(bundle), index.indexedLength(bundle));
+    }
+  }
+
+  private static void appendEnvelopes(Path bundle, int from, int to) throws Exception {
+    IntotoCodec codec = IntotoCodec.defaultCodec();
+    List<String> lines = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      Subject subject = new Subject();
+      subject.setName("artifact-" + i + ".tar.gz");
+      subject.setDigest(
+          Map.of(
+              DigestSetAlgorithmType.SHA256.getValue(), sha256(i),
+              DigestSetAlgorithmType.SHA512.getValue(), sha512(i)));
+      Statement statement = new Statement();
+      statement.setSubject(List.of(subject));
+      statement.setPredicate(IntotoStubFactory.createSimpleProvenancePredicate());
+      lines.add(
+          codec.toJson(IntotoHelper.produceIntotoEnvelope(statement, new FakeSigner()), false));
+    }
+    Files.write(
+        bundle,
+        lines,
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  /** A log that writes half of a buffer and then fails while {@code failWrites} is set. */
+  private static class FailingChannel extends FileChannel {
+    private final FileChannel delegate;
+    private volatile boolean failWrites;
+
+    FailingChannel(FileChannel delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      if (!failWrites) {
+        return delegate.write(src);
+      }
+      ByteBuffer half = src.duplicate();
+      half.limit(src.position() + src.remaining() / 2);
+      delegate.write(half);
+      throw new IOException("disk full");
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return delegate.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+      return delegate.read(dsts, offset, length);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long position() throws IOException {
+      return delegate.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      delegate.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return delegate.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+      delegate.truncate(size);
+      return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      delegate.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+        throws IOException {
+      return delegate.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count)
+        throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      return delegate.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+      if (failWrites) {
+        throw new IOException("disk full");
+      }
+      return delegate.write(src, position);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+      return delegate.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+      return delegate.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+      return delegate.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      delegate.close();
+    }
+  }
+
+  private static String sha256(int index) {
+    return String.format("%064x", index);
+  }
+
+  private static String sha512(int index) {
+    return String.format("%0128x", 1000 + index);
+  }
+}
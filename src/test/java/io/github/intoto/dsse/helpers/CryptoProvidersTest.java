@@ -0,0 +1,117 @@
+package io.github.intoto.dsse.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.time.Duration;
+import java.util.List;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CryptoProvidersTest {
+
+  @BeforeEach
+  public void setup() {
+    Security.addProvider(new BouncyCastleProvider());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    CryptoProviders.clearProviders();
+  }
+
+  @Test
+  @DisplayName("Test that configured providers serve digests and signature engines")
+  public void setProvider_shouldBeUsedForNewEngines() throws Exception {
+    CryptoProviders.setProvider("SHA-256", "BC");
+    CryptoProviders.setProvider("sha256withecdsa", "BC");
+
+    Assertions.assertEquals(
+        "BC", CryptoProviders.newMessageDigest("SHA-256").getProvider().getName());
+    Assertions.assertEquals(
+        "BC", SignatureAlgorithms.newSignature("SHA256withECDSA").getProvider().getName());
+
+    KeyPair keyPair = KeyPairGenerator.getInstance("EC").generateKeyPair();
+    byte[] message = "hello world".getBytes(StandardCharsets.UTF_8);
+    byte[] signature = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey").sign(message);
+    Assertions.assertTrue(
+        new SimpleECDSAVerifier().verify(keyPair.getPublic(), message, signature));
+
+    CryptoProviders.Selection selection = find("SHA-256");
+    Assertions.assertEquals("BC", selection.getProviderName());
+    Assertions.assertEquals(CryptoProviders.Source.CONFIGURED, selection.getSource());
+
+    CryptoProviders.clearProvider("SHA-256");
+    Assertions.assertEquals(CryptoProviders.Source.DEFAULT, find("SHA-256").getSource());
+  }
+
+  @Test
+  @DisplayName("Test that providers that are not installed are rejected or reported")
+  public void setProvider_shouldFail_whenProviderIsNotInstalled() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> CryptoProviders.setProvider("SHA-256", "No-Such-Provider"));
+
+    Provider empty = new Provider("Empty", "1.0", "provides nothing") {};
+    CryptoProviders.setProvider("SHA-256", empty);
+    Assertions.assertThrows(
+        NoSuchAlgorithmException.class, () -> CryptoProviders.newMessageDigest("SHA-256"));
+  }
+
+  @Test
+  @DisplayName("Test that the benchmark selects one of the measured providers")
+  public void selectFastest_shouldSelectMeasuredProvider() throws Exception {
+    List<CryptoProviders.Selection> selections =
+        CryptoProviders.selectFastest(
+            List.of("SHA256withECDSA", "NoSuchAlgorithm"),
+            List.of("SHA-256"),
+            Duration.ofMillis(20));
+
+    Assertions.assertEquals(2, selections.size());
+    for (CryptoProviders.Selection selection : selections) {
+      Assertions.assertEquals(CryptoProviders.Source.BENCHMARK, selection.getSource());
+      Assertions.assertTrue(selection.getMeasurements().containsKey(selection.getProviderName()));
+      long fastest =
+          selection.getMeasurements().values().stream()
+              .mapToLong(Long::longValue)
+              .min()
+              .getAsLong();
+      Assertions.assertEquals(
+          fastest, (long) selection.getMeasurements().get(selection.getProviderName()));
+    }
+    Assertions.assertEquals(
+        find("SHA-256").getProviderName(),
+        CryptoProviders.newMessageDigest("SHA-256").getProvider().getName());
+    Assertions.assertTrue(CryptoProviders.describe().contains("SHA-256: "));
+  }
+
+  @Test
+  @DisplayName("Test that the benchmark keeps providers that were set explicitly")
+  public void selectFastest_shouldKeepConfiguredProvider() throws Exception {
+    CryptoProviders.setProvider("SHA-256", "BC");
+
+    List<CryptoProviders.Selection> selections =
+        CryptoProviders.selectFastest(List.of(), List.of("sha-256"), Duration.ofMillis(20));
+
+    Assertions.assertTrue(selections.isEmpty());
+    CryptoProviders.Selection selection = find("SHA-256");
+    Assertions.assertEquals("BC", selection.getProviderName());
+    Assertions.assertEquals(CryptoProviders.Source.CONFIGURED, selection.getSource());
+    Assertions.assertEquals(
+        "BC", CryptoProviders.newMessageDigest("SHA-256").getProvider().getName());
+  }
+
+  private static CryptoProviders.Selection find(String algorithm) {
+    return CryptoProviders.getSelections().stream()
+        .filter(selection -> selection.getAlgorithm().equals(algorithm))
+        .findFirst()
+        .orElseThrow();
+  }
+}
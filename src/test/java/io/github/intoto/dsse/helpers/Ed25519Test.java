@@ -0,0 +1,115 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoHelper;
+import io.github.intoto.utilities.StatementUtilities;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class Ed25519Test {
+
+  private KeyPair keyPair;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+  }
+
+  @Test
+  @DisplayName("Test Ed25519 signing of a payload through the Pre-Authentication Encoding")
+  public void ed25519_signPayload_shouldVerify_whenGivenEncodedPublicKey() throws Exception {
+    String payloadType = "application/vnd.in-toto+json";
+    byte[] payload =
+        "{\"_type\":\"Entwickeln Sie mit Vergnügen\"}".getBytes(StandardCharsets.UTF_8);
+
+    Ed25519Signer signer = new Ed25519Signer(keyPair.getPrivate(), "MyKey");
+    byte[] encryptedMessage = signer.sign(payloadType, payload);
+    Assertions.assertArrayEquals(
+        signer.sign(PreAuthenticationEncoding.encode(payloadType, payload)), encryptedMessage);
+
+    Ed25519Verifier verifier = new Ed25519Verifier("MyKey");
+    Assertions.assertEquals("MyKey", verifier.getKeyId());
+    Assertions.assertTrue(
+        verifier.verify(keyPair.getPublic().getEncoded(), encryptedMessage, payloadType, payload));
+    Assertions.assertTrue(
+        verifier.verifyPayload(keyPair.getPublic(), payloadType, payload, encryptedMessage));
+    Assertions.assertFalse(
+        verifier.verify(
+            keyPair.getPublic().getEncoded(),
+            encryptedMessage,
+            payloadType,
+            "tampered".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  @DisplayName("Test that envelopes signed with Ed25519 are verified with the default algorithm")
+  public void ed25519_produceIntotoEnvelope_shouldBeVerifiedByIntotoEnvelopeVerifier()
+      throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            StatementUtilities.createStatement(), new Ed25519Signer(keyPair.getPrivate(), "MyKey"));
+
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+    Assertions.assertTrue(verifier.verify(envelope).isVerified());
+  }
+
+  @Test
+  @DisplayName("Test Ed25519 batch verification on the calling thread")
+  public void verifyBatch_shouldReportEachEntry_whenSomeAreInvalid() throws Exception {
+    Ed25519Signer signer = new Ed25519Signer(keyPair.getPrivate(), "MyKey");
+    KeyPair otherKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+    KeyPair rsaKeyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+    byte[] message = "hello world".getBytes(StandardCharsets.UTF_8);
+    byte[] signature = signer.sign(message);
+
+    List<Ed25519Verifier.BatchEntry> entries =
+        List.of(
+            new Ed25519Verifier.BatchEntry(keyPair.getPublic(), message, signature),
+            new Ed25519Verifier.BatchEntry(otherKeyPair.getPublic(), message, signature),
+            new Ed25519Verifier.BatchEntry(rsaKeyPair.getPublic(), message, signature),
+            new Ed25519Verifier.BatchEntry(keyPair.getPublic(), message, new byte[3]),
+            new Ed25519Verifier.BatchEntry(keyPair.getPublic(), message, signature));
+
+    boolean[] results = new Ed25519Verifier().verifyBatch(entries);
+    Assertions.assertArrayEquals(new boolean[] {true, false, false, false, true}, results);
+  }
+
+  @Test
+  @DisplayName("Test Ed25519 batch verification split across an executor")
+  public void verifyBatch_shouldKeepEntryOrder_whenSplitIntoChunks() throws Exception {
+    KeyPair otherKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+    Ed25519Signer signer = new Ed25519Signer(keyPair.getPrivate(), "MyKey");
+    Ed25519Signer otherSigner = new Ed25519Signer(otherKeyPair.getPrivate(), "OtherKey");
+
+    List<Ed25519Verifier.BatchEntry> entries = new ArrayList<>();
+    boolean[] expected = new boolean[1000];
+    for (int i = 0; i < expected.length; i++) {
+      byte[] message = ("message " + i).getBytes(StandardCharsets.UTF_8);
+      // Every third message is signed with a key the entry does not name.
+      expected[i] = i % 3 != 0;
+      byte[] signature = expected[i] ? signer.sign(message) : otherSigner.sign(message);
+      entries.add(new Ed25519Verifier.BatchEntry(keyPair.getPublic(), message, signature));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Assertions.assertArrayEquals(expected, new Ed25519Verifier().verifyBatch(entries, executor));
+    } finally {
+      executor.shutdown();
+    }
+    Assertions.assertEquals(0, new Ed25519Verifier().verifyBatch(List.of()).length);
+  }
+}
@@ -0,0 +1,191 @@
+package io.github.intoto.dsse.helpers;
+
+import static io.github.intoto.utilities.KeyUtilities.readPrivateKey;
+import static io.github.intoto.utilities.KeyUtilities.readPublicKey;
+import static io.github.intoto.utilities.StatementUtilities.createStatement;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.dsse.models.Signature;
+import io.github.intoto.dsse.models.Signer;
+import io.github.intoto.helpers.IntotoCodec;
+import io.github.intoto.helpers.IntotoHelper;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Security;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntotoEnvelopeVerifierTest {
+
+  private KeyPair keyPair;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    ClassLoader classLoader = this.getClass().getClassLoader();
+    keyPair =
+        new KeyPair(
+            readPublicKey(
+                new File(Objects.requireNonNull(classLoader.getResource("public.pem")).getFile())),
+            readPrivateKey(
+                new File(
+                    Objects.requireNonNull(classLoader.getResource("p8private.pem")).getFile())));
+  }
+
+  @Test
+  @DisplayName("Verifies the example attestation with a keyring")
+  public void verify_shouldVerifyExampleAttestation() throws Exception {
+    IntotoEnvelope envelope =
+        IntotoCodec.defaultCodec()
+            .readEnvelope(Files.readAllBytes(Paths.get("intoto_example.intoto.jsonl")));
+    Keyring keyring = new Keyring().add("MyKey", keyPair.getPublic().getEncoded(), "EC");
+
+    VerificationResult result = new IntotoEnvelopeVerifier(keyring).verify(envelope);
+
+    assertTrue(result.isVerified());
+    assertEquals(List.of("MyKey"), result.getVerifiedKeyIds());
+  }
+
+  @Test
+  @DisplayName("Rejects tampered payloads, unknown keys and malformed signatures")
+  public void verify_shouldReject_whenEnvelopeDoesNotMatchKeyring() throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatement(), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    KeyPair otherKeyPair = KeyPairGenerator.getInstance("EC").generateKeyPair();
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+    assertTrue(verifier.verify(envelope).isVerified());
+
+    IntotoEnvelope tampered = copy(envelope);
+    tampered.setPayload(Base64.getEncoder().encodeToString("{}".getBytes()));
+    assertFalse(verifier.verify(tampered).isVerified());
+
+    IntotoEnvelopeVerifier wrongKey =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", otherKeyPair.getPublic()));
+    assertFalse(wrongKey.verify(envelope).isVerified());
+
+    IntotoEnvelope unknownKeyId = copy(envelope);
+    unknownKeyId.getSignatures().get(0).setKeyId("OtherKey");
+    assertFalse(verifier.verify(unknownKeyId).isVerified());
+
+    IntotoEnvelope malformed = copy(envelope);
+    malformed.getSignatures().get(0).setSig("not base64!");
+    assertFalse(verifier.verify(malformed).isVerified());
+  }
+
+  @Test
+  @DisplayName("Signatures without keyid are tried against every key")
+  public void verify_shouldTryAllKeys_whenSignatureHasNoKeyId() throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatement(), new SimpleECDSASigner(keyPair.getPrivate(), null));
+    Keyring keyring =
+        new Keyring()
+            .add("other", KeyPairGenerator.getInstance("EC").generateKeyPair().getPublic())
+            .add("MyKey", keyPair.getPublic());
+
+    VerificationResult result = new IntotoEnvelopeVerifier(keyring).verify(envelope);
+
+    assertTrue(result.isVerified());
+    assertEquals(List.of("MyKey"), result.getVerifiedKeyIds());
+  }
+
+  @Test
+  @DisplayName("A k-of-n threshold is met by distinct trusted keys")
+  public void verify_shouldMeetThreshold_whenEnoughDistinctKeysSigned() throws Exception {
+    KeyPair second = KeyPairGenerator.getInstance("EC").generateKeyPair();
+    KeyPair third = KeyPairGenerator.getInstance("EC").generateKeyPair();
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatement(),
+            List.of(
+                new SimpleECDSASigner(keyPair.getPrivate(), "first"),
+                new SimpleECDSASigner(second.getPrivate(), "second"),
+                new SimpleECDSASigner(third.getPrivate(), "unknown")),
+            Runnable::run,
+            Duration.ofSeconds(10));
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(
+            new Keyring().add("first", keyPair.getPublic()).add("second", second.getPublic()));
+
+    VerificationResult twoOfThree = verifier.verify(envelope, 2);
+    assertTrue(twoOfThree.isVerified());
+    assertEquals(2, twoOfThree.getThreshold());
+    assertEquals(Set.of("first", "second"), Set.copyOf(twoOfThree.getVerifiedKeyIds()));
+
+    // The signature of the unknown key can never count, so the outcome is decided up front.
+    VerificationResult threeOfThree = verifier.verify(envelope, 3);
+    assertFalse(threeOfThree.isVerified());
+    assertTrue(threeOfThree.getVerifiedKeyIds().isEmpty());
+
+    VerificationResult oneOfThree = verifier.verify(envelope, 1);
+    assertTrue(oneOfThree.isVerified());
+    assertEquals(1, oneOfThree.getVerifiedKeyIds().size());
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      VerificationResult parallel = verifier.verify(envelope, 2, executor);
+      assertTrue(parallel.isVerified());
+      assertEquals(Set.of("first", "second"), Set.copyOf(parallel.getVerifiedKeyIds()));
+      assertFalse(verifier.verify(envelope, 3, executor).isVerified());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("Two signatures by the same key count once towards the threshold")
+  public void verify_shouldCountKeyOnce_whenKeySignedTwice() throws Exception {
+    Signer signer = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatement(), List.of(signer, signer), Runnable::run, Duration.ofSeconds(10));
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+
+    assertEquals(List.of("MyKey"), verifier.verify(envelope, 1).getVerifiedKeyIds());
+    // A single distinct key can never meet a threshold of two, so nothing needs to be checked.
+    VerificationResult result = verifier.verify(envelope, 2);
+    assertFalse(result.isVerified());
+    assertTrue(result.getVerifiedKeyIds().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Cheaper algorithms are checked first")
+  public void verificationCost_shouldOrderEd25519BeforeEcdsaBeforeRsa() throws Exception {
+    PublicKey key = keyPair.getPublic();
+    int ed25519 = IntotoEnvelopeVerifier.verificationCost(new TrustedKey("a", key, "Ed25519"));
+    int ecdsa = IntotoEnvelopeVerifier.verificationCost(new TrustedKey("b", key));
+    int rsa = IntotoEnvelopeVerifier.verificationCost(new TrustedKey("c", key, "SHA256withRSA"));
+
+    assertTrue(ed25519 < ecdsa);
+    assertTrue(ecdsa < rsa);
+  }
+
+  private static IntotoEnvelope copy(IntotoEnvelope envelope) {
+    IntotoEnvelope copy = new IntotoEnvelope();
+    copy.setPayload(envelope.getPayload());
+    Signature signature = new Signature();
+    signature.setSig(envelope.getSignatures().get(0).getSig());
+    signature.setKeyId(envelope.getSignatures().get(0).getKeyId());
+    copy.setSignatures(List.of(signature));
+    return copy;
+  }
+}
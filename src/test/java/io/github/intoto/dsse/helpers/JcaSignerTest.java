@@ -0,0 +1,111 @@
+package io.github.intoto.dsse.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class JcaSignerTest {
+
+  private KeyPair keyPair;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    keyPair = KeyPairGenerator.getInstance("EC").generateKeyPair();
+  }
+
+  @Test
+  @DisplayName("Test that sequential signatures reuse a single pooled engine")
+  public void sign_shouldReuseEngine_whenCalledSequentially() throws Exception {
+    SimpleECDSASigner signer = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
+    for (int i = 0; i < 10; i++) {
+      byte[] message = ("message " + i).getBytes(StandardCharsets.UTF_8);
+      byte[] signature = signer.sign("text/plain", message);
+      Assertions.assertTrue(
+          verifier.verifyPayload(keyPair.getPublic(), "text/plain", message, signature));
+    }
+    Assertions.assertEquals(1, signer.idleEngines());
+    Assertions.assertEquals(1, verifier.pooledKeys());
+  }
+
+  @Test
+  @DisplayName("Test that pooled engines are not shared between concurrent calls")
+  public void sign_shouldProduceValidSignatures_whenCalledConcurrently() throws Exception {
+    SimpleECDSASigner signer = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        byte[] message = ("message " + i).getBytes(StandardCharsets.UTF_8);
+        results.add(
+            executor.submit(
+                () -> verifier.verify(keyPair.getPublic(), message, signer.sign(message))));
+      }
+      for (Future<Boolean> result : results) {
+        Assertions.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assertions.assertTrue(signer.idleEngines() >= 1);
+    Assertions.assertTrue(signer.idleEngines() <= Runtime.getRuntime().availableProcessors());
+  }
+
+  @Test
+  @DisplayName("Test that a rejected signature leaves the pooled engine usable")
+  public void verify_shouldAcceptValidSignature_afterMalformedSignature() throws Exception {
+    SimpleECDSASigner signer = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
+    byte[] message = "hello world".getBytes(StandardCharsets.UTF_8);
+    byte[] signature = signer.sign(message);
+
+    Assertions.assertFalse(
+        verifier.verify(
+            keyPair.getPublic(), "tampered".getBytes(StandardCharsets.UTF_8), signature));
+    Assertions.assertThrows(
+        SignatureException.class,
+        () -> verifier.verify(keyPair.getPublic(), message, new byte[] {1, 2, 3}));
+    Assertions.assertTrue(verifier.verify(keyPair.getPublic(), message, signature));
+  }
+
+  @Test
+  @DisplayName("Test that engines are only pooled for the most recently used keys")
+  public void verify_shouldBoundPooledKeys() throws Exception {
+    TestVerifier verifier = new TestVerifier();
+    byte[] message = "hello world".getBytes(StandardCharsets.UTF_8);
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    for (int i = 0; i < 5; i++) {
+      KeyPair other = generator.generateKeyPair();
+      byte[] signature = new SimpleECDSASigner(other.getPrivate(), null).sign(message);
+      PublicKey publicKey = other.getPublic();
+      Assertions.assertTrue(verifier.verify(publicKey, message, signature));
+    }
+    Assertions.assertEquals(2, verifier.pooledKeys());
+  }
+
+  private static final class TestVerifier extends JcaVerifier {
+    TestVerifier() {
+      super("SHA256withECDSA", "EC", 1, 2);
+    }
+
+    @Override
+    public String getKeyId() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.InclusionProof;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.dsse.models.Signer;
+import io.github.intoto.helpers.IntotoCodec;
+import io.github.intoto.helpers.IntotoHelper;
+import io.github.intoto.models.Statement;
+import io.github.intoto.utilities.StatementUtilities;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidKeyException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MerkleBatchTest {
+
+  private KeyPair keyPair;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    keyPair = KeyPairGenerator.getInstance("EC").generateKeyPair();
+  }
+
+  @Test
+  @DisplayName("Test that every inclusion proof leads to the root, for batches of any size")
+  public void rootFromProof_shouldMatchRoot_forEveryLeaf() {
+    for (int size = 1; size <= 20; size++) {
+      List<byte[]> leaves = leaves(size);
+      MerkleBatch batch = MerkleBatch.of(leaves);
+      for (int i = 0; i < size; i++) {
+        InclusionProof proof = batch.proof(i);
+        Assertions.assertArrayEquals(
+            batch.root(), MerkleBatch.rootFromProof(leaves.get(i), proof), "size " + size);
+        Assertions.assertTrue(
+            proof.getHashes().size() <= 32 - Integer.numberOfLeadingZeros(size - 1));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Test the RFC 6962 tree shape of an unbalanced batch")
+  public void root_shouldFollowRfc6962_whenBatchIsUnbalanced() throws Exception {
+    List<byte[]> leaves = leaves(3);
+    byte[] expected =
+        node(node(leafHash(leaves.get(0)), leafHash(leaves.get(1))), leafHash(leaves.get(2)));
+    Assertions.assertArrayEquals(expected, MerkleBatch.of(leaves).root());
+    Assertions.assertArrayEquals(leafHash(leaves.get(0)), MerkleBatch.of(leaves(1)).root());
+  }
+
+  @Test
+  @DisplayName("Test that proofs do not hold for other leaves, positions or batch sizes")
+  public void rootFromProof_shouldNotMatchRoot_whenProofIsTampered() {
+    List<byte[]> leaves = leaves(7);
+    MerkleBatch batch = MerkleBatch.of(leaves);
+    InclusionProof proof = batch.proof(4);
+
+    Assertions.assertFalse(
+        Arrays.equals(batch.root(), MerkleBatch.rootFromProof(leaves.get(5), proof)));
+
+    proof.setLeafIndex(5);
+    Assertions.assertFalse(
+        Arrays.equals(batch.root(), MerkleBatch.rootFromProof(leaves.get(4), proof)));
+
+    proof = batch.proof(4);
+    proof.setTreeSize(4);
+    Assertions.assertNull(MerkleBatch.rootFromProof(leaves.get(4), proof));
+
+    proof = batch.proof(4);
+    proof.setHashes(proof.getHashes().subList(0, 1));
+    Assertions.assertNull(MerkleBatch.rootFromProof(leaves.get(4), proof));
+
+    proof = batch.proof(4);
+    proof.setHashes(List.of("bm90IGEgaGFzaA==", "bm90IGEgaGFzaA=="));
+    Assertions.assertNull(MerkleBatch.rootFromProof(leaves.get(4), proof));
+  }
+
+  @Test
+  @DisplayName("Test that a batch is signed once and its root signature verified once")
+  public void produceIntotoEnvelopeBatch_shouldSignAndVerifyRootOnce() throws Exception {
+    AtomicInteger signatures = new AtomicInteger();
+    Signer signer = countingSigner(signatures);
+
+    List<IntotoEnvelope> envelopes =
+        IntotoHelper.produceIntotoEnvelopeBatch(statements(10), signer);
+
+    Assertions.assertEquals(1, signatures.get());
+    Assertions.assertEquals(10, envelopes.size());
+    VerificationCache cache = VerificationCache.builder().build();
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()), cache);
+    for (IntotoEnvelope envelope : envelopes) {
+      Assertions.assertEquals(List.of("MyKey"), verifier.verify(envelope).getVerifiedKeyIds());
+    }
+    Assertions.assertEquals(1, cache.getMissCount());
+    Assertions.assertEquals(9, cache.getHitCount());
+    Assertions.assertTrue(
+        new IntotoEnvelopeVerifier(verifier.getKeyring()).verify(envelopes.get(3), 1).isVerified());
+  }
+
+  @Test
+  @DisplayName("Test that batch envelopes are rejected when payloads or proofs are swapped")
+  public void produceIntotoEnvelopeBatch_shouldReject_whenEnvelopeIsTampered() throws Exception {
+    List<IntotoEnvelope> envelopes =
+        IntotoHelper.produceIntotoEnvelopeBatch(
+            statements(4), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+
+    IntotoEnvelope swappedPayload = new IntotoEnvelope();
+    swappedPayload.setPayload(envelopes.get(1).getPayload());
+    swappedPayload.setSignatures(envelopes.get(0).getSignatures());
+    Assertions.assertFalse(verifier.verify(swappedPayload).isVerified());
+
+    // The root signature alone does not sign the payload.
+    io.github.intoto.dsse.models.Signature withoutProof =
+        new io.github.intoto.dsse.models.Signature();
+    withoutProof.setKeyId("MyKey");
+    withoutProof.setSig(envelopes.get(0).getSignatures().get(0).getSig());
+    IntotoEnvelope strippedProof = new IntotoEnvelope();
+    strippedProof.setPayload(envelopes.get(0).getPayload());
+    strippedProof.setSignatures(List.of(withoutProof));
+    Assertions.assertFalse(verifier.verify(strippedProof).isVerified());
+  }
+
+  @Test
+  @DisplayName("Test that inclusion proofs survive serialization and streaming verification")
+  public void produceIntotoEnvelopeBatch_shouldRoundTripThroughJson(@TempDir Path dir)
+      throws Exception {
+    List<IntotoEnvelope> envelopes =
+        IntotoHelper.produceIntotoEnvelopeBatch(
+            statements(5), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    IntotoCodec codec = IntotoCodec.defaultCodec();
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+
+    String json = codec.toJson(envelopes.get(2), false);
+    Assertions.assertTrue(json.contains("\"inclusionProof\""));
+    Assertions.assertEquals(envelopes.get(2), codec.readEnvelope(json));
+
+    Path file = dir.resolve("envelope.json");
+    Files.writeString(file, json);
+    Assertions.assertTrue(new StreamingEnvelopeVerifier(verifier).verify(file, 1).isVerified());
+
+    IntotoEnvelope single =
+        IntotoHelper.produceIntotoEnvelope(
+            statements(1).get(0), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    Assertions.assertFalse(codec.toJson(single, false).contains("inclusionProof"));
+  }
+
+  private Signer countingSigner(AtomicInteger signatures) {
+    SimpleECDSASigner delegate = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    return new Signer() {
+      @Override
+      public byte[] sign(byte[] payload)
+          throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        signatures.incrementAndGet();
+        return delegate.sign(payload);
+      }
+
+      @Override
+      public byte[] sign(String payloadType, byte[] payload)
+          throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        signatures.incrementAndGet();
+        return delegate.sign(payloadType, payload);
+      }
+
+      @Override
+      public String getKeyId() {
+        return delegate.getKeyId();
+      }
+    };
+  }
+
+  private static List<Statement> statements(int count) {
+    List<Statement> statements = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Statement statement = StatementUtilities.createStatement();
+      statement.getSubject().get(0).setName("artifact-" + i + ".tar.gz");
+      statements.add(statement);
+    }
+    return statements;
+  }
+
+  private static List<byte[]> leaves(int count) {
+    List<byte[]> leaves = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      leaves.add(MerkleBatch.leaf("text/plain", ("payload " + i).getBytes(StandardCharsets.UTF_8)));
+    }
+    return leaves;
+  }
+
+  private static byte[] leafHash(byte[] leaf) throws Exception {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    digest.update((byte) 0);
+    return digest.digest(leaf);
+  }
+
+  private static byte[] node(byte[] left, byte[] right) throws Exception {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    digest.update((byte) 1);
+    digest.update(left);
+    return digest.digest(right);
+  }
+}
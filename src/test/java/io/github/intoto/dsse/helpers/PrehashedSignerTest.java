@@ -0,0 +1,173 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.dsse.models.PrehashedSigner;
+import io.github.intoto.dsse.models.Signer;
+import io.github.intoto.helpers.IntotoHelper;
+import io.github.intoto.utilities.StatementUtilities;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+import java.security.SignatureException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PrehashedSignerTest {
+
+  private KeyPair keyPair;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    keyPair = KeyPairGenerator.getInstance("EC").generateKeyPair();
+  }
+
+  @Test
+  @DisplayName("Test that prehashed ECDSA signatures verify as SHA256withECDSA signatures")
+  public void prehashedEcdsa_sign_shouldBeVerifiedBySimpleEcdsaVerifier() throws Exception {
+    String payloadType = "application/vnd.in-toto+json";
+    byte[] payload =
+        "{\"_type\":\"Entwickeln Sie mit Vergnügen\"}".getBytes(StandardCharsets.UTF_8);
+    PrehashedECDSASigner signer = new PrehashedECDSASigner(keyPair.getPrivate(), "MyKey");
+    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
+
+    Assertions.assertTrue(
+        verifier.verifyPayload(
+            keyPair.getPublic(), payloadType, payload, signer.sign(payloadType, payload)));
+    Assertions.assertTrue(verifier.verify(keyPair.getPublic(), payload, signer.sign(payload)));
+    Assertions.assertThrows(
+        NoSuchAlgorithmException.class, () -> signer.signDigest(new byte[64], "SHA-512"));
+  }
+
+  @Test
+  @DisplayName("Test that a prehashed signer only receives the digest of the encoding")
+  public void produceIntotoEnvelope_shouldHandDigestToPrehashedSigner() throws Exception {
+    RecordingSigner signer =
+        new RecordingSigner(new PrehashedECDSASigner(keyPair.getPrivate(), "MyKey"));
+
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(StatementUtilities.createStatement(), signer);
+
+    byte[] payload = Base64.getDecoder().decode(envelope.getPayload());
+    byte[] expected =
+        MessageDigest.getInstance("SHA-256")
+            .digest(PreAuthenticationEncoding.encode(envelope.getPayloadType(), payload));
+    Assertions.assertEquals(1, signer.digests.size());
+    Assertions.assertArrayEquals(expected, signer.digests.get(0));
+    Assertions.assertEquals(List.of("SHA-256"), signer.algorithms);
+
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+    Assertions.assertTrue(verifier.verify(envelope).isVerified());
+  }
+
+  @Test
+  @DisplayName("Test prehashed signers next to regular signers on the same envelope")
+  public void produceIntotoEnvelope_shouldMixPrehashedAndRegularSigners() throws Exception {
+    KeyPair otherKeyPair = KeyPairGenerator.getInstance("EC").generateKeyPair();
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            StatementUtilities.createStatement(),
+            List.of(
+                new PrehashedECDSASigner(keyPair.getPrivate(), "MyKey"),
+                new SimpleECDSASigner(otherKeyPair.getPrivate(), "OtherKey")),
+            Runnable::run,
+            Duration.ofSeconds(10));
+
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(
+            new Keyring()
+                .add("MyKey", keyPair.getPublic())
+                .add("OtherKey", otherKeyPair.getPublic()));
+    Assertions.assertEquals(
+        List.of("MyKey", "OtherKey"), verifier.verify(envelope, 2).getVerifiedKeyIds());
+  }
+
+  @Test
+  @DisplayName("Test that multi-signer envelopes share one encoding and one digest per algorithm")
+  public void produceIntotoEnvelope_shouldShareEncodingAndDigest_acrossSigners() throws Exception {
+    RecordingSigner firstPrehashed =
+        new RecordingSigner(new PrehashedECDSASigner(keyPair.getPrivate(), "MyKey"));
+    RecordingSigner secondPrehashed =
+        new RecordingSigner(new PrehashedECDSASigner(keyPair.getPrivate(), "MyKey"));
+    PlainSigner firstPlain = new PlainSigner(new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    PlainSigner secondPlain = new PlainSigner(new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            StatementUtilities.createStatement(),
+            List.of(firstPrehashed, firstPlain, secondPrehashed, secondPlain),
+            Runnable::run,
+            Duration.ofSeconds(10));
+
+    Assertions.assertSame(firstPrehashed.digests.get(0), secondPrehashed.digests.get(0));
+    Assertions.assertSame(firstPlain.messages.get(0), secondPlain.messages.get(0));
+    byte[] payload = Base64.getDecoder().decode(envelope.getPayload());
+    Assertions.assertArrayEquals(
+        PreAuthenticationEncoding.encode(envelope.getPayloadType(), payload),
+        firstPlain.messages.get(0));
+    Assertions.assertEquals(4, envelope.getSignatures().size());
+  }
+
+  /** A Signer that only implements the single-argument sign and records what it signs. */
+  private static final class PlainSigner implements Signer {
+    private final Signer delegate;
+    private final List<byte[]> messages = new ArrayList<>();
+
+    PlainSigner(Signer delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] sign(byte[] payload)
+        throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+      messages.add(payload);
+      return delegate.sign(payload);
+    }
+
+    @Override
+    public String getKeyId() {
+      return delegate.getKeyId();
+    }
+  }
+
+  /** Records the digests it is asked to sign, like a remote signer would receive them. */
+  private static final class RecordingSigner implements PrehashedSigner {
+    private final PrehashedSigner delegate;
+    private final List<byte[]> digests = new ArrayList<>();
+    private final List<String> algorithms = new ArrayList<>();
+
+    RecordingSigner(PrehashedSigner delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public String getDigestAlgorithm() {
+      return delegate.getDigestAlgorithm();
+    }
+
+    @Override
+    public byte[] signDigest(byte[] digest, String digestAlgorithm)
+        throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+      digests.add(digest);
+      algorithms.add(digestAlgorithm);
+      return delegate.signDigest(digest, digestAlgorithm);
+    }
+
+    @Override
+    public String getKeyId() {
+      return delegate.getKeyId();
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package io.github.intoto.dsse.helpers;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoHelper;
+import io.github.intoto.utilities.StatementUtilities;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.Arrays;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class RsaPssTest {
+
+  private KeyPair keyPair;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    keyPair = generator.generateKeyPair();
+  }
+
+  @Test
+  @DisplayName("Test RSA-PSS signing of a payload through the Pre-Authentication Encoding")
+  public void rsaPss_signPayload_shouldVerify_whenGivenEncodedPublicKey() throws Exception {
+    String payloadType = "application/vnd.in-toto+json";
+    byte[] payload =
+        "{\"_type\":\"Entwickeln Sie mit Vergnügen\"}".getBytes(StandardCharsets.UTF_8);
+
+    RsaPssSigner signer = new RsaPssSigner(keyPair.getPrivate(), "MyKey");
+    byte[] encryptedMessage = signer.sign(payloadType, payload);
+    // The salt is random, so signing twice gives two different valid signatures.
+    byte[] otherEncryptedMessage =
+        signer.sign(PreAuthenticationEncoding.encode(payloadType, payload));
+    Assertions.assertFalse(Arrays.equals(encryptedMessage, otherEncryptedMessage));
+
+    RsaPssVerifier verifier = new RsaPssVerifier();
+    Assertions.assertNull(verifier.getKeyId());
+    Assertions.assertTrue(
+        verifier.verify(keyPair.getPublic().getEncoded(), encryptedMessage, payloadType, payload));
+    Assertions.assertTrue(
+        verifier.verifyPayload(keyPair.getPublic(), payloadType, payload, otherEncryptedMessage));
+    Assertions.assertFalse(
+        verifier.verify(
+            keyPair.getPublic().getEncoded(),
+            encryptedMessage,
+            payloadType,
+            "tampered".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  @DisplayName("Test that envelopes signed with RSA-PSS are only verified by RSASSA-PSS keys")
+  public void rsaPss_produceIntotoEnvelope_shouldBeVerifiedWithRsaPssTrustedKey() throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            StatementUtilities.createStatement(), new RsaPssSigner(keyPair.getPrivate(), "MyKey"));
+
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(
+            new Keyring().add(new TrustedKey("MyKey", keyPair.getPublic(), "RSASSA-PSS")));
+    Assertions.assertTrue(verifier.verify(envelope).isVerified());
+
+    IntotoEnvelopeVerifier pkcs1Verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()));
+    Assertions.assertFalse(pkcs1Verifier.verify(envelope).isVerified());
+  }
+}
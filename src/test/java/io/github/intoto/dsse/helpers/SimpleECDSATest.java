@@ -3,13 +3,20 @@ package io.github.intoto.dsse.helpers;
 import static io.github.intoto.utilities.KeyUtilities.readPrivateKey;
 import static io.github.intoto.utilities.KeyUtilities.readPublicKey;
 
+import io.github.intoto.dsse.models.MessageVerifier;
+import io.github.intoto.dsse.models.Verifier;
 import io.github.intoto.utilities.provenancev01.TestEnvelopeGenerator;
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
 import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Security;
+import java.security.SignatureException;
+import java.security.spec.InvalidKeySpecException;
 import java.util.Objects;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.jupiter.api.Assertions;
@@ -39,6 +46,20 @@ public class SimpleECDSATest {
     Assertions.assertTrue(result);
   }
 
+  @Test
+  @DisplayName("Test the keyid of a simple ECDSA verifier before and after a verification")
+  public void simpleEcdsa_getKeyId_shouldNotFail_beforeFirstVerification() throws Exception {
+    KeyPair keyPair = getKeyPairFromFile();
+    byte[] message = "hello world".getBytes(StandardCharsets.UTF_8);
+    byte[] signature = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey").sign(message);
+
+    Assertions.assertEquals("MyKey", new SimpleECDSAVerifier("MyKey").getKeyId());
+    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
+    Assertions.assertNull(verifier.getKeyId());
+    Assertions.assertTrue(verifier.verify(keyPair.getPublic(), message, signature));
+    Assertions.assertEquals(keyPair.getPublic().toString(), verifier.getKeyId());
+  }
+
   @Test
   @DisplayName("Test simple ECDSA signing against a fix Pre-Authentication Encoding String")
   public void test() throws Exception {
@@ -57,10 +78,100 @@ public class SimpleECDSATest {
     Assertions.assertTrue(result);
   }
 
+  @Test
+  @DisplayName("Test simple ECDSA signing of a payload through the Pre-Authentication Encoding")
+  public void simpleEcdsa_signPayload_shouldMatchFullPreAuthenticationEncoding() throws Exception {
+    String payloadType = "application/vnd.in-toto+json";
+    byte[] payload = "{\"_type\":\"Entwickeln Sie mit Vergnügen\"}".getBytes(StandardCharsets.UTF_8);
+    KeyPair keyPair = getKeyPairFromFile();
+
+    SimpleECDSASigner signer = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    byte[] encryptedMessage = signer.sign(payloadType, payload);
+
+    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
+    Assertions.assertTrue(
+        verifier.verify(keyPair.getPublic().getEncoded(), encryptedMessage, payloadType, payload));
+    Assertions.assertTrue(
+        verifier.verify(
+            keyPair.getPublic().getEncoded(),
+            encryptedMessage,
+            new String(
+                PreAuthenticationEncoding.encode(payloadType, payload), StandardCharsets.UTF_8)));
+    Assertions.assertFalse(
+        verifier.verify(
+            keyPair.getPublic().getEncoded(),
+            encryptedMessage,
+            payloadType,
+            "tampered".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  @DisplayName("Test simple ECDSA verification of byte arrays, buffer slices and incremental parts")
+  public void simpleEcdsa_verifyBytes_shouldMatchStringVerification() throws Exception {
+    String payloadType = "application/vnd.in-toto+json";
+    byte[] payload = "{\"_type\":\"Entwickeln Sie mit Vergnügen\"}".getBytes(StandardCharsets.UTF_8);
+    KeyPair keyPair = getKeyPairFromFile();
+    byte[] message = PreAuthenticationEncoding.encode(payloadType, payload);
+    byte[] encryptedMessage = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey").sign(message);
+
+    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
+    Assertions.assertTrue(verifier.verify(keyPair.getPublic(), message, encryptedMessage));
+    Assertions.assertTrue(
+        verifier.verifyPayload(keyPair.getPublic(), payloadType, payload, encryptedMessage));
+
+    byte[] framed = new byte[message.length + 8];
+    System.arraycopy(message, 0, framed, 4, message.length);
+    ByteBuffer slice = ByteBuffer.wrap(framed, 4, message.length).slice();
+    Assertions.assertTrue(verifier.verify(keyPair.getPublic(), slice, encryptedMessage));
+    Assertions.assertFalse(slice.hasRemaining());
+
+    MessageVerifier.Session session = verifier.begin(keyPair.getPublic());
+    session.update(message, 0, 10);
+    session.update(ByteBuffer.wrap(message, 10, message.length - 10));
+    Assertions.assertTrue(session.verify(encryptedMessage));
+
+    Assertions.assertFalse(
+        verifier.verify(
+            keyPair.getPublic(), "tampered".getBytes(StandardCharsets.UTF_8), encryptedMessage));
+  }
+
   /**
    * Gets the keys from the resources directory (public.key and private.key) and loads them up as a
    * {@link KeyPair}
    */
+  @Test
+  @DisplayName("Test that the default payload verification rejects payloads that are not UTF-8")
+  public void verifier_verify_shouldThrow_whenPayloadIsNotUtf8() throws Exception {
+    KeyPair keyPair = getKeyPairFromFile();
+    SimpleECDSASigner signer = new SimpleECDSASigner(keyPair.getPrivate(), "MyKey");
+    SimpleECDSAVerifier ecdsa = new SimpleECDSAVerifier();
+    // Only implements the String overload, so the payload goes through the default method.
+    Verifier stringOnly =
+        new Verifier() {
+          @Override
+          public boolean verify(byte[] publicKey, byte[] encryptedMessage, String message)
+              throws NoSuchAlgorithmException, SignatureException, InvalidKeySpecException,
+                  InvalidKeyException {
+            return ecdsa.verify(publicKey, encryptedMessage, message);
+          }
+
+          @Override
+          public String getKeyId() {
+            return "MyKey";
+          }
+        };
+    byte[] publicKey = keyPair.getPublic().getEncoded();
+    byte[] text = "hello world".getBytes(StandardCharsets.UTF_8);
+    byte[] binary = {(byte) 0xff, (byte) 0xfe, 0};
+
+    Assertions.assertTrue(
+        stringOnly.verify(publicKey, signer.sign("text/plain", text), "text/plain", text));
+    byte[] binarySignature = signer.sign("application/octet-stream", binary);
+    Assertions.assertThrows(
+        SignatureException.class,
+        () -> stringOnly.verify(publicKey, binarySignature, "application/octet-stream", binary));
+  }
+
   private static KeyPair getKeyPairFromFile() throws Exception {
     Security.addProvider(new BouncyCastleProvider());
     // Getting ClassLoader obj
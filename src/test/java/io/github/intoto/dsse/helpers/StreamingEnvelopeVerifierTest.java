@@ -0,0 +1,155 @@
+package io.github.intoto.dsse.helpers;
+
+import static io.github.intoto.utilities.KeyUtilities.readPrivateKey;
+import static io.github.intoto.utilities.KeyUtilities.readPublicKey;
+import static io.github.intoto.utilities.StatementUtilities.createStatementWithSubjects;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoCodec;
+import io.github.intoto.helpers.IntotoHelper;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StreamingEnvelopeVerifierTest {
+
+  private KeyPair keyPair;
+
+  private StreamingEnvelopeVerifier verifier;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    ClassLoader classLoader = this.getClass().getClassLoader();
+    keyPair =
+        new KeyPair(
+            readPublicKey(
+                new File(Objects.requireNonNull(classLoader.getResource("public.pem")).getFile())),
+            readPrivateKey(
+                new File(
+                    Objects.requireNonNull(classLoader.getResource("p8private.pem")).getFile())));
+    verifier =
+        new StreamingEnvelopeVerifier(
+            new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic())));
+  }
+
+  @Test
+  @DisplayName("Large payloads are verified by streaming them from the file")
+  public void verify_shouldVerify_whenPayloadIsStreamed(@TempDir Path dir) throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatementWithSubjects(20_000),
+            new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    Path file = dir.resolve("large.json");
+    Files.writeString(file, IntotoCodec.defaultCodec().toJson(envelope, false));
+
+    VerificationResult result = verifier.verify(file, 1);
+
+    assertTrue(result.isVerified());
+    assertEquals(List.of("MyKey"), result.getVerifiedKeyIds());
+  }
+
+  @Test
+  @DisplayName("Signatures listed before the payload are found by the first pass")
+  public void verify_shouldVerify_whenSignaturesPrecedePayload(@TempDir Path dir) throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatementWithSubjects(10), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    String sig = envelope.getSignatures().get(0).getSig();
+    Path file = dir.resolve("reordered.json");
+    Files.writeString(
+        file,
+        "{\"signatures\":[{\"keyid\":\"MyKey\",\"sig\":\""
+            + sig
+            + "\"}],\"payloadType\":\"application/vnd.in-toto+json\",\"payload\":\""
+            + envelope.getPayload()
+            + "\"}");
+
+    assertTrue(verifier.verify(file, 1).isVerified());
+    assertFalse(verifier.verify(file, 2).isVerified());
+  }
+
+  @Test
+  @DisplayName("A tampered payload is rejected and a malformed one is an error")
+  public void verify_shouldReject_whenPayloadIsTampered(@TempDir Path dir) throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatementWithSubjects(10), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    IntotoEnvelope other =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatementWithSubjects(11), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    envelope.setPayload(other.getPayload());
+    Path file = dir.resolve("tampered.json");
+    Files.writeString(file, IntotoCodec.defaultCodec().toJson(envelope, false));
+
+    assertFalse(verifier.verify(file, 1).isVerified());
+
+    Path malformed = dir.resolve("malformed.json");
+    Files.write(
+        malformed,
+        "{\"payload\":\"not base64!\",\"signatures\":[]}".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> verifier.verify(malformed, 1));
+  }
+
+  @Test
+  @DisplayName("An envelope with a repeated payload field is an error")
+  public void verify_shouldFail_whenPayloadIsDuplicated(@TempDir Path dir) throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatementWithSubjects(10), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    // A second payload of the same length, which databind readers would keep instead.
+    byte[] decoded = Base64.getDecoder().decode(envelope.getPayload());
+    byte[] forged = decoded.clone();
+    forged[forged.length - 2] ^= 1;
+    String json = IntotoCodec.defaultCodec().toJson(envelope, false);
+    Path file = dir.resolve("duplicated.json");
+    Files.writeString(
+        file,
+        json.substring(0, json.length() - 1)
+            + ",\"payload\":\""
+            + Base64.getEncoder().encodeToString(forged)
+            + "\"}");
+
+    assertThrows(IOException.class, () -> verifier.verify(file, 1));
+  }
+
+  @Test
+  @DisplayName("A payload whose length changes between the two passes is an error")
+  public void verify_shouldFail_whenPayloadLengthChangesBetweenPasses() throws Exception {
+    IntotoEnvelope first =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatementWithSubjects(10), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    IntotoEnvelope second =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatementWithSubjects(11), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+    List<byte[]> reads =
+        new ArrayList<>(
+            List.of(
+                IntotoCodec.defaultCodec().toJson(first, false).getBytes(StandardCharsets.UTF_8),
+                IntotoCodec.defaultCodec().toJson(second, false).getBytes(StandardCharsets.UTF_8)));
+
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () -> verifier.verify(() -> new ByteArrayInputStream(reads.remove(0)), 1));
+    assertEquals("the envelope changed between the two passes", e.getMessage());
+  }
+}
@@ -0,0 +1,138 @@
+package io.github.intoto.dsse.helpers;
+
+import static io.github.intoto.utilities.KeyUtilities.readPrivateKey;
+import static io.github.intoto.utilities.KeyUtilities.readPublicKey;
+import static io.github.intoto.utilities.StatementUtilities.createStatement;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.helpers.IntotoHelper;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VerificationCacheTest {
+
+  private KeyPair keyPair;
+
+  private IntotoEnvelope envelope;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+    ClassLoader classLoader = this.getClass().getClassLoader();
+    keyPair =
+        new KeyPair(
+            readPublicKey(
+                new File(Objects.requireNonNull(classLoader.getResource("public.pem")).getFile())),
+            readPrivateKey(
+                new File(
+                    Objects.requireNonNull(classLoader.getResource("p8private.pem")).getFile())));
+    envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatement(), new SimpleECDSASigner(keyPair.getPrivate(), "MyKey"));
+  }
+
+  @Test
+  @DisplayName("A signature checked again is served from the cache")
+  public void verify_shouldHitCache_whenSignatureIsCheckedAgain() throws Exception {
+    VerificationCache cache = VerificationCache.builder().build();
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()), cache);
+
+    assertTrue(verifier.verify(envelope).isVerified());
+    assertTrue(verifier.verify(envelope).isVerified());
+    assertTrue(verifier.verify(envelope, 1).isVerified());
+
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  @DisplayName("Changing the keyring invalidates every cached outcome")
+  public void verify_shouldRecheck_whenKeyringChanged() throws Exception {
+    VerificationCache cache = VerificationCache.builder().build();
+    Keyring keyring =
+        new Keyring()
+            .add("MyKey", KeyPairGenerator.getInstance("EC").generateKeyPair().getPublic());
+    IntotoEnvelopeVerifier verifier = new IntotoEnvelopeVerifier(keyring, cache);
+    assertFalse(verifier.verify(envelope).isVerified());
+    assertFalse(verifier.verify(envelope).isVerified());
+    assertEquals(1, cache.getHitCount());
+
+    keyring.add("MyKey", keyPair.getPublic());
+
+    assertTrue(verifier.verify(envelope).isVerified());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  @DisplayName("Outcomes expire after the configured time")
+  public void verify_shouldRecheck_whenOutcomeExpired() throws Exception {
+    AtomicLong now = new AtomicLong();
+    VerificationCache cache =
+        VerificationCache.builder()
+            .expireAfterWrite(Duration.ofSeconds(1))
+            .ticker(now::get)
+            .build();
+    IntotoEnvelopeVerifier verifier =
+        new IntotoEnvelopeVerifier(new Keyring().add("MyKey", keyPair.getPublic()), cache);
+
+    verifier.verify(envelope);
+    now.addAndGet(Duration.ofMillis(999).toNanos());
+    verifier.verify(envelope);
+    now.addAndGet(Duration.ofMillis(1).toNanos());
+    verifier.verify(envelope);
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  @DisplayName("The least recently used outcomes are evicted beyond the maximum size")
+  public void put_shouldEvict_whenMaximumSizeIsExceeded() throws Exception {
+    VerificationCache cache = VerificationCache.builder().maximumSize(2).build();
+    TrustedKey key = new TrustedKey("MyKey", keyPair.getPublic());
+    for (int i = 0; i < 3; i++) {
+      cache.put(keyOf(key, i), 0, true);
+    }
+
+    assertEquals(2, cache.size());
+    assertNull(cache.get(keyOf(key, 0), 0));
+    assertTrue(cache.get(keyOf(key, 2), 0));
+  }
+
+  @Test
+  @DisplayName("The payload of an envelope is hashed once for all of its cache keys")
+  public void signedMessage_shouldHashPayloadOnce_whenDigestIsReused() {
+    IntotoEnvelopeVerifier.SignedMessage message =
+        new IntotoEnvelopeVerifier.SignedMessage("type", new byte[] {1, 2, 3});
+
+    byte[] digest = message.digest();
+
+    assertSame(digest, message.digest());
+    assertArrayEquals(VerificationCache.messageDigest("type", new byte[] {1, 2, 3}), digest);
+  }
+
+  /** Returns the cache key of an empty signature over a one-byte payload. */
+  private static ByteBuffer keyOf(TrustedKey key, int payload) {
+    return VerificationCache.key(
+        key, VerificationCache.messageDigest("type", new byte[] {(byte) payload}), new byte[0]);
+  }
+}
@@ -0,0 +1,142 @@
+package io.github.intoto.helpers;
+
+import static io.github.intoto.utilities.StatementUtilities.createStatementWithMetadata;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.exceptions.InvalidModelException;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.DigestSetAlgorithmType;
+import io.github.intoto.models.Statement;
+import io.github.intoto.models.Subject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntotoCodecTest {
+
+  private static final int ITERATIONS = 2_000;
+
+  @Test
+  @DisplayName("The default codec produces the same JSON as IntotoHelper")
+  public void validateAndTransformToJson_shouldMatchIntotoHelper() throws Exception {
+    Statement statement = createStatementWithMetadata();
+    IntotoCodec codec = IntotoCodec.builder().build();
+
+    assertEquals(
+        IntotoHelper.validateAndTransformToJson(statement, true),
+        codec.validateAndTransformToJson(statement, true));
+    assertEquals(
+        IntotoHelper.validateAndTransformToJson(statement, false),
+        codec.validateAndTransformToJson(statement, false));
+
+    IntotoEnvelope envelope = IntotoHelper.produceIntotoEnvelope(statement, new FakeSigner());
+    assertEquals(envelope, codec.readEnvelope(codec.toJson(envelope, false)));
+  }
+
+  @Test
+  @DisplayName("A shared codec produces identical output on every thread")
+  public void validateAndTransformToJsonBytes_shouldBeThreadSafe() throws Exception {
+    IntotoCodec codec = IntotoCodec.defaultCodec();
+    Statement statement = createStatementWithMetadata();
+    byte[] expected = codec.validateAndTransformToJsonBytes(statement);
+    int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    serializeConcurrently(codec, statement, expected, threads);
+  }
+
+  @Test
+  @DisplayName("Fail-fast validation reports a single violation")
+  public void validate_shouldReportOneViolation_whenFailFast() {
+    Statement statement = createStatementWithMetadata();
+    Subject subject = new Subject();
+    subject.setName("");
+    subject.setDigest(Map.of());
+    statement.setSubject(List.of(subject));
+
+    IntotoCodec full = IntotoCodec.builder().build();
+    IntotoCodec failFast = IntotoCodec.builder().validationMode(ValidationMode.FAIL_FAST).build();
+
+    InvalidModelException fullException =
+        assertThrows(InvalidModelException.class, () -> full.validate(statement));
+    InvalidModelException failFastException =
+        assertThrows(InvalidModelException.class, () -> failFast.validate(statement));
+    assertEquals(2, fullException.getMessage().split(",/n").length);
+    assertEquals(1, failFastException.getMessage().split(",/n").length);
+  }
+
+  @Test
+  @DisplayName("Trusted validation mode skips validation")
+  public void validateAndTransformToJson_shouldNotValidate_whenTrusted() throws Exception {
+    Statement statement = createStatementWithMetadata();
+    statement.setSubject(List.of());
+    IntotoCodec trusted = IntotoCodec.builder().validationMode(ValidationMode.TRUSTED).build();
+
+    assertThrows(
+        InvalidModelException.class,
+        () -> IntotoCodec.defaultCodec().validateAndTransformToJson(statement, false));
+    assertTrue(trusted.validateAndTransformToJson(statement, false).contains("\"subject\":[]"));
+  }
+
+  @Test
+  @DisplayName("Parallel validation finds violations in large subject lists")
+  public void validate_shouldFindViolations_whenSubjectsAreValidatedInParallel() throws Exception {
+    List<Subject> subjects = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      Subject subject = new Subject();
+      subject.setName("artifact-" + i);
+      subject.setDigest(Map.of(DigestSetAlgorithmType.SHA256.getValue(), "abc" + i));
+      subjects.add(subject);
+    }
+    Statement statement = createStatementWithMetadata();
+    statement.setSubject(subjects);
+
+    for (ValidationMode mode : List.of(ValidationMode.FULL, ValidationMode.FAIL_FAST)) {
+      IntotoCodec codec =
+          IntotoCodec.builder().validationMode(mode).parallelValidationThreshold(100).build();
+      codec.validate(statement);
+
+      subjects.get(500).setDigest(Map.of(DigestSetAlgorithmType.SHA256.getValue(), " "));
+      InvalidModelException exception =
+          assertThrows(InvalidModelException.class, () -> codec.validate(statement));
+      assertEquals("digest value contents can be empty strings", exception.getMessage());
+      subjects.get(500).setDigest(Map.of(DigestSetAlgorithmType.SHA256.getValue(), "abc"));
+
+      subjects.get(700).setName("artifact-1");
+      exception = assertThrows(InvalidModelException.class, () -> codec.validate(statement));
+      assertEquals("subjects must be unique", exception.getMessage());
+      subjects.get(700).setName("artifact-700");
+    }
+  }
+
+  private static void serializeConcurrently(
+      IntotoCodec codec, Statement statement, byte[] expected, int threads) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        tasks.add(
+            () -> {
+              for (int j = 0; j < ITERATIONS; j++) {
+                assertArrayEquals(expected, codec.validateAndTransformToJsonBytes(statement));
+              }
+              return null;
+            });
+      }
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
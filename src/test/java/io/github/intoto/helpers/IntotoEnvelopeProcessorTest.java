@@ -0,0 +1,219 @@
+package io.github.intoto.helpers;
+
+import static io.github.intoto.utilities.StatementUtilities.createStatement;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.exceptions.InvalidModelException;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntotoEnvelopeProcessorTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Processor emits envelopes in order and bounds the Statements in flight")
+  public void processor_shouldEmitInOrder_andBoundInFlightStatements() throws Exception {
+    int count = 200;
+    int maxInFlight = 8;
+    StatementPublisher publisher = new StatementPublisher(count, -1);
+    IntotoEnvelopeProcessor processor =
+        IntotoEnvelopeProcessor.builder(new FakeSigner())
+            .serializationStage(executor, 2)
+            .signingStage(executor, 2)
+            .maxInFlight(maxInFlight)
+            .build();
+    publisher.subscribe(processor);
+    CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+    processor.subscribe(subscriber);
+
+    subscriber.done.get(30, TimeUnit.SECONDS);
+
+    assertEquals(count, subscriber.envelopes.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(
+          IntotoHelper.produceIntotoEnvelope(createStatement("artifact-" + i), new FakeSigner()),
+          subscriber.envelopes.get(i));
+    }
+    assertTrue(subscriber.maxOutstanding.get() <= maxInFlight);
+  }
+
+  @Test
+  @DisplayName("Processor signals an invalid Statement through onError and cancels upstream")
+  public void processor_shouldSignalError_whenStatementIsInvalid() throws Exception {
+    StatementPublisher publisher = new StatementPublisher(50, 10);
+    IntotoEnvelopeProcessor processor =
+        IntotoEnvelopeProcessor.builder(new FakeSigner())
+            .serializationStage(executor, 2)
+            .signingStage(executor, 2)
+            .maxInFlight(4)
+            .build();
+    publisher.subscribe(processor);
+    CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+    processor.subscribe(subscriber);
+
+    Throwable error = subscriber.done.handle((ignored, e) -> e).get(30, TimeUnit.SECONDS);
+
+    assertInstanceOf(InvalidModelException.class, error);
+    assertEquals(10, subscriber.envelopes.size());
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  @DisplayName("Processor signals a rejected stage task through onError instead of stalling")
+  public void processor_shouldSignalError_whenStageExecutorRejects() throws Exception {
+    AtomicInteger accepted = new AtomicInteger();
+    Executor rejectingAfterFive =
+        task -> {
+          if (accepted.incrementAndGet() > 5) {
+            throw new RejectedExecutionException("signing executor is full");
+          }
+          executor.execute(task);
+        };
+    StatementPublisher publisher = new StatementPublisher(50, -1);
+    IntotoEnvelopeProcessor processor =
+        IntotoEnvelopeProcessor.builder(new FakeSigner())
+            .serializationStage(executor, 2)
+            .signingStage(rejectingAfterFive, 1)
+            .maxInFlight(4)
+            .build();
+    publisher.subscribe(processor);
+    CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+    processor.subscribe(subscriber);
+
+    Throwable error = subscriber.done.handle((ignored, e) -> e).get(30, TimeUnit.SECONDS);
+
+    assertInstanceOf(RejectedExecutionException.class, error);
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  @DisplayName("Processor signals a Statement the serialization stage rejects through onError")
+  public void processor_shouldSignalError_whenSerializationExecutorIsShutDown() throws Exception {
+    ExecutorService shutDown = Executors.newSingleThreadExecutor();
+    shutDown.shutdown();
+    StatementPublisher publisher = new StatementPublisher(50, -1);
+    IntotoEnvelopeProcessor processor =
+        IntotoEnvelopeProcessor.builder(new FakeSigner())
+            .serializationStage(shutDown, 2)
+            .signingStage(executor, 2)
+            .maxInFlight(4)
+            .build();
+    publisher.subscribe(processor);
+    CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+    processor.subscribe(subscriber);
+
+    Throwable error = subscriber.done.handle((ignored, e) -> e).get(30, TimeUnit.SECONDS);
+
+    assertInstanceOf(RejectedExecutionException.class, error);
+    assertEquals(0, subscriber.envelopes.size());
+    assertTrue(publisher.cancelled);
+  }
+
+  /** Publishes numbered Statements on demand, optionally an invalid one at a given index. */
+  private static class StatementPublisher implements Flow.Publisher<Statement> {
+    private final int count;
+    private final int invalidIndex;
+    private final AtomicLong requested = new AtomicLong();
+    private volatile boolean cancelled;
+    private int emitted;
+
+    StatementPublisher(int count, int invalidIndex) {
+      this.count = count;
+      this.invalidIndex = invalidIndex;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Statement> subscriber) {
+      subscriber.onSubscribe(
+          new Flow.Subscription() {
+            @Override
+            public synchronized void request(long n) {
+              requested.addAndGet(n);
+              for (long i = 0; i < n && emitted < count && !cancelled; i++) {
+                int index = emitted++;
+                if (index == invalidIndex) {
+                  subscriber.onNext(new Statement());
+                } else {
+                  subscriber.onNext(createStatement("artifact-" + index));
+                }
+              }
+              if (emitted == count && !cancelled) {
+                cancelled = true;
+                subscriber.onComplete();
+              }
+            }
+
+            @Override
+            public void cancel() {
+              cancelled = true;
+            }
+          });
+    }
+  }
+
+  /** Requests one envelope at a time and records how many Statements were outstanding. */
+  private static class CollectingSubscriber implements Flow.Subscriber<IntotoEnvelope> {
+    private final StatementPublisher publisher;
+    private final List<IntotoEnvelope> envelopes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger maxOutstanding = new AtomicInteger();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    CollectingSubscriber(StatementPublisher publisher) {
+      this.publisher = publisher;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(IntotoEnvelope envelope) {
+      envelopes.add(envelope);
+      int outstanding = (int) (publisher.requested.get() - envelopes.size());
+      maxOutstanding.accumulateAndGet(outstanding, Math::max);
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      done.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(null);
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package io.github.intoto.helpers;
+
+import static io.github.intoto.utilities.StatementUtilities.createStatement;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.AsyncSigner;
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.dsse.models.Signer;
+import io.github.intoto.exceptions.InvalidModelException;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.Statement;
+import io.github.intoto.utilities.provenancev1.IntotoStubFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.SignatureException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntotoHelperConcurrencyTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Batch envelopes are returned in input order")
+  public void produceIntotoEnvelopes_shouldKeepInputOrder_whenAllStatementsAreValid()
+      throws Exception {
+    List<Statement> statements = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      statements.add(createStatement("artifact-" + i));
+    }
+
+    List<IntotoEnvelopeResult> results =
+        IntotoHelper.produceIntotoEnvelopes(statements, new FakeSigner(), executor);
+
+    assertEquals(statements.size(), results.size());
+    for (int i = 0; i < statements.size(); i++) {
+      IntotoEnvelopeResult result = results.get(i);
+      assertEquals(i, result.getIndex());
+      assertTrue(result.isSuccessful());
+      IntotoEnvelope expected =
+          IntotoHelper.produceIntotoEnvelope(statements.get(i), new FakeSigner());
+      assertEquals(expected, result.getEnvelope());
+    }
+  }
+
+  @Test
+  @DisplayName("An invalid Statement does not abort the batch")
+  public void produceIntotoEnvelopes_shouldReportFailure_whenOneStatementIsInvalid() {
+    Statement invalid = new Statement();
+    invalid.setPredicate(IntotoStubFactory.createSimpleProvenancePredicate());
+    List<Statement> statements =
+        List.of(createStatement("first"), invalid, createStatement("third"));
+
+    List<IntotoEnvelopeResult> results =
+        IntotoHelper.produceIntotoEnvelopes(statements.stream(), new FakeSigner(), executor);
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).isSuccessful());
+    assertFalse(results.get(1).isSuccessful());
+    assertNull(results.get(1).getEnvelope());
+    assertInstanceOf(InvalidModelException.class, results.get(1).getException());
+    assertTrue(results.get(2).isSuccessful());
+  }
+
+  @Test
+  @DisplayName("A Statement the executor rejects does not abort the batch")
+  public void produceIntotoEnvelopes_shouldReportFailure_whenExecutorRejectsTask() {
+    AtomicInteger submitted = new AtomicInteger();
+    Executor rejectingSecond =
+        task -> {
+          if (submitted.incrementAndGet() == 2) {
+            throw new RejectedExecutionException("queue is full");
+          }
+          executor.execute(task);
+        };
+    List<Statement> statements =
+        List.of(createStatement("first"), createStatement("second"), createStatement("third"));
+
+    List<IntotoEnvelopeResult> results =
+        IntotoHelper.produceIntotoEnvelopes(statements.stream(), new FakeSigner(), rejectingSecond);
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).isSuccessful());
+    assertInstanceOf(RejectedExecutionException.class, results.get(1).getException());
+    assertTrue(results.get(2).isSuccessful());
+  }
+
+  @Test
+  @DisplayName("Multi-signer envelopes keep the order of the Signers")
+  public void produceIntotoEnvelope_shouldSignWithAllSigners_inSignerOrder() throws Exception {
+    List<Signer> signers =
+        List.of(new DelayedSigner("slow", 200), new DelayedSigner("fast", 0), new FakeSigner());
+
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(
+            createStatement("artifact"), signers, executor, Duration.ofSeconds(5));
+
+    assertEquals(3, envelope.getSignatures().size());
+    assertEquals("slow", envelope.getSignatures().get(0).getKeyId());
+    assertEquals("fast", envelope.getSignatures().get(1).getKeyId());
+    assertEquals("Fake-Signer-Key-ID", envelope.getSignatures().get(2).getKeyId());
+    IntotoEnvelope single =
+        IntotoHelper.produceIntotoEnvelope(createStatement("artifact"), new FakeSigner());
+    assertEquals(single.getPayload(), envelope.getPayload());
+    assertEquals(single.getSignatures().get(0), envelope.getSignatures().get(2));
+  }
+
+  @Test
+  @DisplayName("Multi-signer envelopes fail when a Signer exceeds its timeout")
+  public void produceIntotoEnvelope_shouldThrow_whenSignerTimesOut() {
+    List<Signer> signers = List.of(new FakeSigner(), new DelayedSigner("stuck", 2_000));
+
+    SignatureException exception =
+        assertThrows(
+            SignatureException.class,
+            () ->
+                IntotoHelper.produceIntotoEnvelope(
+                    createStatement("artifact"), signers, executor, Duration.ofMillis(100)));
+    assertTrue(exception.getMessage().contains("stuck"));
+  }
+
+  @Test
+  @DisplayName("Multi-signer timeouts do not count the time a Signer waits in the queue")
+  public void produceIntotoEnvelope_shouldNotTimeOut_whenSignersWaitInQueue() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      List<Signer> signers =
+          List.of(
+              new DelayedSigner("first", 150),
+              new DelayedSigner("second", 150),
+              new DelayedSigner("third", 150));
+
+      IntotoEnvelope envelope =
+          IntotoHelper.produceIntotoEnvelope(
+              createStatement("artifact"), signers, single, Duration.ofMillis(400));
+
+      assertEquals(3, envelope.getSignatures().size());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Multi-signer envelopes interrupt a Signer that exceeds its timeout")
+  public void produceIntotoEnvelope_shouldInterruptSigner_whenSignerTimesOut() throws Exception {
+    DelayedSigner stuck = new DelayedSigner("stuck", 10_000);
+
+    assertThrows(
+        SignatureException.class,
+        () ->
+            IntotoHelper.produceIntotoEnvelope(
+                createStatement("artifact"), List.of(stuck), executor, Duration.ofMillis(100)));
+    assertTrue(stuck.interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("Async envelopes match the blocking envelopes")
+  public void produceIntotoEnvelopeAsync_shouldProduceSameEnvelope_asBlockingCall()
+      throws Exception {
+    Statement statement = createStatement("artifact");
+    IntotoEnvelope expected = IntotoHelper.produceIntotoEnvelope(statement, new FakeSigner());
+
+    assertEquals(
+        expected, IntotoHelper.produceIntotoEnvelopeAsync(statement, new FakeSigner()).get());
+    AsyncSigner asyncSigner = AsyncSigner.fromSigner(new FakeSigner(), executor);
+    assertEquals(expected, IntotoHelper.produceIntotoEnvelopeAsync(statement, asyncSigner).get());
+  }
+
+  @Test
+  @DisplayName("Async envelopes keep many slow signatures in flight")
+  public void produceIntotoEnvelopeAsync_shouldNotBlockThreads_whenSignerIsAsync()
+      throws Exception {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      AsyncSigner remoteSigner =
+          new AsyncSigner() {
+            @Override
+            public CompletableFuture<byte[]> signAsync(byte[] payload) {
+              CompletableFuture<byte[]> signature = new CompletableFuture<>();
+              scheduler.schedule(() -> signature.complete(payload), 200, TimeUnit.MILLISECONDS);
+              return signature;
+            }
+
+            @Override
+            public String getKeyId() {
+              return "Fake-Signer-Key-ID";
+            }
+          };
+      List<CompletableFuture<IntotoEnvelope>> futures = new ArrayList<>();
+      for (int i = 0; i < 1_000; i++) {
+        futures.add(
+            IntotoHelper.produceIntotoEnvelopeAsync(
+                createStatement("artifact-" + i), remoteSigner));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+          .get(30, TimeUnit.SECONDS);
+      assertEquals(
+          IntotoHelper.produceIntotoEnvelope(createStatement("artifact-7"), new FakeSigner()),
+          futures.get(7).get());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Async envelopes complete exceptionally for invalid Statements")
+  public void produceIntotoEnvelopeAsync_shouldCompleteExceptionally_whenStatementIsInvalid() {
+    Statement invalid = new Statement();
+    invalid.setPredicate(IntotoStubFactory.createSimpleProvenancePredicate());
+
+    ExecutionException exception =
+        assertThrows(
+            ExecutionException.class,
+            () -> IntotoHelper.produceIntotoEnvelopeAsync(invalid, new FakeSigner()).get());
+    assertInstanceOf(InvalidModelException.class, exception.getCause());
+  }
+
+  /** Signer that takes a fixed amount of time, like a remote signing backend. */
+  private static class DelayedSigner implements Signer {
+    private final String keyId;
+    private final long delayMillis;
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+
+    DelayedSigner(String keyId, long delayMillis) {
+      this.keyId = keyId;
+      this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public byte[] sign(byte[] payload) {
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        Thread.currentThread().interrupt();
+      }
+      return keyId.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getKeyId() {
+      return keyId;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package io.github.intoto.helpers;
+
+import static io.github.intoto.utilities.StatementUtilities.createStatementWithMetadata;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.Statement;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LazyIntotoEnvelopeTest {
+
+  private final IntotoCodec codec = IntotoCodec.defaultCodec();
+
+  @Test
+  @DisplayName("Routing fields are read without decoding the payload")
+  public void parse_shouldNotDecodePayload_whenOnlyRoutingFieldsAreRead() throws Exception {
+    IntotoEnvelope envelope =
+        IntotoHelper.produceIntotoEnvelope(createStatementWithMetadata(), new FakeSigner());
+    byte[] json = codec.toJson(envelope, false).getBytes(StandardCharsets.UTF_8);
+
+    LazyIntotoEnvelope lazy = LazyIntotoEnvelope.parse(json, codec);
+
+    assertEquals(IntotoEnvelope.PAYLOAD_TYPE, lazy.getPayloadType());
+    assertEquals(List.of("Fake-Signer-Key-ID"), lazy.getKeyIds());
+    assertEquals(envelope.getPayload(), lazy.getEncodedPayload());
+    assertFalse(lazy.isPayloadDecoded());
+    assertFalse(lazy.isStatementBound());
+    assertEquals(envelope, lazy.toEnvelope());
+  }
+
+  @Test
+  @DisplayName("The Statement is bound on first access and cached")
+  public void getStatement_shouldBindOnce_whenAccessedRepeatedly() throws Exception {
+    Statement statement = createStatementWithMetadata();
+    IntotoEnvelope envelope = IntotoHelper.produceIntotoEnvelope(statement, new FakeSigner());
+    LazyIntotoEnvelope lazy = LazyIntotoEnvelope.of(envelope, codec);
+
+    Statement bound = lazy.getStatement();
+
+    assertTrue(lazy.isPayloadDecoded());
+    assertTrue(lazy.isStatementBound());
+    assertSame(bound, lazy.getStatement());
+    assertEquals(statement, bound);
+    assertEquals(
+        codec.validateAndTransformToJson(statement, false),
+        codec.validateAndTransformToJson(bound, false));
+  }
+
+  @Test
+  @DisplayName("Payloads with an unregistered predicateType cannot be bound")
+  public void getStatement_shouldThrow_whenPredicateTypeIsUnknown() {
+    String payload =
+        "{\"_type\":\"https://in-toto.io/Statement/v0.1\",\"subject\":[],"
+            + "\"predicateType\":\"https://example.com/unknown\",\"predicate\":{}}";
+    IntotoEnvelope envelope = new IntotoEnvelope();
+    envelope.setPayload(
+        Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8)));
+
+    assertThrows(IOException.class, () -> LazyIntotoEnvelope.of(envelope, codec).getStatement());
+  }
+
+  @Test
+  @DisplayName("Payloads with another Statement _type cannot be bound")
+  public void getStatement_shouldThrow_whenTypeIsUnexpected() {
+    IntotoEnvelope envelope =
+        envelopeWithPayload(
+            "{\"_type\":\"https://example.com/Statement/v9\",\"subject\":[],"
+                + "\"predicateType\":\"https://slsa.dev/provenance/v1\"}");
+
+    assertThrows(IOException.class, () -> LazyIntotoEnvelope.of(envelope, codec).getStatement());
+  }
+
+  @Test
+  @DisplayName("The predicateType of a Statement without a predicate is kept")
+  public void getStatement_shouldKeepPredicateType_whenPredicateIsOmitted() throws Exception {
+    IntotoEnvelope envelope =
+        envelopeWithPayload(
+            "{\"_type\":\"https://in-toto.io/Statement/v0.1\",\"subject\":[],"
+                + "\"predicateType\":\"https://example.com/unknown\"}");
+
+    Statement bound = LazyIntotoEnvelope.of(envelope, codec).getStatement();
+
+    assertEquals("https://example.com/unknown", bound.getPredicateType());
+    assertNull(bound.getPredicate());
+  }
+
+  private static IntotoEnvelope envelopeWithPayload(String payload) {
+    IntotoEnvelope envelope = new IntotoEnvelope();
+    envelope.setPayload(
+        Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8)));
+    return envelope;
+  }
+}
@@ -0,0 +1,95 @@
+package io.github.intoto.helpers;
+
+import static io.github.intoto.utilities.StatementUtilities.createStatement;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.intoto.dsse.models.IntotoEnvelope;
+import io.github.intoto.implementations.FakeSigner;
+import io.github.intoto.models.Statement;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StatementCacheTest {
+
+  @Test
+  @DisplayName("Repeated lookups of the same payload are served from the cache")
+  public void get_shouldHit_whenPayloadWasSeenBefore() throws Exception {
+    StatementCache cache = StatementCache.builder().build();
+    IntotoEnvelope envelope = createEnvelope(1);
+    IntotoEnvelope sameEnvelope = createEnvelope(1);
+
+    Statement first = cache.get(envelope);
+    Statement second = cache.get(sameEnvelope);
+    Statement third = cache.get(LazyIntotoEnvelope.of(envelope, IntotoCodec.defaultCodec()));
+
+    assertSame(first, second);
+    assertSame(first, third);
+    assertEquals(createStatement(1), first);
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  @DisplayName("Cache hits on envelopes do not decode the payload")
+  public void get_shouldNotDecodePayload_whenLazyEnvelopeHits() throws Exception {
+    StatementCache cache = StatementCache.builder().build();
+    IntotoEnvelope envelope = createEnvelope(1);
+    Statement first = cache.get(envelope);
+    byte[] json =
+        IntotoCodec.defaultCodec().toJson(envelope, false).getBytes(StandardCharsets.UTF_8);
+    LazyIntotoEnvelope lazy = LazyIntotoEnvelope.parse(json, IntotoCodec.defaultCodec());
+
+    assertSame(first, cache.get(lazy));
+    assertFalse(lazy.isPayloadDecoded());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  @DisplayName("The least recently used entry is evicted when the size bound is reached")
+  public void get_shouldEvictLeastRecentlyUsed_whenSizeIsExceeded() throws Exception {
+    StatementCache cache = StatementCache.builder().maximumSize(2).build();
+    Statement one = cache.get(createEnvelope(1));
+    cache.get(createEnvelope(2));
+    // Touch the first entry so the second one is the eldest.
+    assertSame(one, cache.get(createEnvelope(1)));
+
+    cache.get(createEnvelope(3));
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertSame(one, cache.get(createEnvelope(1)));
+    long misses = cache.getMissCount();
+    cache.get(createEnvelope(2));
+    assertEquals(misses + 1, cache.getMissCount());
+  }
+
+  @Test
+  @DisplayName("The weight bound caps the memory used by the cache")
+  public void get_shouldStayWithinWeight_whenPayloadsAreHeavy() throws Exception {
+    int payloadLength =
+        IntotoCodec.defaultCodec().validateAndTransformToJsonBytes(createStatement(1)).length;
+    StatementCache cache =
+        StatementCache.builder().weightPerPayloadByte(1).maximumWeight(payloadLength * 2L).build();
+
+    for (int i = 0; i < 5; i++) {
+      cache.get(createEnvelope(i));
+    }
+
+    assertEquals(2, cache.size());
+    assertEquals(3, cache.getEvictionCount());
+    assertEquals(payloadLength * 2L, cache.weight());
+
+    StatementCache tiny = StatementCache.builder().maximumWeight(1).build();
+    assertNotSame(tiny.get(createEnvelope(1)), tiny.get(createEnvelope(1)));
+    assertEquals(0, tiny.size());
+  }
+
+  private static IntotoEnvelope createEnvelope(int index) throws Exception {
+    return IntotoHelper.produceIntotoEnvelope(createStatement(index), new FakeSigner());
+  }
+}
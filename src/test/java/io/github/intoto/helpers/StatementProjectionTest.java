@@ -0,0 +1,84 @@
+package io.github.intoto.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.intoto.models.DigestSetAlgorithmType;
+import io.github.intoto.models.Statement;
+import io.github.intoto.models.Subject;
+import io.github.intoto.utilities.provenancev1.IntotoStubFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StatementProjectionTest {
+
+  @Test
+  @DisplayName("Only the values selected by the pointers are extracted")
+  public void project_shouldExtractSelectedValues() throws Exception {
+    byte[] payload = IntotoCodec.defaultCodec().validateAndTransformToJsonBytes(createStatement());
+    StatementProjection projection =
+        StatementProjection.of(
+            "/_type",
+            "/predicateType",
+            "/subject/*/digest",
+            "/subject/1/name",
+            "/predicate/runDetails/builder/id",
+            "/predicate/runDetails/metadata/missing");
+
+    Map<String, List<JsonNode>> values = projection.project(payload);
+
+    assertEquals(projection.getPointers(), List.copyOf(values.keySet()));
+    assertEquals("https://in-toto.io/Statement/v0.1", text(values.get("/_type")).get(0));
+    assertEquals("https://slsa.dev/provenance/v1", text(values.get("/predicateType")).get(0));
+    List<JsonNode> digests = values.get("/subject/*/digest");
+    assertEquals(2, digests.size());
+    assertEquals("aa", digests.get(0).get("sha256").asText());
+    assertEquals("bb", digests.get(1).get("sha256").asText());
+    assertEquals(List.of("second.tar.gz"), text(values.get("/subject/1/name")));
+    assertEquals(
+        List.of("mailto:person@example.com"), text(values.get("/predicate/runDetails/builder/id")));
+    assertTrue(values.get("/predicate/runDetails/metadata/missing").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Pointers below a selected value are matched on that value")
+  public void project_shouldMatchNestedPointers_whenParentIsSelected() throws Exception {
+    byte[] payload = IntotoCodec.defaultCodec().validateAndTransformToJsonBytes(createStatement());
+
+    Map<String, List<JsonNode>> values =
+        StatementProjection.of("/subject", "/subject/*/name").project(payload);
+
+    assertEquals(2, values.get("/subject").get(0).size());
+    assertEquals(List.of("first.tar.gz", "second.tar.gz"), text(values.get("/subject/*/name")));
+  }
+
+  @Test
+  @DisplayName("Pointers are unescaped and must start with a slash")
+  public void parse_shouldUnescapeTokens() {
+    assertEquals(List.of("a/b", "c~d", ""), StatementProjection.parse("/a~1b/c~0d/"));
+    assertTrue(StatementProjection.parse("").isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> StatementProjection.of("subject"));
+  }
+
+  private static List<String> text(List<JsonNode> nodes) {
+    return nodes.stream().map(JsonNode::asText).collect(Collectors.toList());
+  }
+
+  private static Statement createStatement() {
+    Subject first = new Subject();
+    first.setName("first.tar.gz");
+    first.setDigest(Map.of(DigestSetAlgorithmType.SHA256.getValue(), "aa"));
+    Subject second = new Subject();
+    second.setName("second.tar.gz");
+    second.setDigest(Map.of(DigestSetAlgorithmType.SHA256.getValue(), "bb"));
+    Statement statement = new Statement();
+    statement.setSubject(List.of(first, second));
+    statement.setPredicate(IntotoStubFactory.createProvenancePredicateWithMetadata());
+    return statement;
+  }
+}
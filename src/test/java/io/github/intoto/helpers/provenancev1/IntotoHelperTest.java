@@ -26,6 +26,7 @@ import io.github.intoto.slsa.models.v1.Provenance;
 import io.github.intoto.slsa.models.v1.ResourceDescriptor;
 import io.github.intoto.slsa.models.v1.RunDetails;
 import io.github.intoto.utilities.provenancev1.IntotoStubFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
@@ -658,6 +659,29 @@ public class IntotoHelperTest {
     assertEquals(EXPECTED_JSON_ENVELOPE, intotoEnvelope);
   }
 
+  @Test
+  @DisplayName("Test writing envelope to an OutputStream")
+  public void writeIntotoEnvelope_shouldWriteSameJsonAsProduceIntotoEnvelopeAsJson()
+      throws Exception {
+    Subject subject = new Subject();
+    subject.setName("curl-7.72.0.tar.bz2");
+    subject.setDigest(
+        Map.of(
+            DigestSetAlgorithmType.SHA256.getValue(),
+            "d4d5899a3868fbb6ae1856c3e55a32ce35913de3956d1973caccd37bd0174fa2"));
+    Statement statement = new Statement();
+    statement.setSubject(List.of(subject));
+    statement.setPredicate(IntotoStubFactory.createProvenancePredicateWithMetadata());
+
+    for (boolean prettyPrint : new boolean[] {true, false}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      IntotoHelper.writeIntotoEnvelope(statement, new FakeSigner(), out, prettyPrint);
+      assertEquals(
+          IntotoHelper.produceIntotoEnvelopeAsJson(statement, new FakeSigner(), prettyPrint),
+          out.toString(StandardCharsets.UTF_8));
+    }
+  }
+
   @Test
   @DisplayName("Test creating envelope with simple encryption")
   public void
@@ -0,0 +1,84 @@
+package io.github.intoto.utilities;
+
+import io.github.intoto.models.DigestSetAlgorithmType;
+import io.github.intoto.models.Predicate;
+import io.github.intoto.models.Statement;
+import io.github.intoto.models.Subject;
+import io.github.intoto.utilities.provenancev1.IntotoStubFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Convenience methods creating valid {@link Statement}s for tests. */
+public final class StatementUtilities {
+
+  private static final String CURL_NAME = "curl-7.72.0.tar.bz2";
+
+  private static final String CURL_SHA256 =
+      "d4d5899a3868fbb6ae1856c3e55a32ce35913de3956d1973caccd37bd0174fa2";
+
+  private StatementUtilities() {}
+
+  /** Creates a Statement about the curl tarball with a simple provenance predicate. */
+  public static Statement createStatement() {
+    return createStatement(CURL_NAME);
+  }
+
+  /**
+   * Creates a Statement with a simple provenance predicate about one subject with the curl digest.
+   *
+   * @param name the name of the subject.
+   */
+  public static Statement createStatement(String name) {
+    return statement(
+        List.of(subject(name, CURL_SHA256)), IntotoStubFactory.createSimpleProvenancePredicate());
+  }
+
+  /**
+   * Creates a Statement with a simple provenance predicate about one subject whose name and digest
+   * derive from the index, so different indexes give different Statements.
+   *
+   * @param index the index of the subject.
+   */
+  public static Statement createStatement(int index) {
+    return createStatementWithSubjects(index, 1);
+  }
+
+  /**
+   * Creates a Statement with a simple provenance predicate about many subjects, numbered from 0.
+   *
+   * @param count the number of subjects.
+   */
+  public static Statement createStatementWithSubjects(int count) {
+    return createStatementWithSubjects(0, count);
+  }
+
+  /** Creates a Statement about the curl tarball with a provenance predicate holding metadata. */
+  public static Statement createStatementWithMetadata() {
+    return statement(
+        List.of(subject(CURL_NAME, CURL_SHA256)),
+        IntotoStubFactory.createProvenancePredicateWithMetadata());
+  }
+
+  private static Statement createStatementWithSubjects(int first, int count) {
+    List<Subject> subjects = new ArrayList<>();
+    for (int i = first; i < first + count; i++) {
+      subjects.add(subject("artifact-" + i + ".tar.gz", String.format("%064x", i)));
+    }
+    return statement(subjects, IntotoStubFactory.createSimpleProvenancePredicate());
+  }
+
+  private static Subject subject(String name, String sha256) {
+    Subject subject = new Subject();
+    subject.setName(name);
+    subject.setDigest(Map.of(DigestSetAlgorithmType.SHA256.getValue(), sha256));
+    return subject;
+  }
+
+  private static Statement statement(List<Subject> subjects, Predicate predicate) {
+    Statement statement = new Statement();
+    statement.setSubject(subjects);
+    statement.setPredicate(predicate);
+    return statement;
+  }
+}
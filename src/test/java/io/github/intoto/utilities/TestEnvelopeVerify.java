@@ -5,9 +5,9 @@ import static io.github.intoto.utilities.KeyUtilities.readPublicKey;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import io.github.intoto.dsse.helpers.SimpleECDSAVerifier;
+import io.github.intoto.dsse.helpers.IntotoEnvelopeVerifier;
+import io.github.intoto.dsse.helpers.Keyring;
 import io.github.intoto.dsse.models.IntotoEnvelope;
-import io.github.intoto.helpers.IntotoHelper;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -16,7 +16,6 @@ import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Security;
-import java.util.Base64;
 import java.util.Objects;
 
 import io.github.intoto.utilities.provenancev01.TestEnvelopeGenerator;
@@ -30,13 +29,8 @@ public class TestEnvelopeVerify {
     KeyPair keyPair = getKeyPairFromFile();
     ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
     IntotoEnvelope envelope = objectMapper.readValue(fileContents, IntotoEnvelope.class);
-    byte[] decodedPayload = Base64.getDecoder().decode(envelope.getPayload());
-    byte[] decodedSig = Base64.getDecoder().decode(envelope.getSignatures().get(0).getSig());
-    byte[] paeString =
-        IntotoHelper.createPreAuthenticationEncoding(envelope.getPayloadType(), decodedPayload);
-    SimpleECDSAVerifier verifier = new SimpleECDSAVerifier();
-    boolean result =
-        verifier.verify(keyPair.getPublic().getEncoded(), decodedSig, new String(paeString));
+    Keyring keyring = new Keyring().add("MyKey", keyPair.getPublic());
+    boolean result = new IntotoEnvelopeVerifier(keyring).verify(envelope).isVerified();
     System.out.println("Verification is:" + result);
   }
 